@@ -1,5 +1,8 @@
 package com.ubaid.Auth_service.config;
 
+import com.ubaid.Auth_service.security.BoundedPasswordEncoder;
+import com.ubaid.Auth_service.security.PasswordHashCalibrator;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,8 +12,11 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,7 +25,11 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
     @Bean
@@ -27,9 +37,30 @@ public class AppConfig {
         return new ModelMapper();
     }
 
+    // Hashing runs on its own bounded executor instead of the request threads
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingConfig passwordHashingConfig, MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(adaptivePasswordEncoder(passwordHashingConfig),
+                passwordHashingConfig.effectiveThreads(),
+                passwordHashingConfig.getQueueCapacity(),
+                passwordHashingConfig.getRetryAfter(),
+                meterRegistry);
+    }
+
+    // New hashes are stored as {id}hash; unprefixed legacy BCrypt hashes still match and are
+    // re-hashed on the next successful login (see CustomUserDetailsService#updatePassword)
+    private static PasswordEncoder adaptivePasswordEncoder(PasswordHashingConfig config) {
+        int strength = config.getBcryptStrength() > 0
+                ? config.getBcryptStrength()
+                : PasswordHashCalibrator.calibrateBcrypt(config.getTargetHashTime());
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(strength));
+        encoders.put("pbkdf2@SpringSecurity_v5_8", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(config.getAlgorithm(), encoders);
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
     }
 
     @Bean
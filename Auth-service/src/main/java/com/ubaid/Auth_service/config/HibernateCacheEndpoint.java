@@ -0,0 +1,45 @@
+package com.ubaid.Auth_service.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/hibernatecache}: hit ratio, hits, misses, puts and resident entries per
+ * second-level cache region, counted since startup.
+ */
+@Component
+@Endpoint(id = "hibernatecache")
+@RequiredArgsConstructor
+public class HibernateCacheEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final SecondLevelCacheConfig secondLevelCacheConfig;
+
+    public record RegionStatistics(double hitRatio, long hits, long misses, long puts, long entries) {
+    }
+
+    @ReadOperation
+    public Map<String, RegionStatistics> regions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, RegionStatistics> regions = new LinkedHashMap<>();
+        for (String region : secondLevelCacheConfig.getRegions().keySet()) {
+            CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+            if (stats == null) continue;
+            long hits = stats.getHitCount();
+            long misses = stats.getMissCount();
+            long lookups = hits + misses;
+            regions.put(region, new RegionStatistics(lookups == 0 ? 0 : (double) hits / lookups,
+                    hits, misses, stats.getPutCount(), stats.getElementCountInMemory()));
+        }
+        return regions;
+    }
+}
@@ -0,0 +1,69 @@
+package com.ubaid.Auth_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JWT signing settings bound from the {@code jwt.*} properties.
+ *
+ * Key rotation without a coordinated restart:
+ * 1. add the new secret under {@code jwt.keys.<kid>} on every node (tokens are still signed with the old key)
+ * 2. switch {@code jwt.active-key-id} to the new kid, node by node
+ * 3. drop the old key once {@code access-token-ttl} has passed
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "jwt")
+public class JwtConfig {
+
+    public static final String DEFAULT_KEY_ID = "default";
+
+    // Legacy single secret; registered under the "default" kid and used for tokens issued without a kid
+    private String secretKey;
+
+    private String activeKeyId = DEFAULT_KEY_ID;
+
+    // Additional HMAC secrets by kid, accepted for verification during rotation
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    private Duration accessTokenTtl = Duration.ofHours(24);
+
+    // HS256 signs with the shared secret; ES256 signs with ecKeys[activeKeyId] and is verifiable from the JWKS
+    private String algorithm = "HS256";
+
+    // P-256 key pairs by kid; a key without privateKey is only used for verification and published in the JWKS
+    private Map<String, EcKey> ecKeys = new LinkedHashMap<>();
+
+    private Duration jwksMaxAge = Duration.ofMinutes(15);
+
+    // ENTITY loads the User per request; STATELESS builds the principal from claims and checks the security epoch only
+    private PrincipalMode principalMode = PrincipalMode.ENTITY;
+
+    private Revocation revocation = new Revocation();
+
+    public enum PrincipalMode {
+        ENTITY,
+        STATELESS
+    }
+
+    // Denylist of revoked token ids (jti): Redis sets mirrored into one memory-mapped Bloom filter per generation
+    @Data
+    public static class Revocation {
+        private String directory = "./data/revocation";
+        // Token expiry window covered by one filter file; a generation is dropped once all its tokens expired
+        private Duration generation = Duration.ofHours(1);
+        private long expectedInsertions = 100_000;
+        private double falsePositiveRate = 0.0001;
+    }
+
+    @Data
+    public static class EcKey {
+        private String privateKey; // PEM, PKCS#8
+        private String publicKey;  // PEM, X.509
+    }
+}
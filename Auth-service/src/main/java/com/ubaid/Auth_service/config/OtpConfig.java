@@ -0,0 +1,76 @@
+package com.ubaid.Auth_service.config;
+
+import com.ubaid.Auth_service.otp.FallbackOtpStore;
+import com.ubaid.Auth_service.otp.InMemoryOtpStore;
+import com.ubaid.Auth_service.otp.OtpDigest;
+import com.ubaid.Auth_service.otp.OtpStore;
+import com.ubaid.Auth_service.otp.RedisOtpStore;
+import com.ubaid.Auth_service.otp.WriteBehindOtpStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Phone login codes, bound from {@code otp.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "otp")
+@Slf4j
+public class OtpConfig {
+
+    private Duration ttl = Duration.ofMinutes(5);
+
+    // Wrong guesses before the code is deleted and a new one has to be requested
+    private int maxAttempts = 5;
+
+    // redis, memory (this node only) or fallback (redis, memory while Redis fails)
+    private String store = "redis";
+
+    // Expiry granularity of the in-memory store; lookups always check the exact deadline
+    private Duration memoryTick = Duration.ofSeconds(1);
+
+    // Replay in-memory store operations on Redis in the background
+    private boolean writeBehind = false;
+
+    private int writeBehindQueueCapacity = 10_000;
+
+    // HMAC key for store keys and stored codes; the same on every node sharing the store
+    private String digestSecret;
+
+    @Bean
+    public OtpDigest otpDigest() {
+        return new OtpDigest(digestSecret);
+    }
+
+    @Bean
+    public OtpStore otpStore(ObjectProvider<StringRedisTemplate> redisTemplate, MeterRegistry meterRegistry) {
+        log.info("OTP store: {}{}", store, writeBehind && !"redis".equals(store) ? " with write-behind to Redis" : "");
+        return switch (store) {
+            case "redis" -> new RedisOtpStore(redisTemplate.getObject());
+            case "memory" -> memoryStore(redisTemplate, meterRegistry);
+            case "fallback" -> new FallbackOtpStore(new RedisOtpStore(redisTemplate.getObject()),
+                    memoryStore(redisTemplate, meterRegistry), meterRegistry);
+            default -> throw new IllegalStateException("otp.store must be redis, memory or fallback, not " + store);
+        };
+    }
+
+    private OtpStore memoryStore(ObjectProvider<StringRedisTemplate> redisTemplate, MeterRegistry meterRegistry) {
+        InMemoryOtpStore memory = new InMemoryOtpStore(memoryTick, System::currentTimeMillis);
+        memory.start();
+        Gauge.builder("otp.memory.codes", memory, InMemoryOtpStore::size)
+                .description("Pending codes held in this node's memory")
+                .register(meterRegistry);
+        if (!writeBehind) return memory;
+        return new WriteBehindOtpStore(memory, new RedisOtpStore(redisTemplate.getObject()),
+                writeBehindQueueCapacity, meterRegistry);
+    }
+}
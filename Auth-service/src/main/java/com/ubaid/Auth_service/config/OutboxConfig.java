@@ -0,0 +1,70 @@
+package com.ubaid.Auth_service.config;
+
+import com.ubaid.Auth_service.outbox.AggregateType;
+import com.ubaid.Auth_service.outbox.InMemoryOutboxSink;
+import com.ubaid.Auth_service.outbox.KafkaOutboxSink;
+import com.ubaid.Auth_service.outbox.OutboxSink;
+import lombok.Data;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Transactional outbox relay, bound from {@code outbox.*}: where events go and how they are drained.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxConfig {
+
+    private boolean enabled = true;
+
+    // kafka, or memory to keep relayed events in-process (tests, local runs)
+    private String sink = "kafka";
+
+    private int batchSize = 200;
+
+    // Topics are <prefix><aggregate>s, e.g. hospital.patients
+    private String topicPrefix = "hospital.";
+
+    private int topicPartitions = 3;
+
+    private int topicReplicas = 1;
+
+    // A batch not acknowledged within this is rolled back and retried
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    // Only one node relays at a time (PostgreSQL advisory lock); turn off for databases without one
+    private boolean advisoryLock = true;
+
+    @Bean
+    public OutboxSink outboxSink(ObjectProvider<KafkaTemplate<String, String>> kafkaTemplate) {
+        return switch (sink) {
+            case "kafka" -> new KafkaOutboxSink(kafkaTemplate.getObject(), topicPrefix, sendTimeout);
+            case "memory" -> new InMemoryOutboxSink();
+            default -> throw new IllegalStateException("outbox.sink must be kafka or memory, not " + sink);
+        };
+    }
+
+    // Created on startup if missing; compaction keeps the latest state per aggregate id
+    @Bean
+    @ConditionalOnProperty(prefix = "outbox", name = "sink", havingValue = "kafka", matchIfMissing = true)
+    public KafkaAdmin.NewTopics outboxTopics() {
+        return new KafkaAdmin.NewTopics(Arrays.stream(AggregateType.values())
+                .map(type -> TopicBuilder.name(type.topic(topicPrefix))
+                        .partitions(topicPartitions)
+                        .replicas(topicReplicas)
+                        .compact()
+                        .build())
+                .toArray(NewTopic[]::new));
+    }
+}
@@ -0,0 +1,37 @@
+package com.ubaid.Auth_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the dedicated password hashing executor, bound from {@code password-hashing.*}.
+ * Hashing beyond {@code threads} running plus {@code queueCapacity} waiting is rejected with 429.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "password-hashing")
+public class PasswordHashingConfig {
+
+    // CPU budget for hashing; 0 means half of the available processors (at least one)
+    private int threads = 0;
+
+    private int queueCapacity = 64;
+
+    // Sent as Retry-After when a hash request is rejected
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // Id of the encoder used for new hashes: bcrypt or pbkdf2@SpringSecurity_v5_8
+    private String algorithm = "bcrypt";
+
+    // 0 means calibrate at startup so one hash takes about targetHashTime
+    private int bcryptStrength = 0;
+
+    private Duration targetHashTime = Duration.ofMillis(250);
+
+    public int effectiveThreads() {
+        return threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+}
@@ -0,0 +1,72 @@
+package com.ubaid.Auth_service.config;
+
+import com.ubaid.Auth_service.ratelimit.RateLimitInterceptor;
+import com.ubaid.Auth_service.ratelimit.RateLimited;
+import com.ubaid.Auth_service.ratelimit.RateLimiter;
+import lombok.Data;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token bucket limits for {@link RateLimited} methods, bound from {@code rate-limit.*}. A policy is a
+ * list of buckets that all have to hold a token for a call to pass.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitConfig {
+
+    private boolean enabled = true;
+
+    private Map<String, List<Limit>> policies = new LinkedHashMap<>();
+
+    // Distinct keys kept per node for the local pre-check
+    private long localMaximumKeys = 100_000;
+
+    @Data
+    public static class Limit {
+        // ip, global, or the name of a @RateLimitKey argument
+        private String key;
+
+        // Burst size
+        private long capacity;
+
+        // Time for an empty bucket to fill up again; the sustained rate is capacity per period
+        private Duration period;
+    }
+
+    public List<Limit> policy(String name) {
+        List<Limit> limits = policies.get(name);
+        if (limits == null) {
+            throw new IllegalStateException("No rate-limit.policies." + name + " configured");
+        }
+        return limits;
+    }
+
+    public Duration longestPeriod() {
+        List<Duration> periods = new ArrayList<>();
+        policies.values().forEach(limits -> limits.forEach(limit -> periods.add(limit.getPeriod())));
+        return periods.stream().max(Duration::compareTo).orElse(Duration.ofMinutes(1));
+    }
+
+    // Resolves the limiter lazily so the advisor can be created before regular beans
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor rateLimitAdvisor(ObjectProvider<RateLimiter> rateLimiter) {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, RateLimited.class, true),
+                new RateLimitInterceptor(rateLimiter));
+    }
+}
@@ -0,0 +1,143 @@
+package com.ubaid.Auth_service.config;
+
+import com.ubaid.Auth_service.datasource.ReadYourWritesTracker;
+import com.ubaid.Auth_service.datasource.ReplicaRoutingDataSource;
+import com.ubaid.Auth_service.datasource.SupportsReadInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, bound from {@code read-replicas.*}. When enabled the application's DataSource routes
+ * read-only work to the replica pools (see {@link ReplicaRoutingDataSource}); the primary is still
+ * configured through {@code spring.datasource.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "read-replicas")
+@Slf4j
+public class ReadReplicaConfig {
+
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // How long a user's reads stay on the primary after a write by or for them
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    private long readYourWritesMaximumUsers = 100_000;
+
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // Replicas further behind than this are skipped until they catch up
+    private Duration maxLag = Duration.ofSeconds(10);
+
+    // Seconds behind the primary; blank to skip the lag check. Zero while the replica has replayed everything it received
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        // Default to the primary's credentials
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+
+    // Always present so writers can mark affected users; records nothing without replicas
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                                       ObjectProvider<RedisMessageListenerContainer> listenerContainer) {
+        if (!enabled) return ReadYourWritesTracker.disabled();
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(readYourWritesWindow,
+                readYourWritesMaximumUsers, redisTemplate.getIfAvailable());
+        listenerContainer.ifAvailable(tracker::subscribe);
+        return tracker;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "read-replicas", name = "enabled", havingValue = "true")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties primaryProperties,
+                                                             ReadYourWritesTracker tracker,
+                                                             MeterRegistry meterRegistry) {
+        if (replicas.isEmpty()) {
+            throw new IllegalStateException("read-replicas.enabled is set but no read-replicas.replicas are configured");
+        }
+        // Pool names tag the hikaricp.connections.* timers (acquire, usage), giving per-pool latency
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        primary.setMetricsTrackerFactory(metrics);
+
+        List<ReplicaRoutingDataSource.Replica> pools = new ArrayList<>();
+        for (Replica replica : replicas) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(replica.getName());
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername() != null ? replica.getUsername() : primaryProperties.determineUsername());
+            pool.setPassword(replica.getPassword() != null ? replica.getPassword() : primaryProperties.determinePassword());
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            // A replica that is down at startup must not keep the application from starting
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(metrics);
+            pools.add(new ReplicaRoutingDataSource.Replica(replica.getName(), pool));
+        }
+
+        ReplicaRoutingDataSource router = new ReplicaRoutingDataSource(primary, pools, tracker, maxLag, lagQuery, meterRegistry);
+        router.start(healthCheckInterval);
+        log.info("Routing read-only work to replicas {}", replicas.stream().map(Replica::getName).toList());
+        return router;
+    }
+
+    // Physical connections are fetched at the first statement, once the routing decision can be made
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "read-replicas", name = "enabled", havingValue = "true")
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(prefix = "read-replicas", name = "enabled", havingValue = "true")
+    static Advisor supportsReadAdvisor() {
+        return new DefaultPointcutAdvisor(new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+                Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(specific, Transactional.class);
+                return transactional != null && transactional.value() == Transactional.TxType.SUPPORTS;
+            }
+        }, new SupportsReadInterceptor());
+    }
+}
@@ -0,0 +1,76 @@
+package com.ubaid.Auth_service.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.Data;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache on an in-process Caffeine JCache provider, bound from
+ * {@code second-level-cache.*}. Every region is created up front with its own size and TTL; entities and
+ * collections name their region in {@code @Cache}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "second-level-cache")
+public class SecondLevelCacheConfig {
+
+    private boolean enabled = true;
+
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+        private long maximumSize = 10_000;
+
+        // Entries expire this long after they were written, bounding staleness from writes on other nodes
+        private Duration timeToLive = Duration.ofMinutes(10);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // A manager of its own, so closing one application context never closes another one's caches
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("urn:hibernate-second-level-cache:" + UUID.randomUUID()), provider.getDefaultClassLoader());
+        regions.forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(region.getTimeToLive().toMillis())));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(name, configuration);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            if (enabled) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+                // Regions missing from the configuration are a mistake, not something to create silently
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+                // Per-region hit and miss counts for the hibernatecache actuator endpoint
+                properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            }
+        };
+    }
+}
@@ -3,6 +3,9 @@ package com.ubaid.Auth_service.config;
 import com.ubaid.Auth_service.repository.UserRepository;
 import com.ubaid.Auth_service.security.AuthUtil;
 import com.ubaid.Auth_service.security.JwtAuthFilter;
+import com.ubaid.Auth_service.security.SecurityEpochRegistry;
+import com.ubaid.Auth_service.security.TokenAuthenticationCache;
+import com.ubaid.Auth_service.security.TokenDenylist;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,11 +17,16 @@ public class SecurityBeansConfig {
 
     private final UserRepository userRepository;
     private final AuthUtil authUtil;
+    private final TokenAuthenticationCache tokenAuthenticationCache;
+    private final SecurityEpochRegistry securityEpochRegistry;
+    private final TokenDenylist tokenDenylist;
+    private final JwtConfig jwtConfig;
     private final HandlerExceptionResolver handlerExceptionResolver;
 
     @Bean
     public JwtAuthFilter jwtAuthFilter() {
-        return new JwtAuthFilter(userRepository, authUtil, handlerExceptionResolver);
+        return new JwtAuthFilter(userRepository, authUtil, tokenAuthenticationCache, securityEpochRegistry, tokenDenylist,
+                jwtConfig.getPrincipalMode(), handlerExceptionResolver);
     }
 }
 
@@ -0,0 +1,48 @@
+package com.ubaid.Auth_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Outgoing SMS, bound from {@code sms.*}: which gateway sends, how many sends run at once and how
+ * failed sends are retried. Messages beyond {@code concurrency} sending plus {@code queueCapacity}
+ * waiting are rejected with 503.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sms")
+public class SmsConfig {
+
+    // twilio or stub
+    private String provider = "twilio";
+
+    // Simultaneous requests to the provider; also the number of sender threads
+    private int concurrency = 8;
+
+    private int queueCapacity = 1000;
+
+    // Including the first attempt
+    private int maxAttempts = 4;
+
+    // Doubled per retry up to maxBackoff, with jitter
+    private Duration initialBackoff = Duration.ofMillis(500);
+
+    private Duration maxBackoff = Duration.ofSeconds(30);
+
+    // Sent as Retry-After when the queue is full
+    private Duration retryAfter = Duration.ofSeconds(5);
+
+    private Stub stub = new Stub();
+
+    @Data
+    public static class Stub {
+        // Added to every send to mimic the provider round trip
+        private Duration latency = Duration.ZERO;
+
+        // Share of sends failing with a retryable error, 0.0 - 1.0
+        private double failureRate = 0.0;
+    }
+}
@@ -0,0 +1,138 @@
+package com.ubaid.Auth_service.config;
+
+import com.ubaid.Auth_service.entity.id.Snowflake;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Leases a unique Snowflake node id from Redis ({@code SET NX} with a TTL) and keeps renewing it.
+ * A fixed {@code snowflake.node-id} skips the lease, e.g. for single-instance deployments.
+ * Ids are only issued while the last successful renewal is younger than {@code snowflake.lease-ttl}.
+ */
+@Component
+@Slf4j
+public class SnowflakeNodeLease {
+
+    private static final String LEASE_KEY_PREFIX = "snowflake:node:";
+
+    // Extends the TTL only while the key still holds our token
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final int fixedNodeId;
+    private final Duration leaseTtl;
+    private final String owner = UUID.randomUUID().toString();
+
+    private volatile int leasedNodeId = -1;
+
+    public SnowflakeNodeLease(StringRedisTemplate redisTemplate,
+                              @Value("${snowflake.node-id:-1}") int fixedNodeId,
+                              @Value("${snowflake.lease-ttl:60s}") Duration leaseTtl) {
+        this.redisTemplate = redisTemplate;
+        this.fixedNodeId = fixedNodeId;
+        this.leaseTtl = leaseTtl;
+    }
+
+    @PostConstruct
+    void acquire() {
+        if (fixedNodeId >= 0) {
+            Snowflake.assignNode(fixedNodeId);
+            log.info("Using fixed Snowflake node id {}", fixedNodeId);
+            return;
+        }
+        leaseAnyNode();
+    }
+
+    @Scheduled(fixedDelayString = "${snowflake.lease-renew-interval-ms:20000}")
+    public void renew() {
+        int node = leasedNodeId;
+        if (node < 0) {
+            if (fixedNodeId < 0) {
+                retryLease();
+            }
+            return;
+        }
+        try {
+            // Taken before the call, so the local deadline never outlives the TTL set in Redis
+            long sentAt = System.nanoTime();
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(LEASE_KEY_PREFIX + node),
+                    owner, String.valueOf(leaseTtl.toMillis()));
+            if (renewed == null || renewed == 0L) {
+                // Expired (e.g. a long pause) and possibly taken over: never keep generating with a shared id
+                log.warn("Lost the lease on Snowflake node id {}, leasing a new one", node);
+                Snowflake.revokeLease();
+                leasedNodeId = -1;
+                leaseAnyNode();
+            } else {
+                Snowflake.extendLease(node, sentAt + leaseTtl.toNanos());
+            }
+        } catch (RuntimeException e) {
+            // Snowflake stops issuing ids once the last successful renewal is leaseTtl old
+            log.warn("Could not renew Snowflake node lease {}: {}", node, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void release() {
+        int node = leasedNodeId;
+        if (node < 0) return;
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(LEASE_KEY_PREFIX + node), owner);
+        } catch (RuntimeException e) {
+            log.warn("Could not release Snowflake node lease {}: {}", node, e.getMessage());
+        }
+    }
+
+    // A lost lease that could not be replaced right away
+    private void retryLease() {
+        try {
+            leaseAnyNode();
+        } catch (RuntimeException e) {
+            log.warn("Could not lease a Snowflake node id: {}", e.getMessage());
+        }
+    }
+
+    private void leaseAnyNode() {
+        int nodes = Snowflake.MAX_NODE_ID + 1;
+        int start = ThreadLocalRandom.current().nextInt(nodes);
+        for (int i = 0; i < nodes; i++) {
+            int node = (start + i) % nodes;
+            long sentAt = System.nanoTime();
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LEASE_KEY_PREFIX + node, owner, leaseTtl);
+            if (Boolean.TRUE.equals(acquired)) {
+                Snowflake.assignLeasedNode(node, sentAt + leaseTtl.toNanos());
+                leasedNodeId = node;
+                log.info("Leased Snowflake node id {}", node);
+                return;
+            }
+        }
+        throw new IllegalStateException("All " + nodes + " Snowflake node ids are leased");
+    }
+
+    // Repositories need the EntityManagerFactory, so nothing can be persisted before a node id is leased
+    @Configuration(proxyBeanMethods = false)
+    static class JpaDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        JpaDependency() {
+            super(SnowflakeNodeLease.class);
+        }
+    }
+}
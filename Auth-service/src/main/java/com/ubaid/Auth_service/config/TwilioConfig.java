@@ -4,10 +4,12 @@ import com.twilio.Twilio;
 import jakarta.annotation.PostConstruct;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
 
 @Data
 @Configuration
+@ConditionalOnProperty(prefix = "sms", name = "provider", havingValue = "twilio", matchIfMissing = true)
 public class TwilioConfig {
 
     @Value("${twilio.account_sid}")
@@ -2,11 +2,13 @@ package com.ubaid.Auth_service.controller;
 
 import com.ubaid.Auth_service.dto.AdminRequestDTO;
 import com.ubaid.Auth_service.dto.AdminResponseDTO;
+import com.ubaid.Auth_service.dto.CursorPage;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.security.RequiresRole;
 import com.ubaid.Auth_service.service.AdminService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,35 +21,45 @@ public class AdminController {
     private final AdminService adminService;
 
     // ADMIN create or update own profile
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @PostMapping
     public AdminResponseDTO createOrUpdate(@Valid @RequestBody AdminRequestDTO dto) {
         return adminService.createOrUpdateAdmin(dto);
     }
 
     // ADMIN update own record
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @PutMapping("/{id}")
     public ResponseEntity<AdminResponseDTO> updateAdmin(@PathVariable Long id, @Valid @RequestBody AdminRequestDTO requestDTO) {
         return ResponseEntity.ok(adminService.updateAdmin(id, requestDTO));
     }
 
     // ADMIN read any admin (self or others)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/{id}")
     public ResponseEntity<AdminResponseDTO> getAdmin(@PathVariable Long id) {
         return ResponseEntity.ok(adminService.getAdmin(id));
     }
 
     // ADMIN list all admins
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping
     public ResponseEntity<List<AdminResponseDTO>> getAllAdmins() {
         return ResponseEntity.ok(adminService.getAllAdmins());
     }
 
+    // ADMIN page through admins (keyset on id)
+    @RequiresRole(RoleType.ADMIN)
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<AdminResponseDTO>> getAdminsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(adminService.getAdminsPage(cursor, size, includeTotal));
+    }
+
     // ADMIN delete admin (only super admin or higher level)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteAdmin(@PathVariable Long id) {
         adminService.deleteAdmin(id);
@@ -55,21 +67,21 @@ public class AdminController {
     }
 
     // ADMIN search by department
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/department/{department}")
     public ResponseEntity<List<AdminResponseDTO>> getAdminsByDepartment(@PathVariable String department) {
         return ResponseEntity.ok(adminService.getAdminsByDepartment(department));
     }
 
     // ADMIN search by admin level
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/level/{adminLevel}")
     public ResponseEntity<List<AdminResponseDTO>> getAdminsByLevel(@PathVariable String adminLevel) {
         return ResponseEntity.ok(adminService.getAdminsByLevel(adminLevel));
     }
 
     // ADMIN search admins
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/search")
     public ResponseEntity<List<AdminResponseDTO>> searchAdmins(
             @RequestParam(required = false) String name,
@@ -79,7 +91,7 @@ public class AdminController {
     }
 
     // ADMIN get own profile
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/profile")
     public ResponseEntity<AdminResponseDTO> getOwnProfile() {
         return ResponseEntity.ok(adminService.getAdminProfile());
@@ -2,7 +2,9 @@ package com.ubaid.Auth_service.controller;
 
 import com.ubaid.Auth_service.dto.*;
 import com.ubaid.Auth_service.security.AuthService;
+import com.ubaid.Auth_service.security.PasswordHashingRejectedException;
 import com.ubaid.Auth_service.service.OtpService;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,6 +32,8 @@ public class AuthController {
             log.info("Login successful for user: {} with roles: {}",
                     loginRequestDto.getUsername(), responseDto.getRoles());
             return ResponseEntity.ok(responseDto);
+        } catch (PasswordHashingRejectedException e) {
+            throw e; // 429 from GlobalExceptionHandler
         } catch (Exception e) {
             log.error("Login failed for user {}: {}", loginRequestDto.getUsername(), e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -47,12 +51,32 @@ public class AuthController {
         } catch (IllegalArgumentException e) {
             log.error("Signup failed for user {}: {}", signUpRequestDto.getUsername(), e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (PasswordHashingRejectedException e) {
+            throw e; // 429 from GlobalExceptionHandler
         } catch (Exception e) {
             log.error("Unexpected error during signup for user {}: {}", signUpRequestDto.getUsername(), e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader("Authorization") String authorization) {
+        if (!authorization.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            authService.logout(authorization.substring(7));
+            return ResponseEntity.noContent().build();
+        } catch (JwtException e) {
+            // Forged, malformed or expired: not a token this service would accept, so nothing to revoke
+            log.warn("Logout with invalid token: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (IllegalArgumentException e) {
+            log.error("Logout failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/getUser")
     public ResponseEntity<UserResponseDto> findById(@RequestParam("id") Long id) {
         try {
@@ -1,14 +1,21 @@
 package com.ubaid.Auth_service.controller;
 
+import com.ubaid.Auth_service.dto.CursorPage;
 import com.ubaid.Auth_service.dto.DoctorRequestDTO;
 import com.ubaid.Auth_service.dto.DoctorResponseDto;
+import com.ubaid.Auth_service.dto.DoctorSearchResponse;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.security.RequiresRole;
 import com.ubaid.Auth_service.service.DoctorService;
+import com.ubaid.Auth_service.service.RecordExportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -17,37 +24,61 @@ import java.util.List;
 public class DoctorController {
 
     private final DoctorService doctorService;
+    private final RecordExportService recordExportService;
 
     // DOCTOR create or update own profile
-    @PreAuthorize("hasRole('DOCTOR')")
+    @RequiresRole(RoleType.DOCTOR)
     @PostMapping
     public DoctorResponseDto createOrUpdate(@Valid @RequestBody DoctorRequestDTO dto) {
         return doctorService.createOrUpdateDoctor(dto);
     }
 
     // DOCTOR update own record
-    @PreAuthorize("hasRole('DOCTOR')")
+    @RequiresRole(RoleType.DOCTOR)
     @PutMapping("/{id}")
     public ResponseEntity<DoctorResponseDto> updateDoctor(@PathVariable Long id, @Valid @RequestBody DoctorRequestDTO requestDTO) {
         return ResponseEntity.ok(doctorService.updateDoctor(id, requestDTO));
     }
 
     // ADMIN read any doctor
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/{id}")
     public ResponseEntity<DoctorResponseDto> getDoctor(@PathVariable Long id) {
         return ResponseEntity.ok(doctorService.getDoctor(id));
     }
 
     // ADMIN list all doctors
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping
     public ResponseEntity<List<DoctorResponseDto>> getAllDoctors() {
         return ResponseEntity.ok(doctorService.getAllDoctors());
     }
 
+    // ADMIN page through doctors (keyset on id)
+    @RequiresRole(RoleType.ADMIN)
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<DoctorResponseDto>> getDoctorsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(doctorService.getDoctorsPage(cursor, size, includeTotal));
+    }
+
+    // ADMIN bulk export of all doctors as NDJSON or CSV, streamed and gzipped when accepted
+    @RequiresRole(RoleType.ADMIN)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportDoctors(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RecordExportService.Format exportFormat = RecordExportService.Format.parse(format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        return ResponseEntity.ok()
+                .headers(RecordExportService.exportHeaders("doctors", exportFormat, gzip))
+                .body(recordExportService.doctorsExport(exportFormat, gzip));
+    }
+
     // ADMIN delete doctor
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteDoctor(@PathVariable Long id) {
         doctorService.deleteDoctor(id);
@@ -55,31 +86,39 @@ public class DoctorController {
     }
 
     // ADMIN search by license number
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/license/{licenseNumber}")
     public ResponseEntity<DoctorResponseDto> getDoctorByLicense(@PathVariable String licenseNumber) {
         return ResponseEntity.ok(doctorService.getDoctorByLicenseNumber(licenseNumber));
     }
 
     // ADMIN search by specialization
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/specialization/{specialization}")
     public ResponseEntity<List<DoctorResponseDto>> getDoctorsBySpecialization(@PathVariable String specialization) {
         return ResponseEntity.ok(doctorService.getDoctorsBySpecialization(specialization));
     }
 
-    // ADMIN search doctors
-    @PreAuthorize("hasRole('ADMIN')")
+    // ADMIN search doctors: filters, fee/experience ranges, sorting and facet counts
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/search")
-    public ResponseEntity<List<DoctorResponseDto>> searchDoctors(
+    public ResponseEntity<DoctorSearchResponse> searchDoctors(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String specialization,
-            @RequestParam(required = false) Boolean isAvailable) {
-        return ResponseEntity.ok(doctorService.searchDoctors(name, specialization, isAvailable));
+            @RequestParam(required = false) Boolean isAvailable,
+            @RequestParam(required = false) BigDecimal minFee,
+            @RequestParam(required = false) BigDecimal maxFee,
+            @RequestParam(required = false) Integer minExperience,
+            @RequestParam(required = false) Integer maxExperience,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(doctorService.searchDoctors(name, specialization, isAvailable,
+                minFee, maxFee, minExperience, maxExperience, sort, page, size));
     }
 
     // DOCTOR get own profile
-    @PreAuthorize("hasRole('DOCTOR')")
+    @RequiresRole(RoleType.DOCTOR)
     @GetMapping("/profile")
     public ResponseEntity<DoctorResponseDto> getOwnProfile() {
         return ResponseEntity.ok(doctorService.getDoctorProfile());
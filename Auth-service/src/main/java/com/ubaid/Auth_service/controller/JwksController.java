@@ -0,0 +1,35 @@
+package com.ubaid.Auth_service.controller;
+
+import com.ubaid.Auth_service.config.JwtConfig;
+import com.ubaid.Auth_service.security.JwtCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/auth/.well-known")
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtCodec jwtCodec;
+    private final JwtConfig jwtConfig;
+
+    // Public keys for local ES256 verification by downstream services; cacheable and revalidated by ETag
+    @GetMapping(value = "/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> jwks(WebRequest webRequest) {
+        if (webRequest.checkNotModified(jwtCodec.jwksETag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(jwtConfig.getJwksMaxAge()).cachePublic())
+                .eTag(jwtCodec.jwksETag())
+                .body(jwtCodec.jwks());
+    }
+}
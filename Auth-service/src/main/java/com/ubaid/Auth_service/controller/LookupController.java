@@ -0,0 +1,27 @@
+package com.ubaid.Auth_service.controller;
+
+import com.ubaid.Auth_service.dto.TypeaheadSuggestion;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.security.RequiresRole;
+import com.ubaid.Auth_service.service.LookupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/lookup")
+@RequiredArgsConstructor
+public class LookupController {
+
+    private final LookupService lookupService;
+
+    // As-you-type lookup of people by name or business id, limited to what the caller's role may see
+    @RequiresRole({RoleType.ADMIN, RoleType.DOCTOR, RoleType.PATIENT})
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<TypeaheadSuggestion>> typeahead(@RequestParam("q") String query,
+                                                               @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(lookupService.typeahead(query, limit));
+    }
+}
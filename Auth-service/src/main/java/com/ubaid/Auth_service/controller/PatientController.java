@@ -1,13 +1,18 @@
 package com.ubaid.Auth_service.controller;
 
+import com.ubaid.Auth_service.dto.CursorPage;
 import com.ubaid.Auth_service.dto.PatientRequestDTO;
 import com.ubaid.Auth_service.dto.PatientResponseDTO;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.security.RequiresRole;
 import com.ubaid.Auth_service.service.PatientService;
+import com.ubaid.Auth_service.service.RecordExportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 @RestController
@@ -16,45 +21,70 @@ import java.util.List;
 public class PatientController {
 
     private final PatientService patientService;
+    private final RecordExportService recordExportService;
 
-    @PreAuthorize("hasRole('PATIENT')")
+    @RequiresRole(RoleType.PATIENT)
     @PostMapping
     public PatientResponseDTO createOrUpdate(@Valid @RequestBody PatientRequestDTO dto) {
         return patientService.createOrUpdatePatient(dto);
     }
 
-    @PreAuthorize("hasRole('PATIENT')")
+    @RequiresRole(RoleType.PATIENT)
     @PutMapping("/{id}")
     public ResponseEntity<PatientResponseDTO> updatePatient(@PathVariable Long id, @Valid @RequestBody PatientRequestDTO requestDTO) {
         return ResponseEntity.ok(patientService.updatePatient(id, requestDTO));
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/{id}")
     public ResponseEntity<PatientResponseDTO> getPatient(@PathVariable Long id) {
         return ResponseEntity.ok(patientService.getPatient(id));
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping
     public ResponseEntity<List<PatientResponseDTO>> getAllPatients() {
         return ResponseEntity.ok(patientService.getAllPatients());
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    // ADMIN page through patients (keyset on id), optionally filtered by name
+    @RequiresRole(RoleType.ADMIN)
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<PatientResponseDTO>> getPatientsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(patientService.getPatientsPage(cursor, size, name, includeTotal));
+    }
+
+    // ADMIN bulk export of all patients as NDJSON or CSV, streamed and gzipped when accepted
+    @RequiresRole(RoleType.ADMIN)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPatients(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RecordExportService.Format exportFormat = RecordExportService.Format.parse(format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        return ResponseEntity.ok()
+                .headers(RecordExportService.exportHeaders("patients", exportFormat, gzip))
+                .body(recordExportService.patientsExport(exportFormat, gzip));
+    }
+
+    @RequiresRole(RoleType.ADMIN)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePatient(@PathVariable Long id) {
         patientService.deletePatient(id);
         return ResponseEntity.noContent().build();
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/name/{name}")
     public ResponseEntity<PatientResponseDTO> getPatientByName(@PathVariable String name) {
         return ResponseEntity.ok(patientService.getPatientByName(name));
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     @GetMapping("/search")
     public ResponseEntity<List<PatientResponseDTO>> searchPatients(@RequestParam(required = false) String name) {
         return ResponseEntity.ok(patientService.searchPatientsByName(name));
@@ -0,0 +1,35 @@
+package com.ubaid.Auth_service.controller;
+
+import com.ubaid.Auth_service.dto.RolePermissionsDto;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.security.RequiresRole;
+import com.ubaid.Auth_service.service.RolePermissionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/role-permissions")
+@RequiredArgsConstructor
+public class RolePermissionController {
+
+    private final RolePermissionService rolePermissionService;
+
+    // ADMIN read the role -> permission matrix
+    @RequiresRole(RoleType.ADMIN)
+    @GetMapping
+    public ResponseEntity<List<RolePermissionsDto>> getMatrix() {
+        return ResponseEntity.ok(rolePermissionService.getMatrix());
+    }
+
+    // ADMIN replace the permissions granted to one role; applied on all nodes
+    @RequiresRole(RoleType.ADMIN)
+    @PutMapping("/{role}")
+    public ResponseEntity<RolePermissionsDto> replacePermissions(@PathVariable RoleType role,
+                                                                 @Valid @RequestBody RolePermissionsDto request) {
+        return ResponseEntity.ok(rolePermissionService.replacePermissions(role, request));
+    }
+}
@@ -0,0 +1,106 @@
+package com.ubaid.Auth_service.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ubaid.Auth_service.security.AuthPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Users, by id, whose data was written within the last {@code window}, whether by themselves or by
+ * someone else (an admin changing their roles); their reads go to the primary until the replicas have
+ * caught up. Each node keeps its own set and tells the others about new writes through Redis pub/sub
+ * (like {@code SecurityEpochRegistry}), so the per-read check never leaves the JVM. Without Redis the
+ * stickiness only holds on the node that took the write.
+ */
+@Slf4j
+public class ReadYourWritesTracker implements MessageListener {
+
+    static final String CHANNEL = "db:recent-writes";
+
+    private final Cache<Long, Boolean> recentWriters;
+    private final StringRedisTemplate redisTemplate;
+
+    public ReadYourWritesTracker(Duration window, long maximumUsers, StringRedisTemplate redisTemplate) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumUsers)
+                .build();
+        this.redisTemplate = redisTemplate;
+    }
+
+    private ReadYourWritesTracker() {
+        this.recentWriters = null;
+        this.redisTemplate = null;
+    }
+
+    // Records nothing; for deployments without read replicas
+    public static ReadYourWritesTracker disabled() {
+        return new ReadYourWritesTracker();
+    }
+
+    public void subscribe(RedisMessageListenerContainer listenerContainer) {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    // Records the user once the current transaction commits; at once outside a transaction
+    public void recordAfterCommit(Long userId) {
+        if (recentWriters == null || userId == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordWrite(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordWrite(userId);
+            }
+        });
+    }
+
+    public void recordWrite(Long userId) {
+        if (recentWriters == null) return;
+        recentWriters.put(userId, Boolean.TRUE);
+        if (redisTemplate == null) return;
+        try {
+            redisTemplate.convertAndSend(CHANNEL, String.valueOf(userId));
+        } catch (RuntimeException e) {
+            log.warn("Could not publish recent write of user {}; other nodes may serve stale reads: {}", userId, e.getMessage());
+        }
+    }
+
+    public boolean recentlyWrote(Long userId) {
+        return recentWriters != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            recentWriters.put(Long.parseLong(body), Boolean.TRUE);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed recent-write message: {}", body);
+        }
+    }
+
+    // Id of the authenticated caller, or null for anonymous and background work
+    static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthPrincipal principal)) {
+            return null;
+        }
+        return principal.userId();
+    }
+}
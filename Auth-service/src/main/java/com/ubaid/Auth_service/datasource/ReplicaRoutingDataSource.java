@@ -0,0 +1,223 @@
+package com.ubaid.Auth_service.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out replica connections only inside a read scope ({@code SUPPORTS} read methods and exports,
+ * see {@link SupportsReadInterceptor}) and only for work there that runs read-only or outside any
+ * transaction; everything else, including the read-only transactions Spring Data opens around
+ * repository calls from login and the authentication filter, gets the primary. Replicas are used
+ * round robin, skipping those the health check found unreachable or lagging; with none left, or for a
+ * user who wrote or was written moments ago ({@link ReadYourWritesTracker}), reads go to the primary.
+ *
+ * The decision is made when the physical connection is fetched, so this must sit behind a
+ * {@code LazyConnectionDataSourceProxy}: a transaction's connection is then only fetched at its first
+ * statement, after the transaction's read-only flag has been published.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    public static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy = true;
+        volatile double lagSeconds;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesTracker tracker;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<Replica> replicas,
+                                    ReadYourWritesTracker tracker,
+                                    Duration maxLag,
+                                    String lagQuery,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.tracker = tracker;
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+        this.meterRegistry = meterRegistry;
+        for (Replica replica : this.replicas) {
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("1 while the replica takes reads, 0 while it is skipped")
+                    .tag("pool", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag seen by the last health check")
+                    .baseUnit("seconds")
+                    .tag("pool", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    public void start(Duration interval) {
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (healthChecker != null) healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) closeable.close();
+        }
+        if (primary instanceof AutoCloseable closeable) closeable.close();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!readOnlyRequested()) {
+            Connection connection = primary.getConnection();
+            // Once the transaction commits, the writing user reads from the primary for a while
+            tracker.recordAfterCommit(ReadYourWritesTracker.currentUserId());
+            routed(PRIMARY, "write");
+            return connection;
+        }
+
+        // Read-only outside a read scope: authentication and other lookups that must see the latest commit
+        if (!SupportsReadInterceptor.inReadScope()) {
+            return primaryForRead("outside-read-scope");
+        }
+
+        Long userId = ReadYourWritesTracker.currentUserId();
+        if (userId != null && tracker.recentlyWrote(userId)) {
+            return primaryForRead("read-your-writes");
+        }
+
+        // Each healthy replica at most once; one that fails here is skipped until the health check clears it
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = nextHealthy();
+            if (replica == null) break;
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                routed(replica.name, "read");
+                return connection;
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+        return primaryForRead("no-healthy-replica");
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are configured per pool");
+    }
+
+    // Probes every replica, including those marked down, so they come back once healthy again
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(5)) {
+                    markDown(replica, "connection not valid");
+                    continue;
+                }
+                replica.lagSeconds = lagSeconds(connection);
+                if (replica.lagSeconds > maxLag.toMillis() / 1000.0) {
+                    markDown(replica, String.format("%.1f s behind the primary", replica.lagSeconds));
+                    continue;
+                }
+                if (!replica.healthy) {
+                    log.info("Replica {} is healthy again", replica.name);
+                    replica.healthy = true;
+                }
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+    }
+
+    private double lagSeconds(Connection connection) throws SQLException {
+        if (lagQuery == null || lagQuery.isBlank()) return 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(lagQuery)) {
+            return result.next() ? result.getDouble(1) : 0;
+        }
+    }
+
+    private static boolean readOnlyRequested() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return SupportsReadInterceptor.inReadScope();
+    }
+
+    private Replica nextHealthy() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) return replica;
+        }
+        return null;
+    }
+
+    private Connection primaryForRead(String reason) throws SQLException {
+        Connection connection = primary.getConnection();
+        routed(PRIMARY, reason);
+        return connection;
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            log.warn("Replica {} taken out of rotation: {}", replica.name, reason);
+            replica.healthy = false;
+        }
+    }
+
+    private void routed(String pool, String reason) {
+        Counter.builder("datasource.routing")
+                .description("Connections handed out by pool and routing reason")
+                .tag("pool", pool)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Names of the replicas currently taking reads; package-private for tests
+    List<String> healthyReplicas() {
+        List<String> names = new ArrayList<>();
+        for (Replica replica : replicas) {
+            if (replica.healthy) names.add(replica.name);
+        }
+        return names;
+    }
+}
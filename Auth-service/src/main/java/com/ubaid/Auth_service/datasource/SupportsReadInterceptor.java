@@ -0,0 +1,52 @@
+package com.ubaid.Auth_service.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the thread while a {@code @Transactional(TxType.SUPPORTS)} read method runs, so connections
+ * it opens outside a real transaction, or in a read-only one, may come from a replica (see
+ * {@link ReplicaRoutingDataSource}). Nested calls keep the outermost scope.
+ */
+public class SupportsReadInterceptor implements MethodInterceptor {
+
+    private static final ThreadLocal<Boolean> READ_SCOPE = new ThreadLocal<>();
+
+    @FunctionalInterface
+    interface Work<T> {
+        T run() throws Throwable;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        return inReadScope(invocation::proceed);
+    }
+
+    static boolean inReadScope() {
+        return READ_SCOPE.get() != null;
+    }
+
+    // Read scope for read-only work outside SUPPORTS methods, e.g. exports
+    public static <T> T readScope(Supplier<T> work) {
+        if (inReadScope()) return work.get();
+        READ_SCOPE.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            READ_SCOPE.remove();
+        }
+    }
+
+    // Package-private for tests
+    static <T> T inReadScope(Work<T> work) throws Throwable {
+        if (inReadScope()) return work.run();
+        READ_SCOPE.set(Boolean.TRUE);
+        try {
+            return work.run();
+        } finally {
+            READ_SCOPE.remove();
+        }
+    }
+}
@@ -1,4 +1,7 @@
 package com.ubaid.Auth_service.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import com.ubaid.Auth_service.entity.type.RoleType;
 import lombok.*;
 
@@ -12,6 +15,7 @@ import java.util.Set;
 @Builder
 public class AdminResponseDTO {
 
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
 
     private String username; // from User
@@ -1,4 +1,7 @@
 package com.ubaid.Auth_service.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.*;
 
 import java.sql.Timestamp;
@@ -11,6 +14,7 @@ import java.util.Set;
 @Builder
 public class DepartmentResponseDTO {
 
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
 
     private String departmentName;
@@ -19,8 +23,10 @@ public class DepartmentResponseDTO {
 
     private String description;
 
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long headOfDepartmentId; // or DoctorResponseDTO
 
+    @JsonSerialize(contentUsing = ToStringSerializer.class)
     private Set<Long> doctorIds; // or Set<DoctorResponseDTO>
 
     private String location;
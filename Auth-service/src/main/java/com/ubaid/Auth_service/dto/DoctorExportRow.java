@@ -0,0 +1,21 @@
+package com.ubaid.Auth_service.dto;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+// Flat projection streamed by the doctor export; avoids loading the eagerly mapped User per row
+public record DoctorExportRow(Long id,
+                              String doctorId,
+                              Long userId,
+                              String firstName,
+                              String lastName,
+                              String phoneNumber,
+                              String licenseNumber,
+                              String specialization,
+                              String qualification,
+                              Integer experienceYears,
+                              BigDecimal consultationFee,
+                              boolean available,
+                              boolean active,
+                              Timestamp createdAt) {
+}
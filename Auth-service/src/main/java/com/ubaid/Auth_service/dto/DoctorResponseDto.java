@@ -1,4 +1,7 @@
 package com.ubaid.Auth_service.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import com.ubaid.Auth_service.entity.type.RoleType;
 import lombok.*;
 
@@ -11,8 +14,10 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 public class DoctorResponseDto {
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private String doctorId;
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long userId;
     private String username;
     private String email;
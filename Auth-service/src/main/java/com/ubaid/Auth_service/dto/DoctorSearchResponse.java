@@ -0,0 +1,30 @@
+package com.ubaid.Auth_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One sorted page of a doctor search with facet counts. {@code specializations} is ordered by count;
+ * {@code availability} has the keys {@code available} and {@code unavailable}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DoctorSearchResponse {
+
+    private List<DoctorResponseDto> items;
+
+    private int page;
+
+    private int size;
+
+    private int total;
+
+    private Map<String, Integer> specializations;
+
+    private Map<String, Integer> availability;
+}
@@ -1,5 +1,7 @@
 package com.ubaid.Auth_service.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,6 +14,7 @@ import java.util.Set;
 @Builder
 public class LoginResponseDto {
     private String jwt;
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long userId;
     private String username;
     private Set<String> roles;
@@ -1,5 +1,7 @@
 package com.ubaid.Auth_service.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.*;
 import java.sql.Timestamp;
 import java.time.LocalDate;
@@ -10,6 +12,7 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @Builder
 public class PatientResponseDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private String username;
     private String roles;
@@ -0,0 +1,21 @@
+package com.ubaid.Auth_service.dto;
+
+import com.ubaid.Auth_service.entity.type.PermissionType;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RolePermissionsDto {
+
+    private RoleType role;
+
+    @NotNull(message = "Permissions cannot be null")
+    private Set<PermissionType> permissions;
+}
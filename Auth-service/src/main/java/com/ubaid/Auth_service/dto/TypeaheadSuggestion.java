@@ -0,0 +1,24 @@
+package com.ubaid.Auth_service.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TypeaheadSuggestion {
+
+    // PATIENT, DOCTOR or ADMIN
+    private String type;
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
+
+    // patientId, doctorId or adminId
+    private String businessId;
+
+    private String name;
+}
@@ -1,5 +1,7 @@
 package com.ubaid.Auth_service.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import com.ubaid.Auth_service.entity.type.RoleType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,6 +18,8 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 public class UserResponseDto {
+    // Snowflake ids go past 2^53 and would be rounded by JavaScript clients, so ids are sent as strings
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private String username;
     private String email;
@@ -1,5 +1,6 @@
 package com.ubaid.Auth_service.entity;
 
+import com.ubaid.Auth_service.search.AdminIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -14,6 +15,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@EntityListeners(AdminIndexListener.class)
 @Table(name = "admins")
 public class Admin {
 
@@ -0,0 +1,45 @@
+package com.ubaid.Auth_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.sql.Timestamp;
+
+/**
+ * A domain event written in the same transaction as the change it describes and relayed to the
+ * message broker afterwards (see {@code OutboxRelay}). A null payload is a tombstone: the aggregate
+ * was deleted.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    // A database sequence, not a Snowflake id: values follow insert order across nodes. OutboxPublisher
+    // inserts only after flushing the aggregate's change, i.e. while holding its row lock, so the
+    // events of one aggregate get ids in commit order
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 32)
+    private String aggregateType;
+
+    @Column(nullable = false, length = 64)
+    private String aggregateId;
+
+    @Column(nullable = false, length = 64)
+    private String eventType;
+
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Timestamp createdAt;
+}
@@ -1,6 +1,8 @@
 package com.ubaid.Auth_service.entity;
 
+import com.ubaid.Auth_service.entity.id.SnowflakeId;
 import com.ubaid.Auth_service.entity.type.BloodGroupType;
+import com.ubaid.Auth_service.search.PatientIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -15,6 +17,7 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@EntityListeners(PatientIndexListener.class)
 @Table(name = "patients", uniqueConstraints = {
         @UniqueConstraint(name = "uk_patients_user", columnNames = {"user_id"}),
         @UniqueConstraint(name = "uk_patients_patient_id", columnNames = {"patient_id"})
@@ -22,7 +25,7 @@ import java.time.LocalDate;
 public class Patient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,31 @@
+package com.ubaid.Auth_service.entity;
+
+import com.ubaid.Auth_service.entity.type.PermissionType;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import jakarta.persistence.*;
+import lombok.*;
+
+// One row per granted (role, permission) pair; compiled into a PermissionMatrix snapshot at runtime
+@Entity
+@Table(name = "role_permissions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_role_permissions_role_permission", columnNames = {"role", "permission"})
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RolePermission {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private RoleType role;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 64)
+    private PermissionType permission;
+}
@@ -1,16 +1,19 @@
 package com.ubaid.Auth_service.entity;
 
+import com.ubaid.Auth_service.entity.id.SnowflakeId;
 import com.ubaid.Auth_service.entity.type.AuthProviderType;
 import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.security.AuthPrincipal;
+import com.ubaid.Auth_service.security.PermissionMatrix;
 import com.ubaid.Auth_service.security.RolePermissionMapping;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Entity
 @Table(name = "users", indexes = {
@@ -22,10 +25,10 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class User implements UserDetails {
+public class User implements UserDetails, AuthPrincipal {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     // Unique handle, not necessarily email
@@ -50,21 +53,22 @@ public class User implements UserDetails {
     private String phone;
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-roles")
     @Enumerated(EnumType.STRING)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     private Set<RoleType> roles = new HashSet<>();
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        Set<GrantedAuthority> authorities = roles.stream()
-                .flatMap(role -> RolePermissionMapping.getAuthoritiesForRole(role).stream())
-                .collect(Collectors.toSet());
-        authorities.addAll(roles.stream()
-                .map(r -> new SimpleGrantedAuthority("ROLE_" + r.name()))
-                .collect(Collectors.toSet()));
-        return authorities;
+        // Shared, precompiled set for this combination of roles
+        return RolePermissionMapping.getAuthorities(roles);
     }
 
+    @Override public Long userId() { return id; }
+    @Override public String username() { return username; }
+    @Override public int roleMask() { return PermissionMatrix.roleMask(roles); }
+    @Override public long permissionMask() { return RolePermissionMapping.snapshot().permissionMask(roleMask()); }
+
     @Override public String getPassword() { return password; }
     @Override public String getUsername() { return username; }
     @Override public boolean isAccountNonExpired() { return true; }
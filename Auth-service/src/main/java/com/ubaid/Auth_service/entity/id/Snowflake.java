@@ -0,0 +1,93 @@
+package com.ubaid.Auth_service.entity.id;
+
+/**
+ * 64-bit time-ordered ids: 41 bits of milliseconds since 2024-01-01, 10 bits of node id and
+ * 12 bits of per-millisecond sequence (4096 ids per ms and node).
+ * The node id must be unique among running instances; it is leased at startup by SnowflakeNodeLease.
+ * A leased node id is only used until its lease runs out; a fixed one (assignNode) never expires.
+ */
+public final class Snowflake {
+
+    static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    public static final int NODE_BITS = 10;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // Tolerated backwards clock jump (e.g. NTP slew) before generation fails
+    private static final long MAX_CLOCK_DRIFT_MILLIS = 10;
+
+    private static int nodeId = -1;
+    private static boolean leased;
+    private static long leaseDeadlineNanos; // System.nanoTime() after which another node may hold the id
+    private static long lastMillis = -1;
+    private static long sequence;
+
+    private Snowflake() {}
+
+    public static synchronized void assignNode(int node) {
+        if (node < 0 || node > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Snowflake node id must be between 0 and " + MAX_NODE_ID + ": " + node);
+        }
+        nodeId = node;
+        leased = false;
+    }
+
+    public static synchronized void assignLeasedNode(int node, long deadlineNanos) {
+        assignNode(node);
+        leased = true;
+        leaseDeadlineNanos = deadlineNanos;
+    }
+
+    // Ignored when the node id changed since the renewal started
+    public static synchronized void extendLease(int node, long deadlineNanos) {
+        if (leased && nodeId == node) {
+            leaseDeadlineNanos = deadlineNanos;
+        }
+    }
+
+    // The lease is gone from Redis: stop issuing ids until a new node id is leased
+    public static synchronized void revokeLease() {
+        if (leased) {
+            leaseDeadlineNanos = System.nanoTime();
+        }
+    }
+
+    public static synchronized int nodeId() {
+        return nodeId;
+    }
+
+    public static synchronized long nextId() {
+        if (nodeId < 0) {
+            throw new IllegalStateException("Snowflake node id not assigned yet");
+        }
+        if (leased && System.nanoTime() - leaseDeadlineNanos >= 0) {
+            throw new IllegalStateException("Snowflake node lease on id " + nodeId + " has expired");
+        }
+
+        long now = System.currentTimeMillis();
+        if (now < lastMillis) {
+            if (lastMillis - now > MAX_CLOCK_DRIFT_MILLIS) {
+                throw new IllegalStateException("Clock moved backwards by " + (lastMillis - now) + " ms");
+            }
+            now = lastMillis; // keep issuing from the last timestamp until the clock catches up
+        }
+
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // Sequence exhausted for this millisecond: move to the next one
+                while (now <= lastMillis) {
+                    now = System.currentTimeMillis();
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+
+        return ((now - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS))
+                | ((long) nodeId << SEQUENCE_BITS)
+                | sequence;
+    }
+}
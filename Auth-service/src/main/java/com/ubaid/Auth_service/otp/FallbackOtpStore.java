@@ -0,0 +1,72 @@
+package com.ubaid.Auth_service.otp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Duration;
+
+/**
+ * Redis first, this node's memory when Redis fails. A code stored in memory during an outage is still
+ * found after Redis recovers, because a miss in Redis is checked against memory too.
+ */
+@Slf4j
+public class FallbackOtpStore implements OtpStore, AutoCloseable {
+
+    private final OtpStore redis;
+    private final OtpStore memory;
+    private final Counter fallbacks;
+
+    public FallbackOtpStore(OtpStore redis, OtpStore memory, MeterRegistry meterRegistry) {
+        this.redis = redis;
+        this.memory = memory;
+        this.fallbacks = Counter.builder("otp.store.fallbacks")
+                .description("OTP operations served from memory because Redis failed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void store(String key, String codeDigest, Duration ttl) {
+        try {
+            redis.store(key, codeDigest, ttl);
+            // An older code kept in memory during an outage must not stay valid next to the new one
+            memory.remove(key);
+        } catch (DataAccessException e) {
+            fallBack("store", e);
+            memory.store(key, codeDigest, ttl);
+        }
+    }
+
+    @Override
+    public Result verify(String key, String codeDigest, int maxAttempts) {
+        Result result;
+        try {
+            result = redis.verify(key, codeDigest, maxAttempts);
+        } catch (DataAccessException e) {
+            fallBack("verify", e);
+            return memory.verify(key, codeDigest, maxAttempts);
+        }
+        return result == Result.MISSING ? memory.verify(key, codeDigest, maxAttempts) : result;
+    }
+
+    @Override
+    public void remove(String key) {
+        memory.remove(key);
+        try {
+            redis.remove(key);
+        } catch (DataAccessException e) {
+            fallBack("remove", e);
+        }
+    }
+
+    private void fallBack(String operation, DataAccessException e) {
+        fallbacks.increment();
+        log.warn("OTP {} served from memory, Redis failed: {}", operation, e.getMessage());
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (memory instanceof AutoCloseable closeable) closeable.close();
+    }
+}
@@ -0,0 +1,147 @@
+package com.ubaid.Auth_service.otp;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Codes in a map on this node, for deployments without Redis or while Redis is unreachable. Expiry
+ * runs on a {@link TimingWheel} turned by one background thread, so a code costs one map entry that
+ * doubles as its timer and nothing is scanned. Lookups check the deadline themselves, so a code is
+ * never accepted late even if the wheel is a tick behind.
+ */
+@Slf4j
+public class InMemoryOtpStore implements OtpStore, AutoCloseable {
+
+    // Levels of 64 slots; with one-second ticks the wheel covers 64^4 s (about 194 days)
+    private static final int LEVELS = 4;
+
+    private static final class Entry extends TimingWheel.Timer {
+        final String key;
+        final String codeDigest;
+        final long expiresAt;
+        int attempts; // only changed inside map.compute
+
+        Entry(String key, String codeDigest, long expiresAt) {
+            this.key = key;
+            this.codeDigest = codeDigest;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> codes = new ConcurrentHashMap<>();
+    private final TimingWheel<Entry> wheel;
+    private final LongSupplier clock;
+    private final long tickMillis;
+    private ScheduledExecutorService ticker;
+
+    public InMemoryOtpStore(Duration tick, LongSupplier clock) {
+        this.clock = clock;
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.wheel = new TimingWheel<>(tickMillis, LEVELS, clock.getAsLong());
+    }
+
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                expire(clock.getAsLong());
+            } catch (RuntimeException e) {
+                log.error("Expiring in-memory OTPs failed: {}", e.getMessage(), e);
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) ticker.shutdownNow();
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    @Override
+    public void store(String key, String codeDigest, Duration ttl) {
+        Entry entry = new Entry(key, codeDigest, clock.getAsLong() + ttl.toMillis());
+        Entry previous = codes.put(key, entry);
+        // Wheel lock is never taken inside a map operation, so the ticker cannot deadlock with us
+        synchronized (wheel) {
+            if (previous != null) wheel.cancel(previous);
+            wheel.schedule(entry, entry.expiresAt);
+        }
+    }
+
+    @Override
+    public Result verify(String key, String codeDigest, int maxAttempts) {
+        long now = clock.getAsLong();
+        Result[] result = {Result.MISSING};
+        Entry[] removed = {null};
+        codes.computeIfPresent(key, (k, entry) -> {
+            if (entry.expiresAt <= now) {
+                removed[0] = entry;
+                return null;
+            }
+            if (entry.codeDigest.equals(codeDigest)) {
+                result[0] = Result.VALID;
+                removed[0] = entry;
+                return null;
+            }
+            if (++entry.attempts >= maxAttempts) {
+                result[0] = Result.LOCKED;
+                removed[0] = entry;
+                return null;
+            }
+            result[0] = Result.INVALID;
+            return entry;
+        });
+        if (removed[0] != null) {
+            synchronized (wheel) {
+                wheel.cancel(removed[0]);
+            }
+        }
+        return result[0];
+    }
+
+    @Override
+    public void remove(String key) {
+        Entry entry = codes.remove(key);
+        if (entry != null) {
+            synchronized (wheel) {
+                wheel.cancel(entry);
+            }
+        }
+    }
+
+    // Turns the wheel to now and drops the codes it hands back; package-private for tests
+    int expire(long now) {
+        List<Entry> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(now, entry -> {
+                if (entry.expiresAt > now) {
+                    // Beyond the wheel's range when scheduled
+                    wheel.schedule(entry, entry.expiresAt);
+                } else {
+                    due.add(entry);
+                }
+            });
+        }
+        int expired = 0;
+        for (Entry entry : due) {
+            // A newer code under the same key has its own timer
+            if (codes.remove(entry.key, entry)) expired++;
+        }
+        return expired;
+    }
+}
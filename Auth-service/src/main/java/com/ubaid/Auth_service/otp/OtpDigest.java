@@ -0,0 +1,50 @@
+package com.ubaid.Auth_service.otp;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * Store keys and stored codes as HMAC-SHA256 under a server-side secret. A plain hash of a phone
+ * number or a six-digit code is reversed by trying every value, so without the secret a Redis or heap
+ * dump shows neither phone numbers nor live codes.
+ */
+public class OtpDigest {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String KEY_PREFIX = "otp:";
+
+    private final ThreadLocal<Mac> mac;
+
+    public OtpDigest(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("otp.digest-secret must be set");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        // Mac instances are not thread-safe
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(ALGORITHM + " not available", e);
+            }
+        });
+    }
+
+    public String key(String phoneNumber) {
+        return KEY_PREFIX + digest("phone:" + phoneNumber);
+    }
+
+    public String code(String phoneNumber, String otp) {
+        return digest("code:" + phoneNumber + ':' + otp);
+    }
+
+    private String digest(String value) {
+        byte[] hash = mac.get().doFinal(value.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
@@ -0,0 +1,23 @@
+package com.ubaid.Auth_service.otp;
+
+import java.time.Duration;
+
+/**
+ * Where pending phone login codes live. Keys and codes arrive already digested; a store only compares
+ * them, counts wrong guesses and forgets a code once it matched, ran out of attempts or expired.
+ */
+public interface OtpStore {
+
+    enum Result { VALID, INVALID, LOCKED, MISSING }
+
+    // Replaces any pending code under the key and resets its attempt count
+    void store(String key, String codeDigest, Duration ttl);
+
+    /**
+     * Checks {@code codeDigest} against the pending code. A match or the {@code maxAttempts}-th wrong
+     * guess removes the code.
+     */
+    Result verify(String key, String codeDigest, int maxAttempts);
+
+    void remove(String key);
+}
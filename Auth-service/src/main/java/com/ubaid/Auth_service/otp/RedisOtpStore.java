@@ -0,0 +1,60 @@
+package com.ubaid.Auth_service.otp;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Codes in Redis hashes ({@code code}, {@code attempts}) with a TTL, shared by all nodes. Storing and
+ * verifying are one script call each, so a guess is compared, counted and cleaned up atomically.
+ */
+@RequiredArgsConstructor
+public class RedisOtpStore implements OtpStore {
+
+    // Replaces any earlier code for the phone and resets its attempt counter, in one round trip
+    private static final DefaultRedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+                    + "redis.call('HSET', KEYS[1], 'code', ARGV[1], 'attempts', 0) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+                    + "return 1",
+            Long.class);
+
+    // 1 = match (code deleted), 0 = wrong code, -1 = no code, -2 = wrong code and out of attempts (code deleted)
+    private static final DefaultRedisScript<Long> VERIFY_SCRIPT = new DefaultRedisScript<>(
+            "local code = redis.call('HGET', KEYS[1], 'code') "
+                    + "if not code then return -1 end "
+                    + "if code == ARGV[1] then redis.call('DEL', KEYS[1]) return 1 end "
+                    + "local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1) "
+                    + "if attempts >= tonumber(ARGV[2]) then redis.call('DEL', KEYS[1]) return -2 end "
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public void store(String key, String codeDigest, Duration ttl) {
+        redisTemplate.execute(STORE_SCRIPT, List.of(key), codeDigest, String.valueOf(ttl.toMillis()));
+    }
+
+    @Override
+    public Result verify(String key, String codeDigest, int maxAttempts) {
+        Long result = redisTemplate.execute(VERIFY_SCRIPT, List.of(key), codeDigest, String.valueOf(maxAttempts));
+        if (result == null) {
+            throw new IllegalStateException("OTP verify script returned nothing");
+        }
+        return switch (result.intValue()) {
+            case 1 -> Result.VALID;
+            case 0 -> Result.INVALID;
+            case -2 -> Result.LOCKED;
+            default -> Result.MISSING;
+        };
+    }
+
+    @Override
+    public void remove(String key) {
+        redisTemplate.delete(key);
+    }
+}
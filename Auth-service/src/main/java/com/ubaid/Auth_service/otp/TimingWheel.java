@@ -0,0 +1,136 @@
+package com.ubaid.Auth_service.otp;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@code levels} wheels of 64 slots, where a slot of level {@code l} spans
+ * 64^l ticks. A timer goes into the lowest level whose range covers its deadline and moves down a
+ * level each time the wheel above turns past it, so scheduling, cancelling and expiring are O(1) per
+ * timer and one ticking thread serves any number of them. Slots are intrusive doubly linked lists, so
+ * a timer costs two references and a long on top of the object that extends {@link Timer}.
+ * Not thread-safe; callers guard it.
+ */
+class TimingWheel<T extends TimingWheel.Timer> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+
+    static class Timer {
+        long deadlineTick;
+        Timer prev;
+        Timer next;
+
+        boolean scheduled() {
+            return next != null;
+        }
+    }
+
+    private final long tickMillis;
+    private final int levels;
+    private final long maxDelta;
+    // One sentinel per slot; an empty slot points at itself
+    private final Timer[][] slots;
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, int levels, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.maxDelta = (1L << (BITS * levels)) - 1;
+        this.slots = new Timer[levels][SLOTS];
+        for (Timer[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer sentinel = new Timer();
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                level[i] = sentinel;
+            }
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * (Re)schedules {@code timer} to expire on the first tick at or after {@code deadlineMillis}.
+     * Deadlines beyond the wheel's range expire at the end of the range; callers re-check and reschedule.
+     */
+    void schedule(T timer, long deadlineMillis) {
+        cancel(timer);
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        timer.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+        if (timer.deadlineTick - currentTick > maxDelta) {
+            timer.deadlineTick = currentTick + maxDelta;
+        }
+        insert(timer);
+        size++;
+    }
+
+    void cancel(T timer) {
+        if (!timer.scheduled()) return;
+        unlink(timer);
+        size--;
+    }
+
+    /**
+     * Turns the wheel up to {@code nowMillis}, handing every timer whose deadline has passed to
+     * {@code expired} (already unscheduled, so it may be rescheduled from the callback).
+     */
+    @SuppressWarnings("unchecked")
+    int advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        int count = 0;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Lower levels first: timers cascading from above land in slots not yet reached this round
+            for (int level = 1; level < levels && (currentTick & ((1L << (BITS * level)) - 1)) == 0; level++) {
+                Timer sentinel = slots[level][slot(currentTick, level)];
+                Timer timer = sentinel.next;
+                sentinel.next = sentinel;
+                sentinel.prev = sentinel;
+                while (timer != sentinel) {
+                    Timer next = timer.next;
+                    insert(timer);
+                    timer = next;
+                }
+            }
+
+            Timer sentinel = slots[0][slot(currentTick, 0)];
+            while (sentinel.next != sentinel) {
+                Timer timer = sentinel.next;
+                unlink(timer);
+                size--;
+                count++;
+                expired.accept((T) timer);
+            }
+        }
+        return count;
+    }
+
+    private void insert(Timer timer) {
+        long delta = timer.deadlineTick - currentTick;
+        int level = 0;
+        while (level < levels - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        Timer sentinel = slots[level][slot(timer.deadlineTick, level)];
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+    private static void unlink(Timer timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    private static int slot(long tick, int level) {
+        return (int) ((tick >>> (BITS * level)) & MASK);
+    }
+}
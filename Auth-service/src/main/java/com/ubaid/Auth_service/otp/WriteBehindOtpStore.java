@@ -0,0 +1,95 @@
+package com.ubaid.Auth_service.otp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers from the in-memory store and replays every operation on Redis in the background, in order,
+ * so other nodes (and this one after a restart) see the same codes and wrong guesses a moment later.
+ * Replication is best effort: operations that fail or do not fit in the queue are counted and dropped.
+ */
+@Slf4j
+public class WriteBehindOtpStore implements OtpStore, AutoCloseable {
+
+    private final OtpStore local;
+    private final OtpStore redis;
+    private final ThreadPoolExecutor replicator;
+    private final Counter replicated;
+    private final Counter dropped;
+
+    public WriteBehindOtpStore(OtpStore local, OtpStore redis, int queueCapacity, MeterRegistry meterRegistry) {
+        this.local = local;
+        this.redis = redis;
+        // One thread keeps the replayed operations in their original order
+        this.replicator = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "otp-write-behind");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.replicated = Counter.builder("otp.write-behind")
+                .description("OTP store operations replayed on Redis")
+                .tag("outcome", "replicated")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("otp.write-behind")
+                .description("OTP store operations replayed on Redis")
+                .tag("outcome", "dropped")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void store(String key, String codeDigest, Duration ttl) {
+        local.store(key, codeDigest, ttl);
+        replicate(() -> redis.store(key, codeDigest, ttl));
+    }
+
+    @Override
+    public Result verify(String key, String codeDigest, int maxAttempts) {
+        Result result = local.verify(key, codeDigest, maxAttempts);
+        switch (result) {
+            case VALID -> replicate(() -> redis.remove(key));
+            // Same guess against the Redis copy: counts the attempt there and deletes it on lockout
+            case INVALID, LOCKED -> replicate(() -> redis.verify(key, codeDigest, maxAttempts));
+            case MISSING -> {
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void remove(String key) {
+        local.remove(key);
+        replicate(() -> redis.remove(key));
+    }
+
+    @Override
+    public void close() throws Exception {
+        replicator.shutdown();
+        if (local instanceof AutoCloseable closeable) closeable.close();
+    }
+
+    private void replicate(Runnable operation) {
+        try {
+            replicator.execute(() -> {
+                try {
+                    operation.run();
+                    replicated.increment();
+                } catch (RuntimeException e) {
+                    dropped.increment();
+                    log.debug("OTP write-behind to Redis failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.ubaid.Auth_service.outbox;
+
+import java.util.Locale;
+
+// What an outbox event is about; each type has its own compacted topic keyed by the aggregate id
+public enum AggregateType {
+    USER, PATIENT, DOCTOR, ADMIN;
+
+    public String topic(String prefix) {
+        return prefix + name().toLowerCase(Locale.ROOT) + "s";
+    }
+}
@@ -0,0 +1,25 @@
+package com.ubaid.Auth_service.outbox;
+
+import com.ubaid.Auth_service.entity.OutboxEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps relayed events in memory (outbox.sink=memory), for tests and local runs without Kafka
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new ArrayList<>();
+
+    @Override
+    public synchronized void send(List<OutboxEvent> batch) {
+        events.addAll(batch);
+    }
+
+    public synchronized List<OutboxEvent> events() {
+        return List.copyOf(events);
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
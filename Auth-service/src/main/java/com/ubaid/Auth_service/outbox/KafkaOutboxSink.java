@@ -0,0 +1,61 @@
+package com.ubaid.Auth_service.outbox;
+
+import com.ubaid.Auth_service.entity.OutboxEvent;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes each event to its aggregate's topic, keyed by the aggregate id: all events of an aggregate
+ * go to one partition in outbox order (the idempotent producer keeps that order across retries), and
+ * compaction keeps the latest state per aggregate, with tombstones removing deleted ones.
+ */
+public class KafkaOutboxSink implements OutboxSink {
+
+    static final String EVENT_TYPE_HEADER = "event-type";
+    static final String EVENT_ID_HEADER = "event-id";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String topicPrefix;
+    private final Duration sendTimeout;
+
+    public KafkaOutboxSink(KafkaTemplate<String, String> kafkaTemplate, String topicPrefix, Duration sendTimeout) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topicPrefix = topicPrefix;
+        this.sendTimeout = sendTimeout;
+    }
+
+    @Override
+    public void send(List<OutboxEvent> events) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            ProducerRecord<String, String> record = new ProducerRecord<>(
+                    AggregateType.valueOf(event.getAggregateType()).topic(topicPrefix),
+                    event.getAggregateId(),
+                    event.getPayload());
+            record.headers().add(EVENT_TYPE_HEADER, event.getEventType().getBytes(StandardCharsets.UTF_8));
+            // Delivery is at-least-once; consumers drop ids they have already seen
+            record.headers().add(EVENT_ID_HEADER, String.valueOf(event.getId()).getBytes(StandardCharsets.UTF_8));
+            sends.add(kafkaTemplate.send(record));
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing outbox events", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Publishing outbox events failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Publishing outbox events timed out after " + sendTimeout, e);
+        }
+    }
+}
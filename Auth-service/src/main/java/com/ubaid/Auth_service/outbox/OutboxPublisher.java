@@ -0,0 +1,124 @@
+package com.ubaid.Auth_service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubaid.Auth_service.datasource.ReadYourWritesTracker;
+import com.ubaid.Auth_service.entity.Admin;
+import com.ubaid.Auth_service.entity.Doctor;
+import com.ubaid.Auth_service.entity.OutboxEvent;
+import com.ubaid.Auth_service.entity.Patient;
+import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.repository.OutboxEventRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Records domain events in the outbox table. Every method joins the caller's transaction (and refuses
+ * to run without one), so an event exists exactly when the change it describes was committed.
+ * Payloads are the aggregate's full current state, which is what a compacted topic keeps per key.
+ *
+ * The aggregate's own INSERT/UPDATE/DELETE is flushed before the event row is inserted, so the
+ * transaction holds the aggregate's row lock by the time its event gets an id: a concurrent writer of
+ * the same aggregate blocks until this one commits and can only get a later id. Ids, and with them
+ * relay order, therefore follow commit order per aggregate.
+ *
+ * Every saved aggregate also marks its owning user as recently written, so that user's reads stay on
+ * the primary while replicas catch up, even when someone else made the change.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void userSaved(String eventType, User user) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("id", user.getId());
+        state.put("username", user.getUsername());
+        state.put("email", user.getEmail());
+        state.put("firstName", user.getFirstName());
+        state.put("lastName", user.getLastName());
+        state.put("phone", user.getPhone());
+        state.put("providerType", user.getProviderType());
+        state.put("roles", new TreeSet<>(user.getRoles()));
+        append(AggregateType.USER, user.getId(), user.getId(), eventType, state);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void patientSaved(String eventType, Patient patient) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("id", patient.getId());
+        state.put("patientId", patient.getPatientId());
+        state.put("userId", patient.getUser().getId());
+        state.put("firstName", patient.getFirstName());
+        state.put("lastName", patient.getLastName());
+        state.put("email", patient.getEmail());
+        state.put("phoneNumber", patient.getPhoneNumber());
+        state.put("active", patient.isActive());
+        append(AggregateType.PATIENT, patient.getId(), patient.getUser().getId(), eventType, state);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void doctorSaved(String eventType, Doctor doctor) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("id", doctor.getId());
+        state.put("doctorId", doctor.getDoctorId());
+        state.put("userId", doctor.getUser().getId());
+        state.put("firstName", doctor.getFirstName());
+        state.put("lastName", doctor.getLastName());
+        state.put("specialization", doctor.getSpecialization());
+        state.put("licenseNumber", doctor.getLicenseNumber());
+        state.put("available", doctor.isAvailable());
+        state.put("active", doctor.isActive());
+        append(AggregateType.DOCTOR, doctor.getId(), doctor.getUser().getId(), eventType, state);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void adminSaved(String eventType, Admin admin) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("id", admin.getId());
+        state.put("adminId", admin.getAdminId());
+        state.put("firstName", admin.getFirstName());
+        state.put("lastName", admin.getLastName());
+        state.put("department", admin.getDepartment());
+        state.put("adminLevel", admin.getAdminLevel());
+        state.put("active", admin.isActive());
+        // Shares its id with the user (@MapsId)
+        append(AggregateType.ADMIN, admin.getId(), admin.getId(), eventType, state);
+    }
+
+    // Tombstone: compaction drops the aggregate's earlier events
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void deleted(AggregateType aggregateType, Long id) {
+        String name = aggregateType.name();
+        append(aggregateType, id, null, name.charAt(0) + name.substring(1).toLowerCase(Locale.ROOT) + "Deleted", null);
+    }
+
+    private void append(AggregateType aggregateType, Long id, Long userId, String eventType, Object state) {
+        String payload;
+        try {
+            payload = state == null ? null : objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + eventType + " for " + aggregateType + " " + id, e);
+        }
+        entityManager.flush();
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType.name())
+                .aggregateId(String.valueOf(id))
+                .eventType(eventType)
+                .payload(payload)
+                .build());
+        readYourWritesTracker.recordAfterCommit(userId);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ubaid.Auth_service.outbox;
+
+import com.ubaid.Auth_service.config.OutboxConfig;
+import com.ubaid.Auth_service.entity.OutboxEvent;
+import com.ubaid.Auth_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox: reads the oldest events in batches, hands each batch to the {@link OutboxSink}
+ * and deletes it in the same transaction once the sink accepted it. A failed send rolls back and the
+ * batch is retried on the next run, so delivery is at-least-once and in outbox order. With
+ * {@code outbox.advisory-lock} only the node holding a PostgreSQL advisory lock relays at a time;
+ * the others skip the run, which keeps a single ordered stream.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    // Arbitrary, fixed: all nodes must agree on it
+    private static final long ADVISORY_LOCK_KEY = 0x6f7574626f78L; // "outbox"
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final OutboxConfig config;
+
+    private final Timer batchTimer;
+    private final Counter relayed;
+    private final Counter failures;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink outboxSink,
+                       JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       OutboxConfig config,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSink = outboxSink;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.config = config;
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time to send and delete one batch of outbox events")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.relayed = Counter.builder("outbox.relayed")
+                .description("Outbox events delivered to the sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures")
+                .description("Outbox batches rolled back because the sink failed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!config.isEnabled()) return;
+        try {
+            // Keep going while batches come back full, so a backlog drains without waiting for the next run
+            int sent;
+            do {
+                sent = relayBatch();
+            } while (sent == config.getBatchSize());
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox relay failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    // Returns the number of events relayed; package-private for tests
+    int relayBatch() {
+        Integer count = transaction.execute(status -> {
+            if (config.isAdvisoryLock() && !Boolean.TRUE.equals(
+                    jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY))) {
+                return 0;
+            }
+            List<OutboxEvent> batch = outboxEventRepository.findByOrderByIdAsc(Limit.of(config.getBatchSize()));
+            if (batch.isEmpty()) return 0;
+
+            long start = System.nanoTime();
+            outboxSink.send(batch);
+            outboxEventRepository.deleteAllInBatch(batch);
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return batch.size();
+        });
+        int relayedCount = count == null ? 0 : count;
+        relayed.increment(relayedCount);
+        return relayedCount;
+    }
+}
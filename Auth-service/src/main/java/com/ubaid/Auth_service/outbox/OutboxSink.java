@@ -0,0 +1,14 @@
+package com.ubaid.Auth_service.outbox;
+
+import com.ubaid.Auth_service.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Where the relay delivers outbox events. {@code send} returns only once every event of the batch is
+ * durably accepted, in order, and throws otherwise; the batch is then retried as a whole.
+ */
+public interface OutboxSink {
+
+    void send(List<OutboxEvent> events);
+}
@@ -0,0 +1,37 @@
+package com.ubaid.Auth_service.ratelimit;
+
+/**
+ * In-process token bucket with the same capacity and refill rate as its Redis counterpart. It only
+ * counts this node's requests, so whenever it is empty the shared bucket is too and the request can be
+ * rejected without a round trip.
+ */
+class LocalTokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    LocalTokenBucket(long capacity, double tokensPerNano, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerNano;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    // 0 when a token was taken, otherwise the nanos until one is available
+    synchronized long tryAcquire(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    // Gives back a token taken for a request that was rejected elsewhere
+    synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+}
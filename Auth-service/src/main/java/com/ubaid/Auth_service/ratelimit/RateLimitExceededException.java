@@ -0,0 +1,17 @@
+package com.ubaid.Auth_service.ratelimit;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+// A rate limit bucket is empty; mapped to 429 Too Many Requests
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(Duration retryAfter) {
+        super("Too many requests, retry later");
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ubaid.Auth_service.ratelimit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies {@link RateLimited}: collects the {@link RateLimitKey} arguments and asks the
+ * {@link RateLimiter} for a token before proceeding. Annotation lookups are resolved once per method.
+ */
+public class RateLimitInterceptor implements MethodInterceptor {
+
+    private record Binding(String policy, String[] keyNames) {
+    }
+
+    private final ObjectProvider<RateLimiter> rateLimiter;
+    private final Map<Method, Binding> bindings = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(ObjectProvider<RateLimiter> rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Binding binding = bindings.computeIfAbsent(invocation.getMethod(), method -> bind(method, invocation.getThis()));
+        Object[] arguments = invocation.getArguments();
+        Map<String, String> keys = new HashMap<>();
+        for (int i = 0; i < binding.keyNames().length; i++) {
+            if (binding.keyNames()[i] != null && arguments[i] != null) {
+                keys.put(binding.keyNames()[i], arguments[i].toString());
+            }
+        }
+        rateLimiter.getObject().acquire(binding.policy(), keys);
+        return invocation.proceed();
+    }
+
+    private static Binding bind(Method method, Object target) {
+        Method specific = target != null ? AopUtils.getMostSpecificMethod(method, AopUtils.getTargetClass(target)) : method;
+        RateLimited annotation = AnnotatedElementUtils.findMergedAnnotation(specific, RateLimited.class);
+        if (annotation == null) {
+            throw new IllegalStateException("No @RateLimited on " + method);
+        }
+        Parameter[] parameters = specific.getParameters();
+        String[] keyNames = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            RateLimitKey key = parameters[i].getAnnotation(RateLimitKey.class);
+            keyNames[i] = key == null ? null : key.value();
+        }
+        return new Binding(annotation.value(), keyNames);
+    }
+}
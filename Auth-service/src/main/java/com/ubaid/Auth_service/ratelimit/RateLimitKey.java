@@ -0,0 +1,19 @@
+package com.ubaid.Auth_service.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the argument whose value keys the policy limits with the same {@code key} name,
+ * e.g. {@code @RateLimitKey("phone")} for a limit configured with {@code key: phone}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimitKey {
+
+    String value();
+}
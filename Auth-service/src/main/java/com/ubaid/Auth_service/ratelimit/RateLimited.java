@@ -0,0 +1,20 @@
+package com.ubaid.Auth_service.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Takes one token from every bucket of the named {@code rate-limit.policies} entry before the method
+ * runs, or throws {@link RateLimitExceededException} (429) without running it. Buckets are keyed by
+ * {@link RateLimitKey} arguments, the client IP or a single global key.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimited {
+
+    String value();
+}
@@ -0,0 +1,205 @@
+package com.ubaid.Auth_service.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ubaid.Auth_service.config.RateLimitConfig;
+import com.ubaid.Auth_service.sms.PhoneNumbers;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token buckets shared by all nodes through Redis, with a per-node copy of every bucket in front.
+ * The local copy sees only this node's traffic, so when it is empty the request is rejected without a
+ * round trip; otherwise one script call checks and debits all buckets of the policy atomically.
+ * If Redis is unavailable the local buckets alone decide.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+    private static final String IP = "ip";
+    private static final String GLOBAL = "global";
+    private static final String PHONE = "phone";
+
+    // ARGV: capacity and tokens per ms for each key. Debits every bucket only if all of them hold a
+    // token; otherwise returns {ms until the emptiest one has a token, its 1-based index}. Uses the
+    // Redis clock so nodes with skewed clocks share one timeline.
+    private static final DefaultRedisScript<List> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local time = redis.call('TIME') "
+                    + "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) "
+                    + "local tokens = {} "
+                    + "local wait, limited = 0, 0 "
+                    + "for i = 1, #KEYS do "
+                    + "  local capacity, rate = tonumber(ARGV[2 * i - 1]), tonumber(ARGV[2 * i]) "
+                    + "  local state = redis.call('HMGET', KEYS[i], 'tokens', 'at') "
+                    + "  local available = tonumber(state[1]) or capacity "
+                    + "  local at = tonumber(state[2]) or now "
+                    + "  available = math.min(capacity, available + math.max(0, now - at) * rate) "
+                    + "  tokens[i] = available "
+                    + "  if available < 1 then "
+                    + "    local needed = math.ceil((1 - available) / rate) "
+                    + "    if needed > wait then wait, limited = needed, i end "
+                    + "  end "
+                    + "end "
+                    + "if wait > 0 then return {wait, limited} end "
+                    + "for i = 1, #KEYS do "
+                    + "  local capacity, rate = tonumber(ARGV[2 * i - 1]), tonumber(ARGV[2 * i]) "
+                    + "  redis.call('HSET', KEYS[i], 'tokens', tostring(tokens[i] - 1), 'at', now) "
+                    + "  redis.call('PEXPIRE', KEYS[i], math.ceil(capacity / rate)) "
+                    + "end "
+                    + "return {0, 0}",
+            List.class);
+
+    private record Bucket(String limit, String redisKey, RateLimitConfig.Limit config, LocalTokenBucket local) {
+
+        double tokensPerMilli() {
+            return (double) config.getCapacity() / config.getPeriod().toMillis();
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimitConfig config;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, LocalTokenBucket> localBuckets;
+    private final Counter redisErrors;
+
+    public RateLimiter(StringRedisTemplate redisTemplate, RateLimitConfig config, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        // A bucket untouched for a full period is full again, same as a fresh one
+        this.localBuckets = Caffeine.newBuilder()
+                .maximumSize(config.getLocalMaximumKeys())
+                .expireAfterAccess(config.longestPeriod())
+                .build();
+        this.redisErrors = Counter.builder("ratelimit.redis.errors")
+                .description("Rate limit checks decided locally because Redis failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token from every bucket of {@code policy} or throws {@link RateLimitExceededException}.
+     * {@code keys} maps {@link RateLimitKey} names to argument values; limits whose key is missing
+     * (or {@code ip} outside a web request) are skipped.
+     */
+    public void acquire(String policy, Map<String, String> keys) {
+        if (!config.isEnabled()) return;
+
+        List<Bucket> buckets = buckets(policy, keys);
+        if (buckets.isEmpty()) return;
+
+        long now = System.nanoTime();
+        List<Bucket> taken = new ArrayList<>(buckets.size());
+        for (Bucket bucket : buckets) {
+            long waitNanos = bucket.local().tryAcquire(now);
+            if (waitNanos > 0) {
+                taken.forEach(b -> b.local().refund());
+                reject(policy, bucket.limit(), "local", Duration.ofNanos(waitNanos));
+            }
+            taken.add(bucket);
+        }
+
+        List<String> redisKeys = new ArrayList<>(buckets.size());
+        List<String> arguments = new ArrayList<>(buckets.size() * 2);
+        for (Bucket bucket : buckets) {
+            redisKeys.add(bucket.redisKey());
+            arguments.add(String.valueOf(bucket.config().getCapacity()));
+            arguments.add(String.valueOf(bucket.tokensPerMilli()));
+        }
+        List<?> result;
+        try {
+            result = redisTemplate.execute(ACQUIRE_SCRIPT, redisKeys, arguments.toArray());
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.warn("Rate limit check for {} fell back to local buckets: {}", policy, e.getMessage());
+            allowed(policy);
+            return;
+        }
+
+        long waitMillis = result == null || result.isEmpty() ? 0 : ((Number) result.get(0)).longValue();
+        if (waitMillis > 0) {
+            // Not served, so this node's buckets must not count it
+            buckets.forEach(b -> b.local().refund());
+            int limited = ((Number) result.get(1)).intValue() - 1;
+            reject(policy, buckets.get(limited).limit(), "redis", Duration.ofMillis(waitMillis));
+        }
+        allowed(policy);
+    }
+
+    private List<Bucket> buckets(String policy, Map<String, String> keys) {
+        List<RateLimitConfig.Limit> limits = config.policy(policy);
+        List<Bucket> buckets = new ArrayList<>(limits.size());
+        for (RateLimitConfig.Limit limit : limits) {
+            String value = switch (limit.getKey()) {
+                case GLOBAL -> "";
+                case IP -> clientIp();
+                // Same spelling as OtpService uses, so reformatting the number does not get a fresh bucket
+                case PHONE -> PhoneNumbers.normalize(keys.get(limit.getKey()));
+                default -> keys.get(limit.getKey());
+            };
+            if (value == null) continue;
+
+            // Phone numbers and addresses stay out of Redis keys
+            String key = KEY_PREFIX + policy + ':' + limit.getKey() + (value.isEmpty() ? "" : ':' + digest(value));
+            double tokensPerNano = (double) limit.getCapacity() / limit.getPeriod().toNanos();
+            LocalTokenBucket local = localBuckets.get(key,
+                    k -> new LocalTokenBucket(limit.getCapacity(), tokensPerNano, System.nanoTime()));
+            buckets.add(new Bucket(limit.getKey(), key, limit, local));
+        }
+        return buckets;
+    }
+
+    private void allowed(String policy) {
+        Counter.builder("ratelimit.decisions")
+                .description("Rate limited calls by outcome")
+                .tag("policy", policy)
+                .tag("outcome", "allowed")
+                .tag("limit", "none")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void reject(String policy, String limit, String decidedBy, Duration retryAfter) {
+        Counter.builder("ratelimit.decisions")
+                .description("Rate limited calls by outcome")
+                .tag("policy", policy)
+                .tag("outcome", "rejected-" + decidedBy)
+                .tag("limit", limit)
+                .register(meterRegistry)
+                .increment();
+        log.debug("Rate limit {}/{} exceeded, retry in {} ms", policy, limit, retryAfter.toMillis());
+        throw new RateLimitExceededException(retryAfter);
+    }
+
+    private static String clientIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+
+    private static String digest(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.ubaid.Auth_service.repository;
 
 import com.ubaid.Auth_service.entity.Admin;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,10 +10,19 @@ import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface AdminRepository extends JpaRepository<Admin,Long> {
+
+    // List paths map user and roles for every row: fetch them in the same statement
+    @Override
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    List<Admin> findAll();
+
+    @EntityGraph(attributePaths = {"user", "user.roles"})
     List<Admin> findByDepartmentContainingIgnoreCase(String department);
+    @EntityGraph(attributePaths = {"user", "user.roles"})
     List<Admin> findByAdminLevel(String adminLevel);
     boolean existsByAdminId(String adminId);
 
+    @EntityGraph(attributePaths = {"user", "user.roles"})
     @Query("SELECT a FROM Admin a WHERE " +
             "(:name IS NULL OR CONCAT(a.firstName, ' ', a.lastName) LIKE %:name%) AND " +
             "(:department IS NULL OR a.department LIKE %:department%) AND " +
@@ -20,4 +31,8 @@ public interface AdminRepository extends JpaRepository<Admin,Long> {
                              @Param("department") String department,
                              @Param("adminLevel") String adminLevel);
 
+    // Keyset pagination: the next page starts after the last id of the previous one
+    // Limited queries join only the user; roles are batch-fetched (a collection fetch would page in memory)
+    @EntityGraph(attributePaths = "user")
+    List<Admin> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
@@ -1,21 +1,36 @@
 package com.ubaid.Auth_service.repository;
 
+import com.ubaid.Auth_service.dto.DoctorExportRow;
 import com.ubaid.Auth_service.entity.Doctor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface DoctorRepository extends JpaRepository<Doctor,Long> {
+
+    // List paths map user and roles for every row: fetch them in the same statement
+    @Override
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    List<Doctor> findAll();
+
     Optional<Doctor> findByUserId(Long userId);
     Optional<Doctor> findByLicenseNumber(String licenseNumber);
+    @EntityGraph(attributePaths = {"user", "user.roles"})
     List<Doctor> findBySpecializationContainingIgnoreCase(String specialization);
     boolean existsByDoctorId(String doctorId);
     @Query("SELECT CASE WHEN COUNT(d) > 0 THEN true ELSE false END FROM Doctor d WHERE d.user.id = ?1")
     boolean existsByUser_Id(Long userId);
 
+    @EntityGraph(attributePaths = {"user", "user.roles"})
     @Query("SELECT d FROM Doctor d WHERE " +
             "(:name IS NULL OR CONCAT(d.firstName, ' ', d.lastName) LIKE %:name%) AND " +
             "(:specialization IS NULL OR d.specialization LIKE %:specialization%) AND " +
@@ -24,4 +39,15 @@ public interface DoctorRepository extends JpaRepository<Doctor,Long> {
                                @Param("specialization") String specialization,
                                @Param("isAvailable") Boolean isAvailable);
 
+    // Forward-only cursor for exports; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.ubaid.Auth_service.dto.DoctorExportRow(d.id, d.doctorId, d.user.id, d.firstName, d.lastName, " +
+            "d.phoneNumber, d.licenseNumber, d.specialization, d.qualification, d.experienceYears, d.consultationFee, " +
+            "d.isAvailable, d.isActive, d.createdAt) from Doctor d order by d.id")
+    Stream<DoctorExportRow> streamExportRows();
+
+    // Keyset pagination: the next page starts after the last id of the previous one
+    // Limited queries join only the user; roles are batch-fetched (a collection fetch would page in memory)
+    @EntityGraph(attributePaths = "user")
+    List<Doctor> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
@@ -0,0 +1,13 @@
+package com.ubaid.Auth_service.repository;
+
+import com.ubaid.Auth_service.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest first; the relay sends and deletes them in this order
+    List<OutboxEvent> findByOrderByIdAsc(Limit limit);
+}
@@ -2,14 +2,27 @@ package com.ubaid.Auth_service.repository;
 
 import com.ubaid.Auth_service.entity.Patient;
 import com.ubaid.Auth_service.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PatientRepository extends JpaRepository<Patient,Long> {
+
+    // List paths map user and roles for every row: fetch them in the same statement
+    @Override
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    List<Patient> findAll();
+
     // Add this method to search by full name
 //    @Query("SELECT p FROM Patient p WHERE CONCAT(p.firstName, ' ', p.lastName) = :name")
 //    Optional<Patient> findByName(@Param("name") String name);
@@ -67,6 +80,7 @@ public interface PatientRepository extends JpaRepository<Patient,Long> {
     @Query("select p from Patient p where concat(p.firstName, ' ', p.lastName) = :name")
     Optional<Patient> findByName(@Param("name") String name);
 
+    @EntityGraph(attributePaths = {"user", "user.roles"})
     @Query("select p from Patient p where lower(concat(p.firstName, ' ', p.lastName)) like lower(concat('%', :name, '%'))")
     List<Patient> findByNameContaining(@Param("name") String name);
 
@@ -74,6 +88,49 @@ public interface PatientRepository extends JpaRepository<Patient,Long> {
 
     Optional<Patient> findByUserId(Long currentUserId);
 
+    // Forward-only cursor for exports; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Patient p order by p.id")
+    Stream<Patient> streamAllOrderById();
+
+    // Keyset pagination: the next page starts after the last id of the previous one
+    // Limited queries join only the user; roles are batch-fetched (a collection fetch would page in memory)
+    @EntityGraph(attributePaths = "user")
+    List<Patient> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("select p from Patient p where p.id > :afterId " +
+            "and lower(concat(p.firstName, ' ', p.lastName)) like lower(concat('%', :name, '%')) order by p.id")
+    List<Patient> findByNameContainingAfter(@Param("name") String name, @Param("afterId") Long afterId, Limit limit);
+
+    // The search index's matches and order, for when it cannot answer: name, phone number or patient id
+    // containing :needle (lower-cased, LIKE wildcards escaped with '\'); a match at the start of a field
+    // first, then at the start of a word, then anywhere; ties by id
+    @EntityGraph(attributePaths = "user")
+    @Query("select p from Patient p where " + SEARCH_NAME + " like concat('%', :needle, '%') escape '\\' " +
+            "or " + SEARCH_PHONE + " like concat('%', :needle, '%') escape '\\' " +
+            "or " + SEARCH_PATIENT_ID + " like concat('%', :needle, '%') escape '\\' " +
+            "order by case " +
+            "when " + SEARCH_NAME + " like concat(:needle, '%') escape '\\' " +
+            "or " + SEARCH_PHONE + " like concat(:needle, '%') escape '\\' " +
+            "or " + SEARCH_PATIENT_ID + " like concat(:needle, '%') escape '\\' then 0 " +
+            "when " + SEARCH_NAME + " like concat('% ', :needle, '%') escape '\\' " +
+            "or " + SEARCH_PHONE + " like concat('% ', :needle, '%') escape '\\' " +
+            "or " + SEARCH_PATIENT_ID + " like concat('% ', :needle, '%') escape '\\' then 1 " +
+            "else 2 end, p.id")
+    List<Patient> findSearchMatches(@Param("needle") String needle, Limit limit);
+
+    String SEARCH_NAME = "lower(trim(concat(coalesce(p.firstName, ''), ' ', coalesce(p.lastName, ''))))";
+    String SEARCH_PHONE = "lower(trim(coalesce(p.phoneNumber, '')))";
+    String SEARCH_PATIENT_ID = "lower(trim(coalesce(p.patientId, '')))";
+
+    // Hydrates the ranked ids returned by the search index
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    List<Patient> findByIdIn(Collection<Long> ids);
+
 
 
 }
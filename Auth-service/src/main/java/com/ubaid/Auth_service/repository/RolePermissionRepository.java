@@ -0,0 +1,16 @@
+package com.ubaid.Auth_service.repository;
+
+import com.ubaid.Auth_service.entity.RolePermission;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface RolePermissionRepository extends JpaRepository<RolePermission, Long> {
+
+    // Bulk delete so the replacement rows of the same role can be inserted in the same transaction
+    @Modifying
+    @Query("DELETE FROM RolePermission rp WHERE rp.role = :role")
+    int deleteByRole(@Param("role") RoleType role);
+}
@@ -3,14 +3,25 @@ package com.ubaid.Auth_service.repository;
 import com.ubaid.Auth_service.entity.User;
 import com.ubaid.Auth_service.entity.type.AuthProviderType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User,Long> {
     Optional<User> findByUsername(String username);
+
+    // Login path: user and roles in one statement instead of a second select for the eager collection
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles WHERE u.username = :username")
+    Optional<User> findWithRolesByUsername(@Param("username") String username);
     Optional<User> findByEmail(String email);
     Optional<User> findByProviderIdAndProviderType(String providerId, AuthProviderType providerType);
     boolean existsByUsername(String username);
 
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
     <Object> User findByPhone(String phoneNumber);
 }
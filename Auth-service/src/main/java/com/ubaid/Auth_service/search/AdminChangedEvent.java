@@ -0,0 +1,17 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.entity.Admin;
+
+/**
+ * An admin row was inserted, updated or deleted.
+ */
+public record AdminChangedEvent(Long id, String firstName, String lastName, String adminId, boolean removed) {
+
+    public static AdminChangedEvent saved(Admin admin) {
+        return new AdminChangedEvent(admin.getId(), admin.getFirstName(), admin.getLastName(), admin.getAdminId(), false);
+    }
+
+    public static AdminChangedEvent removed(Admin admin) {
+        return new AdminChangedEvent(admin.getId(), null, null, null, true);
+    }
+}
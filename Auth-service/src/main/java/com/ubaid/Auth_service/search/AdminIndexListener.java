@@ -0,0 +1,30 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.entity.Admin;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA listener on {@link Admin}; indexes apply the event once the transaction has committed.
+ */
+public class AdminIndexListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AdminIndexListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void saved(Admin admin) {
+        eventPublisher.publishEvent(AdminChangedEvent.saved(admin));
+    }
+
+    @PostRemove
+    void removed(Admin admin) {
+        eventPublisher.publishEvent(AdminChangedEvent.removed(admin));
+    }
+}
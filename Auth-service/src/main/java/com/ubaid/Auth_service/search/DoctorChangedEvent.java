@@ -0,0 +1,21 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.entity.Doctor;
+
+/**
+ * A doctor row was inserted, updated or deleted; {@code row} is null for deletes.
+ */
+public record DoctorChangedEvent(Long id, DoctorSearchRow row) {
+
+    public static DoctorChangedEvent saved(Doctor doctor) {
+        return new DoctorChangedEvent(doctor.getId(), DoctorSearchRow.of(doctor));
+    }
+
+    public static DoctorChangedEvent removed(Doctor doctor) {
+        return new DoctorChangedEvent(doctor.getId(), null);
+    }
+
+    public boolean removed() {
+        return row == null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.entity.Doctor;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA listener on {@link Doctor}; the search engine applies the event once the transaction has committed.
+ */
+public class DoctorIndexListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DoctorIndexListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void saved(Doctor doctor) {
+        eventPublisher.publishEvent(DoctorChangedEvent.saved(doctor));
+    }
+
+    @PostRemove
+    void removed(Doctor doctor) {
+        eventPublisher.publishEvent(DoctorChangedEvent.removed(doctor));
+    }
+}
@@ -0,0 +1,142 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.repository.DoctorRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Answers doctor searches from an in-memory {@link DoctorSnapshot}. The snapshot is loaded once (at
+ * startup, or by the first search if that comes earlier) and then kept current from committed
+ * {@link DoctorChangedEvent}s, this node's and other nodes' ({@link SearchChangeBroadcaster}).
+ * Changes are only collected, latest per doctor, and merged into a new immutable snapshot by a scheduled
+ * merger, so a burst of writes costs one rebuild and searches never rebuild: they read the published
+ * snapshot, at most {@code doctor-search.merge-interval-ms} behind. A periodic reload repairs anything a
+ * missed broadcast left stale.
+ */
+@Component
+@Slf4j
+public class DoctorSearchEngine {
+
+    private final DoctorRepository doctorRepository;
+    private final Timer queryTimer;
+
+    // Only one thread reads the table for the first snapshot; taken before this object's monitor, never inside it
+    private final Object loadLock = new Object();
+
+    // Null until the first load; writes only under this object's monitor
+    private volatile DoctorSnapshot snapshot;
+
+    // Changes seen before the first snapshot is installed, applied to it. Guarded by this
+    private Map<Long, DoctorSearchRow> changesBeforeLoad = new HashMap<>();
+
+    // Latest row per changed doctor (null value = deleted) not yet merged into the snapshot. Guarded by this
+    private Map<Long, DoctorSearchRow> pending = new HashMap<>();
+
+    // Changes seen while a reload reads the table; merged into the reloaded snapshot. Guarded by this
+    private Map<Long, DoctorSearchRow> changesDuringReload;
+
+    public DoctorSearchEngine(DoctorRepository doctorRepository, MeterRegistry meterRegistry) {
+        this.doctorRepository = doctorRepository;
+        this.queryTimer = Timer.builder("doctor.search.query")
+                .description("Time to answer a doctor search from the in-memory snapshot")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        snapshot();
+    }
+
+    public DoctorSearchResult search(DoctorSearchQuery query) {
+        DoctorSnapshot current = snapshot();
+        return queryTimer.record(() -> current.search(query));
+    }
+
+    // The first load may read a replica or start before this commit; buffered changes are applied on top of it
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onDoctorChanged(DoctorChangedEvent event) {
+        if (snapshot == null) {
+            changesBeforeLoad.put(event.id(), event.row());
+            return;
+        }
+        if (changesDuringReload != null) changesDuringReload.put(event.id(), event.row());
+        pending.put(event.id(), event.row());
+    }
+
+    // Rebuilds outside the monitor, so committing writers are not held up by the O(n) copy
+    @Scheduled(fixedDelayString = "${doctor-search.merge-interval-ms:200}")
+    public void mergePending() {
+        DoctorSnapshot base;
+        Map<Long, DoctorSearchRow> batch;
+        synchronized (this) {
+            if (snapshot == null || pending.isEmpty()) return;
+            base = snapshot;
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        DoctorSnapshot merged = base.apply(batch);
+        synchronized (this) {
+            // A resync installed meanwhile already holds these changes or newer rows
+            if (snapshot == base) {
+                snapshot = merged;
+            }
+        }
+    }
+
+    // Reads the table without holding the monitor, so searches and patches carry on meanwhile
+    @Scheduled(initialDelayString = "${doctor-search.resync-interval-ms:300000}",
+            fixedDelayString = "${doctor-search.resync-interval-ms:300000}")
+    public void resync() {
+        synchronized (this) {
+            if (snapshot == null || changesDuringReload != null) return;
+            changesDuringReload = new HashMap<>();
+        }
+        try {
+            DoctorSnapshot reloaded = DoctorSnapshot.of(doctorRepository.findAll().stream().map(DoctorSearchRow::of).toList());
+            synchronized (this) {
+                // Changes pending from before the reload started are older than what it read
+                snapshot = reloaded.apply(changesDuringReload);
+                pending = new HashMap<>();
+            }
+            log.debug("Doctor search snapshot resynced: {} doctors", reloaded.size());
+        } catch (RuntimeException e) {
+            log.warn("Doctor search snapshot resync failed, keeping the current one: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                changesDuringReload = null;
+            }
+        }
+    }
+
+    private DoctorSnapshot snapshot() {
+        DoctorSnapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    private DoctorSnapshot load() {
+        synchronized (loadLock) {
+            DoctorSnapshot current = snapshot;
+            if (current != null) return current;
+            long start = System.nanoTime();
+            DoctorSnapshot loaded = DoctorSnapshot.of(doctorRepository.findAll().stream().map(DoctorSearchRow::of).toList());
+            synchronized (this) {
+                current = loaded.apply(changesBeforeLoad);
+                snapshot = current;
+                changesBeforeLoad = null;
+            }
+            log.info("Doctor search snapshot loaded: {} doctors in {} ms",
+                    current.size(), (System.nanoTime() - start) / 1_000_000);
+            return current;
+        }
+    }
+}
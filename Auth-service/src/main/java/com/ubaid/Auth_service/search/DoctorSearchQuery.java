@@ -0,0 +1,28 @@
+package com.ubaid.Auth_service.search;
+
+import java.math.BigDecimal;
+
+/**
+ * Filters, ordering and page of a doctor search. Null filters match everything; ranges are inclusive.
+ */
+public record DoctorSearchQuery(
+        String name,
+        String specialization,
+        Boolean available,
+        BigDecimal minFee,
+        BigDecimal maxFee,
+        Integer minExperience,
+        Integer maxExperience,
+        Sort sort,
+        int page,
+        int size
+) {
+
+    public enum Sort {
+        NAME,
+        FEE_ASC,
+        FEE_DESC,
+        EXPERIENCE_DESC,
+        NEWEST
+    }
+}
@@ -0,0 +1,17 @@
+package com.ubaid.Auth_service.search;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One sorted page of doctors plus facet counts. Each facet is counted with every filter applied except
+ * its own, so the counts show what selecting another value would return.
+ */
+public record DoctorSearchResult(
+        List<DoctorSearchRow> rows,
+        int total,
+        Map<String, Integer> specializations,
+        int available,
+        int unavailable
+) {
+}
@@ -0,0 +1,49 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.entity.Doctor;
+import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.entity.type.RoleType;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Set;
+
+/**
+ * Immutable copy of the doctor fields the search endpoint returns, taken when the doctor is loaded or
+ * flushed, so search results are served without touching the database.
+ */
+public record DoctorSearchRow(
+        Long id,
+        String doctorId,
+        Long userId,
+        String username,
+        String email,
+        Set<RoleType> userRoles,
+        String firstName,
+        String lastName,
+        String phoneNumber,
+        String licenseNumber,
+        String specialization,
+        String qualification,
+        Integer experienceYears,
+        BigDecimal consultationFee,
+        boolean available,
+        boolean active,
+        Timestamp createdAt,
+        Timestamp updatedAt
+) {
+
+    public static DoctorSearchRow of(Doctor doctor) {
+        User user = doctor.getUser();
+        return new DoctorSearchRow(
+                doctor.getId(), doctor.getDoctorId(),
+                user != null ? user.getId() : null,
+                user != null ? user.getUsername() : null,
+                user != null ? user.getEmail() : null,
+                user != null && user.getRoles() != null ? Set.copyOf(user.getRoles()) : Set.of(),
+                doctor.getFirstName(), doctor.getLastName(), doctor.getPhoneNumber(), doctor.getLicenseNumber(),
+                doctor.getSpecialization(), doctor.getQualification(), doctor.getExperienceYears(),
+                doctor.getConsultationFee(), doctor.isAvailable(), doctor.isActive(),
+                doctor.getCreatedAt(), doctor.getUpdatedAt());
+    }
+}
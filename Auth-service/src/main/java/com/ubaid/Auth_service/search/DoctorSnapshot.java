@@ -0,0 +1,207 @@
+package com.ubaid.Auth_service.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable, column-oriented copy of all doctors. Filters run as one pass over primitive arrays,
+ * specializations are dictionary-encoded, and only the requested page is ever materialized through a
+ * bounded heap. Changes produce a new snapshot, so readers never lock.
+ */
+final class DoctorSnapshot {
+
+    private static final long NO_FEE = Long.MIN_VALUE;
+    private static final int NO_EXPERIENCE = Integer.MIN_VALUE;
+
+    private final DoctorSearchRow[] rows; // sorted by id
+    private final long[] ids;
+    private final String[] names;
+    private final int[] specialization; // index into specializations, -1 when unset
+    private final String[] specializations;
+    private final String[] specializationKeys;
+    private final long[] feeCents;
+    private final int[] experience;
+    private final boolean[] available;
+    private final long[] createdAt;
+
+    private DoctorSnapshot(DoctorSearchRow[] rows) {
+        int size = rows.length;
+        this.rows = rows;
+        this.ids = new long[size];
+        this.names = new String[size];
+        this.specialization = new int[size];
+        this.feeCents = new long[size];
+        this.experience = new int[size];
+        this.available = new boolean[size];
+        this.createdAt = new long[size];
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> display = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            DoctorSearchRow row = rows[i];
+            ids[i] = row.id();
+            names[i] = normalize(nullToEmpty(row.firstName()) + " " + nullToEmpty(row.lastName()));
+            String key = normalize(row.specialization());
+            if (key.isEmpty()) {
+                specialization[i] = -1;
+            } else {
+                specialization[i] = dictionary.computeIfAbsent(key, k -> {
+                    display.add(row.specialization().trim());
+                    return display.size() - 1;
+                });
+            }
+            feeCents[i] = row.consultationFee() == null ? NO_FEE : cents(row.consultationFee());
+            experience[i] = row.experienceYears() == null ? NO_EXPERIENCE : row.experienceYears();
+            available[i] = row.available();
+            createdAt[i] = row.createdAt() == null ? 0 : row.createdAt().getTime();
+        }
+        this.specializations = display.toArray(String[]::new);
+        this.specializationKeys = new String[specializations.length];
+        for (int i = 0; i < specializations.length; i++) {
+            specializationKeys[i] = normalize(specializations[i]);
+        }
+    }
+
+    static DoctorSnapshot of(Collection<DoctorSearchRow> rows) {
+        DoctorSearchRow[] sorted = rows.toArray(DoctorSearchRow[]::new);
+        Arrays.sort(sorted, Comparator.comparingLong(DoctorSearchRow::id));
+        return new DoctorSnapshot(sorted);
+    }
+
+    int size() {
+        return rows.length;
+    }
+
+    /**
+     * Copy with a batch of changes merged in one pass over the sorted rows: a row inserts or replaces the
+     * doctor with its id, a null value removes it. Still O(n) per call, since every column is rebuilt;
+     * callers batch changes to keep the number of calls down.
+     */
+    DoctorSnapshot apply(Map<Long, DoctorSearchRow> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        long[] changed = changes.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        List<DoctorSearchRow> merged = new ArrayList<>(rows.length + changed.length);
+        int i = 0;
+        int j = 0;
+        while (i < rows.length || j < changed.length) {
+            if (j == changed.length || (i < rows.length && ids[i] < changed[j])) {
+                merged.add(rows[i++]);
+                continue;
+            }
+            long id = changed[j++];
+            if (i < rows.length && ids[i] == id) {
+                i++;
+            }
+            DoctorSearchRow row = changes.get(id);
+            if (row != null) {
+                merged.add(row);
+            }
+        }
+        return new DoctorSnapshot(merged.toArray(DoctorSearchRow[]::new));
+    }
+
+    DoctorSearchResult search(DoctorSearchQuery query) {
+        String name = normalize(query.name());
+        String wantedSpecialization = normalize(query.specialization());
+        boolean[] specializationMatches = new boolean[specializations.length];
+        for (int s = 0; s < specializations.length; s++) {
+            specializationMatches[s] = wantedSpecialization.isEmpty() || specializationKeys[s].contains(wantedSpecialization);
+        }
+        boolean feeFiltered = query.minFee() != null || query.maxFee() != null;
+        long minFee = query.minFee() == null ? Long.MIN_VALUE : cents(query.minFee());
+        long maxFee = query.maxFee() == null ? Long.MAX_VALUE : cents(query.maxFee());
+        boolean experienceFiltered = query.minExperience() != null || query.maxExperience() != null;
+        int minExperience = query.minExperience() == null ? Integer.MIN_VALUE : query.minExperience();
+        int maxExperience = query.maxExperience() == null ? Integer.MAX_VALUE : query.maxExperience();
+
+        int limit = (int) Math.min((long) (query.page() + 1) * query.size(), rows.length);
+        Comparator<Integer> order = comparator(query.sort());
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, limit + 1), order.reversed());
+
+        int[] specializationCounts = new int[specializations.length];
+        int availableCount = 0;
+        int unavailableCount = 0;
+        int total = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (!name.isEmpty() && !names[i].contains(name)) continue;
+            if (feeFiltered && (feeCents[i] == NO_FEE || feeCents[i] < minFee || feeCents[i] > maxFee)) continue;
+            if (experienceFiltered && (experience[i] == NO_EXPERIENCE
+                    || experience[i] < minExperience || experience[i] > maxExperience)) continue;
+
+            boolean specializationOk = wantedSpecialization.isEmpty()
+                    || (specialization[i] >= 0 && specializationMatches[specialization[i]]);
+            boolean availabilityOk = query.available() == null || available[i] == query.available();
+
+            if (availabilityOk && specialization[i] >= 0) specializationCounts[specialization[i]]++;
+            if (specializationOk) {
+                if (available[i]) availableCount++;
+                else unavailableCount++;
+            }
+            if (specializationOk && availabilityOk) {
+                total++;
+                if (limit > 0) {
+                    top.offer(i);
+                    if (top.size() > limit) top.poll();
+                }
+            }
+        }
+
+        // The heap holds the first (page + 1) * size matches; the page is its tail
+        int[] ordered = new int[top.size()];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            ordered[i] = top.poll();
+        }
+        int from = Math.min(query.page() * query.size(), ordered.length);
+        List<DoctorSearchRow> page = Arrays.stream(ordered, from, ordered.length).mapToObj(i -> rows[i]).toList();
+
+        return new DoctorSearchResult(page, total, facet(specializationCounts), availableCount, unavailableCount);
+    }
+
+    private Comparator<Integer> comparator(DoctorSearchQuery.Sort sort) {
+        Comparator<Integer> primary = switch (sort) {
+            case NAME -> Comparator.comparing(i -> names[i]);
+            // Missing fees and experience sort last in both directions
+            case FEE_ASC -> Comparator.comparingLong(i -> feeCents[i] == NO_FEE ? Long.MAX_VALUE : feeCents[i]);
+            case FEE_DESC -> Comparator.<Integer>comparingLong(i -> feeCents[i]).reversed();
+            case EXPERIENCE_DESC -> Comparator.<Integer>comparingInt(i -> experience[i]).reversed();
+            case NEWEST -> Comparator.<Integer>comparingLong(i -> createdAt[i]).reversed();
+        };
+        return primary.thenComparingLong(i -> ids[i]);
+    }
+
+    // Most frequent first
+    private Map<String, Integer> facet(int[] counts) {
+        Integer[] order = new Integer[counts.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> counts[i]).reversed().thenComparing(i -> specializations[i]));
+        Map<String, Integer> facet = new LinkedHashMap<>();
+        for (int i : order) {
+            if (counts[i] > 0) facet.put(specializations[i], counts[i]);
+        }
+        return facet;
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String nullToEmpty(String text) {
+        return text == null ? "" : text;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.entity.Patient;
+
+/**
+ * A patient row was inserted, updated or deleted. Carries the searchable fields as they were at flush
+ * time so indexes never have to read the (possibly detached) entity later.
+ */
+public record PatientChangedEvent(Long id, String firstName, String lastName, String phoneNumber, String patientId,
+                                  boolean removed) {
+
+    public static PatientChangedEvent saved(Patient patient) {
+        return new PatientChangedEvent(patient.getId(), patient.getFirstName(), patient.getLastName(),
+                patient.getPhoneNumber(), patient.getPatientId(), false);
+    }
+
+    public static PatientChangedEvent removed(Patient patient) {
+        return new PatientChangedEvent(patient.getId(), null, null, null, null, true);
+    }
+
+    // Full name, phone number and patient id, normalized and kept apart by a separator
+    String searchText() {
+        String name = (firstName == null ? "" : firstName) + " " + (lastName == null ? "" : lastName);
+        return TrigramIndex.normalize(name) + TrigramIndex.FIELD_SEPARATOR
+                + TrigramIndex.normalize(phoneNumber) + TrigramIndex.FIELD_SEPARATOR
+                + TrigramIndex.normalize(patientId);
+    }
+}
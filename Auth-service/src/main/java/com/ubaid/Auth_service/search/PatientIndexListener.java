@@ -0,0 +1,31 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.entity.Patient;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA listener on {@link Patient}; instantiated by Hibernate through Spring's bean container.
+ * Only publishes an event, the index applies it once the transaction has committed.
+ */
+public class PatientIndexListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PatientIndexListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void saved(Patient patient) {
+        eventPublisher.publishEvent(PatientChangedEvent.saved(patient));
+    }
+
+    @PostRemove
+    void removed(Patient patient) {
+        eventPublisher.publishEvent(PatientChangedEvent.removed(patient));
+    }
+}
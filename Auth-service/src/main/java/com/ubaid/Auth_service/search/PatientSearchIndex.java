@@ -0,0 +1,224 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.entity.Patient;
+import com.ubaid.Auth_service.repository.PatientRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over patient names, phone numbers and patient ids, so "contains" searches
+ * do not scan the {@code patients} table. Built in the background after startup from a streaming scan
+ * and kept current from {@link PatientChangedEvent}s applied after commit, this node's own and those
+ * of other nodes ({@link SearchChangeBroadcaster}). Until the build has finished {@link #search}
+ * answers empty and callers fall back to the database.
+ *
+ * A periodic resync rebuilds a fresh index beside the live one and swaps it in, repairing anything a
+ * missed broadcast left stale; for the duration the heap holds both.
+ */
+@Component
+@Slf4j
+public class PatientSearchIndex {
+
+    private final PatientRepository patientRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int maxResults;
+    private final Timer queryTimer;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean building = new AtomicBoolean();
+    // Guarded by lock; replaced whole by each (re)build
+    private TrigramIndex index = new TrigramIndex();
+
+    // Changes seen while a scan runs; replayed into the new index in case the scan read an older row
+    private List<PatientChangedEvent> changesDuringBuild;
+    private volatile boolean ready;
+
+    public PatientSearchIndex(PatientRepository patientRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${patient-search.enabled:true}") boolean enabled,
+                              @Value("${patient-search.max-results:50}") int maxResults) {
+        this.patientRepository = patientRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxResults = maxResults;
+        this.queryTimer = Timer.builder("patient.search.index.query")
+                .description("Time to answer a patient search from the in-memory index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("patient.search.index.documents", this, PatientSearchIndex::documentCount)
+                .description("Patients in the in-memory search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        if (!enabled) {
+            log.info("Patient search index disabled, searches go to the database");
+            return;
+        }
+        startBuild();
+    }
+
+    // Safety net for changes that never arrived (missed broadcasts, writes by other applications)
+    @Scheduled(initialDelayString = "${patient-search.resync-interval-ms:600000}",
+            fixedDelayString = "${patient-search.resync-interval-ms:600000}")
+    public void resync() {
+        if (enabled) startBuild();
+    }
+
+    // One build at a time, on its own thread so the shared scheduler is not held for the scan
+    private void startBuild() {
+        if (!building.compareAndSet(false, true)) return;
+        Thread builder = new Thread(() -> {
+            try {
+                build();
+            } finally {
+                building.set(false);
+            }
+        }, "patient-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            if (changesDuringBuild != null) {
+                changesDuringBuild.add(event);
+            }
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int maxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Ranked ids of patients whose name, phone number or patient id contains {@code query}, at most
+     * {@code patient-search.max-results}. Empty when the index cannot answer: disabled, still building,
+     * or a query shorter than three characters.
+     */
+    public Optional<List<Long>> search(String query) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        long[] ids;
+        lock.readLock().lock();
+        try {
+            ids = index.search(query, maxResults);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ids == null) {
+            return Optional.empty();
+        }
+        queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return Optional.of(Arrays.stream(ids).boxed().toList());
+    }
+
+    private void build() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changesDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            // Only this thread touches the new index until it is swapped in
+            TrigramIndex fresh = new TrigramIndex();
+            long rows = readOnlyTransaction.execute(status -> {
+                long scanned = 0;
+                try (Stream<Patient> patients = patientRepository.streamAllOrderById()) {
+                    Iterator<Patient> iterator = patients.iterator();
+                    while (iterator.hasNext()) {
+                        Patient patient = iterator.next();
+                        fresh.put(patient.getId(), PatientChangedEvent.saved(patient).searchText());
+                        entityManager.detach(patient);
+                        scanned++;
+                    }
+                }
+                return scanned;
+            });
+
+            boolean rebuilt = ready;
+            lock.writeLock().lock();
+            try {
+                changesDuringBuild.forEach(event -> apply(fresh, event));
+                changesDuringBuild = null;
+                index = fresh;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Runtime runtime = Runtime.getRuntime();
+            log.info("Patient search index {}: {} patients, {} trigrams in {} ms (heap used {} MB)",
+                    rebuilt ? "resynced" : "built", rows, fresh.trigramCount(), (System.nanoTime() - start) / 1_000_000,
+                    (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Building the patient search index failed, {}: {}",
+                    ready ? "keeping the previous one" : "searches stay on the database", e.getMessage(), e);
+        }
+    }
+
+    private void apply(PatientChangedEvent event) {
+        apply(index, event);
+    }
+
+    private static void apply(TrigramIndex target, PatientChangedEvent event) {
+        if (event.removed()) {
+            target.remove(event.id());
+        } else {
+            target.put(event.id(), event.searchText());
+        }
+    }
+
+    private double documentCount() {
+        lock.readLock().lock();
+        try {
+            return index.documentCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
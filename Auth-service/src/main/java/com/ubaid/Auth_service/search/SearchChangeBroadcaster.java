@@ -0,0 +1,105 @@
+package com.ubaid.Auth_service.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Carries committed search changes to the other nodes, whose in-memory indexes only see their own JPA
+ * events otherwise. Each change is published on a Redis channel after commit and re-published on the
+ * receiving nodes as the same application event, so the indexes treat local and remote changes
+ * alike. Delivery is best effort; the indexes' periodic resync repairs anything missed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchChangeBroadcaster implements MessageListener {
+
+    static final String CHANNEL = "search:changes";
+
+    // Event classes by the type name sent on the wire
+    private static final Map<String, Class<?>> TYPES = Map.of(
+            "patient", PatientChangedEvent.class,
+            "doctor", DoctorChangedEvent.class,
+            "admin", AdminChangedEvent.class);
+
+    // Set while a received change is re-published, so it is not sent back out
+    private static final ThreadLocal<Boolean> RECEIVING = new ThreadLocal<>();
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        send("patient", event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        send("doctor", event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAdminChanged(AdminChangedEvent event) {
+        send("admin", event);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        Object event;
+        try {
+            JsonNode envelope = objectMapper.readTree(body);
+            if (nodeId.equals(envelope.path("origin").asText())) return;
+            Class<?> type = TYPES.get(envelope.path("type").asText());
+            if (type == null) {
+                log.warn("Ignoring search change of unknown type: {}", body);
+                return;
+            }
+            event = objectMapper.treeToValue(envelope.get("event"), type);
+        } catch (IOException e) {
+            log.warn("Ignoring malformed search change: {}", e.getMessage());
+            return;
+        }
+        RECEIVING.set(Boolean.TRUE);
+        try {
+            eventPublisher.publishEvent(event);
+        } finally {
+            RECEIVING.remove();
+        }
+    }
+
+    private void send(String type, Object event) {
+        if (RECEIVING.get() != null) return;
+        try {
+            String body = objectMapper.writeValueAsString(Map.of("origin", nodeId, "type", type, "event", event));
+            redisTemplate.convertAndSend(CHANNEL, body);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not publish {} search change; other nodes catch up at their next resync: {}", type, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.ubaid.Auth_service.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * Inverted index from character trigrams to sorted id posting lists, answering "contains" queries
+ * like SQL {@code like '%x%'}. Candidates from the posting intersection are verified against the
+ * stored text, so results are exact. Not thread-safe; callers guard it.
+ */
+class TrigramIndex {
+
+    // Separates the fields of one document so no trigram spans two fields
+    static final char FIELD_SEPARATOR = '\u0001';
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, String> documents = new HashMap<>();
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    void put(long id, String text) {
+        String previous = documents.put(id, text);
+        if (text.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            forEachTrigram(previous, gram -> removePosting(gram, id));
+        }
+        forEachTrigram(text, gram -> postings.computeIfAbsent(gram, g -> new Postings()).add(id));
+    }
+
+    void remove(long id) {
+        String previous = documents.remove(id);
+        if (previous != null) {
+            forEachTrigram(previous, gram -> removePosting(gram, id));
+        }
+    }
+
+    int documentCount() {
+        return documents.size();
+    }
+
+    int trigramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Ids of documents containing {@code query}, best first: a match at the start of a field ranks
+     * above one at the start of a word, which ranks above any other match; ties go to the lower id.
+     * Returns {@code null} when the query is too short to be answered from trigrams.
+     */
+    long[] search(String query, int limit) {
+        String needle = normalize(query);
+        if (needle.length() < 3) {
+            return null;
+        }
+
+        long[] grams = distinctTrigrams(needle);
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return new long[0];
+            }
+        }
+        // Drive the intersection from the rarest trigram
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        // Worst match on top, so it is the one evicted once the heap is full
+        PriorityQueue<long[]> top = new PriorityQueue<>(limit + 1,
+                Comparator.<long[]>comparingLong(hit -> hit[0]).thenComparingLong(hit -> hit[1]).reversed());
+        Postings driver = lists[0];
+        candidates:
+        for (int i = 0; i < driver.size; i++) {
+            long id = driver.ids[i];
+            for (int j = 1; j < lists.length; j++) {
+                if (!lists[j].contains(id)) continue candidates;
+            }
+            String text = documents.get(id);
+            int position = text.indexOf(needle);
+            if (position < 0) continue;
+
+            top.offer(new long[]{bestRank(text, needle, position), id});
+            if (top.size() > limit) top.poll();
+        }
+
+        long[] result = new long[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = top.poll()[1];
+        }
+        return result;
+    }
+
+    // Best rank over all occurrences, so the order does not depend on which one comes first
+    private static int bestRank(String text, String needle, int position) {
+        int best = 2;
+        for (; position >= 0 && best > 0; position = text.indexOf(needle, position + 1)) {
+            best = Math.min(best, rank(text, position));
+        }
+        return best;
+    }
+
+    private static int rank(String text, int position) {
+        if (position == 0 || text.charAt(position - 1) == FIELD_SEPARATOR) return 0;
+        if (text.charAt(position - 1) == ' ') return 1;
+        return 2;
+    }
+
+    private void removePosting(long gram, long id) {
+        Postings list = postings.get(gram);
+        if (list != null && list.remove(id) && list.size == 0) {
+            postings.remove(gram);
+        }
+    }
+
+    private static long[] distinctTrigrams(String text) {
+        long[] grams = new long[Math.max(0, text.length() - 2)];
+        int[] count = {0};
+        forEachTrigram(text, gram -> grams[count[0]++] = gram);
+        return Arrays.stream(grams, 0, count[0]).distinct().toArray();
+    }
+
+    private static void forEachTrigram(String text, LongConsumer consumer) {
+        for (int i = 0; i + 2 < text.length(); i++) {
+            char a = text.charAt(i), b = text.charAt(i + 1), c = text.charAt(i + 2);
+            if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) continue;
+            consumer.accept(((long) a << 32) | ((long) b << 16) | c);
+        }
+    }
+
+    // Sorted ids; new patients get increasing Snowflake ids, so adds are almost always appends
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int index = size == 0 || ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) return;
+            int insertAt = -(index + 1);
+            if (size == ids.length) ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) return false;
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
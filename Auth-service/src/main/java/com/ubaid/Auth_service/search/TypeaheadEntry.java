@@ -0,0 +1,14 @@
+package com.ubaid.Auth_service.search;
+
+/**
+ * A person reachable from the typeahead: one patient, doctor or admin. {@code score} orders suggestions,
+ * higher first; it is the time the record was last written, so recently active people come up first.
+ */
+public record TypeaheadEntry(Kind kind, long id, String businessId, String label, long score) {
+
+    public enum Kind {
+        PATIENT,
+        DOCTOR,
+        ADMIN
+    }
+}
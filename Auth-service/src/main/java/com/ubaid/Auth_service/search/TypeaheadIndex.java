@@ -0,0 +1,330 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.entity.Admin;
+import com.ubaid.Auth_service.entity.Doctor;
+import com.ubaid.Auth_service.entity.Patient;
+import com.ubaid.Auth_service.repository.AdminRepository;
+import com.ubaid.Auth_service.repository.DoctorRepository;
+import com.ubaid.Auth_service.repository.PatientRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Typeahead over patients, doctors and admins: name tokens and business ids in a {@link TypeaheadTrie},
+ * ranked by last write time. Built in the background after startup and kept current from the committed
+ * change events of the three entities, this node's and other nodes' ({@link SearchChangeBroadcaster});
+ * until the build has finished lookups return nothing. A periodic resync rebuilds the trie beside the
+ * live one and swaps it in, repairing anything a missed broadcast left stale.
+ */
+@Component
+@Slf4j
+public class TypeaheadIndex {
+
+    // Multi-word queries are matched on one token in the trie and filtered on the rest
+    private static final int OVERFETCH = 4;
+
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final AdminRepository adminRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Timer queryTimer;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean building = new AtomicBoolean();
+    // Guarded by lock; replaced whole by each (re)build
+    private Contents contents = new Contents();
+
+    // Changes seen while a load runs; replayed into the new contents in case the load read an older row
+    private List<Consumer<Contents>> changesDuringBuild;
+    private volatile boolean ready;
+
+    // The trie and the entries it points at, swapped together
+    private static final class Contents {
+        final TypeaheadTrie trie = new TypeaheadTrie();
+        final Map<TypeaheadEntry.Kind, Map<Long, TypeaheadEntry>> entries = new EnumMap<>(TypeaheadEntry.Kind.class);
+
+        Contents() {
+            for (TypeaheadEntry.Kind kind : TypeaheadEntry.Kind.values()) {
+                entries.put(kind, new HashMap<>());
+            }
+        }
+
+        void upsertOrRemove(TypeaheadEntry.Kind kind, Long id, boolean removed,
+                            String businessId, String firstName, String lastName, long score) {
+            TypeaheadEntry previous = entries.get(kind).remove(id);
+            if (previous != null) {
+                for (String token : entryTokens(previous)) trie.remove(token, previous);
+            }
+            if (removed) return;
+
+            String label = ((firstName == null ? "" : firstName.trim()) + " " + (lastName == null ? "" : lastName.trim())).trim();
+            TypeaheadEntry entry = new TypeaheadEntry(kind, id, businessId, label, score);
+            entries.get(kind).put(id, entry);
+            for (String token : entryTokens(entry)) trie.insert(token, entry);
+        }
+
+        int size() {
+            return entries.values().stream().mapToInt(Map::size).sum();
+        }
+    }
+
+    public TypeaheadIndex(PatientRepository patientRepository,
+                          DoctorRepository doctorRepository,
+                          AdminRepository adminRepository,
+                          EntityManager entityManager,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${typeahead.enabled:true}") boolean enabled) {
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.adminRepository = adminRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.queryTimer = Timer.builder("typeahead.query")
+                .description("Time to answer a typeahead lookup from the in-memory trie")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("typeahead.entries", this, TypeaheadIndex::entryCount)
+                .description("People in the typeahead index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        if (!enabled) {
+            log.info("Typeahead index disabled");
+            return;
+        }
+        startBuild();
+    }
+
+    // Safety net for changes that never arrived (missed broadcasts, writes by other applications)
+    @Scheduled(initialDelayString = "${typeahead.resync-interval-ms:600000}",
+            fixedDelayString = "${typeahead.resync-interval-ms:600000}")
+    public void resync() {
+        if (enabled) startBuild();
+    }
+
+    // One build at a time, on its own thread so the shared scheduler is not held for the load
+    private void startBuild() {
+        if (!building.compareAndSet(false, true)) return;
+        Thread builder = new Thread(() -> {
+            try {
+                build();
+            } finally {
+                building.set(false);
+            }
+        }, "typeahead-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Best matches for {@code query} among the allowed kinds (bit = {@code Kind.ordinal()}). Every query
+     * word must be a prefix of a name token or of the business id. Empty while the index is building.
+     */
+    public List<TypeaheadEntry> search(String query, int kindMask, int limit) {
+        String[] words = tokens(query).toArray(String[]::new);
+        if (!ready || words.length == 0 || kindMask == 0) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        // The longest word is the most selective one to walk the trie with
+        String lead = words[0];
+        for (String word : words) {
+            if (word.length() > lead.length()) lead = word;
+        }
+
+        List<TypeaheadEntry> result = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            int fetch = words.length == 1 ? limit : limit * OVERFETCH;
+            for (TypeaheadEntry entry : contents.trie.search(lead, kindMask, fetch)) {
+                if (words.length == 1 || matchesAll(entry, words)) result.add(entry);
+                if (result.size() == limit) break;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        long now = System.currentTimeMillis();
+        apply(target -> target.upsertOrRemove(TypeaheadEntry.Kind.PATIENT, event.id(), event.removed(), event.patientId(),
+                event.firstName(), event.lastName(), now));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        DoctorSearchRow row = event.row();
+        long now = System.currentTimeMillis();
+        apply(target -> target.upsertOrRemove(TypeaheadEntry.Kind.DOCTOR, event.id(), event.removed(),
+                row == null ? null : row.doctorId(), row == null ? null : row.firstName(),
+                row == null ? null : row.lastName(), now));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAdminChanged(AdminChangedEvent event) {
+        long now = System.currentTimeMillis();
+        apply(target -> target.upsertOrRemove(TypeaheadEntry.Kind.ADMIN, event.id(), event.removed(), event.adminId(),
+                event.firstName(), event.lastName(), now));
+    }
+
+    private void apply(Consumer<Contents> change) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            if (changesDuringBuild != null) changesDuringBuild.add(change);
+            change.accept(contents);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void build() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changesDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            // Only this thread touches the new contents until they are swapped in
+            Contents fresh = new Contents();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Patient> patients = patientRepository.streamAllOrderById()) {
+                    Iterator<Patient> iterator = patients.iterator();
+                    while (iterator.hasNext()) {
+                        Patient p = iterator.next();
+                        entityManager.detach(p);
+                        fresh.upsertOrRemove(TypeaheadEntry.Kind.PATIENT, p.getId(), false, p.getPatientId(), p.getFirstName(), p.getLastName(),
+                                millis(p.getUpdatedAt() != null ? p.getUpdatedAt() : p.getCreatedAt()));
+                    }
+                }
+            });
+            for (Doctor d : doctorRepository.findAll()) {
+                fresh.upsertOrRemove(TypeaheadEntry.Kind.DOCTOR, d.getId(), false, d.getDoctorId(), d.getFirstName(), d.getLastName(),
+                        millis(d.getUpdatedAt() != null ? d.getUpdatedAt() : d.getCreatedAt()));
+            }
+            for (Admin a : adminRepository.findAll()) {
+                fresh.upsertOrRemove(TypeaheadEntry.Kind.ADMIN, a.getId(), false, a.getAdminId(), a.getFirstName(), a.getLastName(),
+                        millis(a.getUpdatedAt() != null ? a.getUpdatedAt() : a.getCreatedAt()));
+            }
+
+            boolean rebuilt = ready;
+            long trieBytes;
+            int count;
+            int nodes;
+            lock.writeLock().lock();
+            try {
+                changesDuringBuild.forEach(change -> change.accept(fresh));
+                changesDuringBuild = null;
+                contents = fresh;
+                ready = true;
+                trieBytes = fresh.trie.estimatedBytes();
+                count = fresh.size();
+                nodes = fresh.trie.nodeCount();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Typeahead index {}: {} entries, {} trie nodes in {} ms; trie ~{} KB, ~{} bytes per entry (excluding entry records)",
+                    rebuilt ? "resynced" : "built", count, nodes, (System.nanoTime() - start) / 1_000_000, trieBytes / 1024,
+                    count == 0 ? 0 : trieBytes / count);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Building the typeahead index failed{}: {}", ready ? ", keeping the previous one" : "", e.getMessage(), e);
+        }
+    }
+
+    private static Set<String> entryTokens(TypeaheadEntry entry) {
+        Set<String> tokens = tokens(entry.label());
+        if (entry.businessId() != null && !entry.businessId().isBlank()) {
+            tokens.add(entry.businessId().trim().toLowerCase(Locale.ROOT));
+        }
+        return tokens;
+    }
+
+    private static boolean matchesAll(TypeaheadEntry entry, String[] words) {
+        Set<String> tokens = entryTokens(entry);
+        for (String word : words) {
+            boolean matched = false;
+            for (String token : tokens) {
+                if (token.startsWith(word)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) return false;
+        }
+        return true;
+    }
+
+    private static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text != null) {
+            for (String token : text.toLowerCase(Locale.ROOT).split("\\s+")) {
+                if (!token.isEmpty()) tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static long millis(Timestamp timestamp) {
+        return timestamp == null ? 0 : timestamp.getTime();
+    }
+
+    private static long millis(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private double entryCount() {
+        lock.readLock().lock();
+        try {
+            return contents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
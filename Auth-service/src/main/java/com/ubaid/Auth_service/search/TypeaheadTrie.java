@@ -0,0 +1,248 @@
+package com.ubaid.Auth_service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Radix (path-compressed) trie from normalized tokens to {@link TypeaheadEntry}s. Every node keeps the
+ * best score in its subtree per entry kind, so a prefix lookup is a best-first walk that stops after
+ * {@code limit} hits instead of visiting the whole subtree. Not thread-safe; callers guard it.
+ */
+class TypeaheadTrie {
+
+    private static final int KINDS = TypeaheadEntry.Kind.values().length;
+    private static final char[] NO_LABEL = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final TypeaheadEntry[] NO_ENTRIES = new TypeaheadEntry[0];
+
+    private static final class Node {
+        char[] label = NO_LABEL; // edge from the parent
+        Node[] children = NO_CHILDREN; // sorted by first label char
+        TypeaheadEntry[] entries = NO_ENTRIES; // tokens ending here
+        final long[] maxScore = new long[KINDS];
+
+        Node() {
+            Arrays.fill(maxScore, Long.MIN_VALUE);
+        }
+
+        long best(int kindMask) {
+            long best = Long.MIN_VALUE;
+            for (int k = 0; k < KINDS; k++) {
+                if ((kindMask & (1 << k)) != 0 && maxScore[k] > best) best = maxScore[k];
+            }
+            return best;
+        }
+    }
+
+    private record Candidate(long score, Node node, TypeaheadEntry entry) {
+    }
+
+    private final Node root = new Node();
+    private int nodeCount = 1;
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    void insert(String token, TypeaheadEntry entry) {
+        insert(root, token, 0, entry);
+    }
+
+    void remove(String token, TypeaheadEntry entry) {
+        remove(root, token, 0, entry);
+    }
+
+    /**
+     * Best-scored entries of the allowed kinds (bit = {@code Kind.ordinal()}) with a token starting with
+     * {@code prefix}; an entry matching through several tokens is returned once.
+     */
+    List<TypeaheadEntry> search(String prefix, int kindMask, int limit) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            int index = childIndex(node, prefix.charAt(position));
+            if (index < 0) return List.of();
+            Node child = node.children[index];
+            int length = Math.min(child.label.length, prefix.length() - position);
+            for (int i = 0; i < length; i++) {
+                if (child.label[i] != prefix.charAt(position + i)) return List.of();
+            }
+            position += length;
+            node = child;
+        }
+
+        List<TypeaheadEntry> result = new ArrayList<>(limit);
+        Set<TypeaheadEntry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        PriorityQueue<Candidate> queue = new PriorityQueue<>((a, b) -> Long.compare(b.score(), a.score()));
+        if (node.best(kindMask) != Long.MIN_VALUE) {
+            queue.add(new Candidate(node.best(kindMask), node, null));
+        }
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.entry() != null) {
+                if (seen.add(candidate.entry())) result.add(candidate.entry());
+                continue;
+            }
+            for (TypeaheadEntry entry : candidate.node().entries) {
+                if ((kindMask & (1 << entry.kind().ordinal())) != 0) {
+                    queue.add(new Candidate(entry.score(), null, entry));
+                }
+            }
+            for (Node child : candidate.node().children) {
+                long best = child.best(kindMask);
+                if (best != Long.MIN_VALUE) queue.add(new Candidate(best, child, null));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rough retained size of the trie structure (nodes, labels, arrays), assuming a 64-bit JVM with
+     * compressed oops; entries themselves are not included.
+     */
+    long estimatedBytes() {
+        long bytes = 0;
+        List<Node> stack = new ArrayList<>(List.of(root));
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            bytes += 32 + align(16 + 8L * KINDS);
+            if (node.label.length > 0) bytes += align(16 + 2L * node.label.length);
+            if (node.children.length > 0) bytes += align(16 + 4L * node.children.length);
+            if (node.entries.length > 0) bytes += align(16 + 4L * node.entries.length);
+            stack.addAll(Arrays.asList(node.children));
+        }
+        return bytes;
+    }
+
+    private void insert(Node node, String token, int position, TypeaheadEntry entry) {
+        raise(node, entry);
+        if (position == token.length()) {
+            node.entries = append(node.entries, entry);
+            return;
+        }
+
+        int index = childIndex(node, token.charAt(position));
+        if (index < 0) {
+            Node leaf = new Node();
+            leaf.label = token.substring(position).toCharArray();
+            leaf.entries = new TypeaheadEntry[]{entry};
+            raise(leaf, entry);
+            node.children = insertChild(node.children, -(index + 1), leaf);
+            nodeCount++;
+            return;
+        }
+
+        Node child = node.children[index];
+        int common = 0;
+        while (common < child.label.length && position + common < token.length()
+                && child.label[common] == token.charAt(position + common)) {
+            common++;
+        }
+        if (common < child.label.length) {
+            // Split the edge at the first differing char
+            Node middle = new Node();
+            middle.label = Arrays.copyOf(child.label, common);
+            child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+            middle.children = new Node[]{child};
+            System.arraycopy(child.maxScore, 0, middle.maxScore, 0, KINDS);
+            node.children[index] = middle;
+            nodeCount++;
+            child = middle;
+        }
+        insert(child, token, position + common, entry);
+    }
+
+    private boolean remove(Node node, String token, int position, TypeaheadEntry entry) {
+        if (position == token.length()) {
+            int index = -1;
+            for (int i = 0; i < node.entries.length; i++) {
+                if (node.entries[i] == entry) index = i;
+            }
+            if (index < 0) return false;
+            node.entries = removeAt(node.entries, index);
+            recompute(node);
+            return true;
+        }
+
+        int index = childIndex(node, token.charAt(position));
+        if (index < 0) return false;
+        Node child = node.children[index];
+        if (token.length() - position < child.label.length
+                || !token.regionMatches(position, new String(child.label), 0, child.label.length)) {
+            return false;
+        }
+        if (!remove(child, token, position + child.label.length, entry)) return false;
+
+        if (child.entries.length == 0 && child.children.length == 0) {
+            node.children = removeAt(node.children, index);
+            nodeCount--;
+        } else if (child.entries.length == 0 && child.children.length == 1) {
+            // Keep paths compressed: fold a pass-through node into its only child
+            Node grandchild = child.children[0];
+            char[] label = Arrays.copyOf(child.label, child.label.length + grandchild.label.length);
+            System.arraycopy(grandchild.label, 0, label, child.label.length, grandchild.label.length);
+            grandchild.label = label;
+            node.children[index] = grandchild;
+            nodeCount--;
+        }
+        recompute(node);
+        return true;
+    }
+
+    private static void raise(Node node, TypeaheadEntry entry) {
+        int kind = entry.kind().ordinal();
+        if (entry.score() > node.maxScore[kind]) node.maxScore[kind] = entry.score();
+    }
+
+    private static void recompute(Node node) {
+        Arrays.fill(node.maxScore, Long.MIN_VALUE);
+        for (TypeaheadEntry entry : node.entries) raise(node, entry);
+        for (Node child : node.children) {
+            for (int k = 0; k < KINDS; k++) {
+                if (child.maxScore[k] > node.maxScore[k]) node.maxScore[k] = child.maxScore[k];
+            }
+        }
+    }
+
+    // Binary search on the first label char; children never share one
+    private static int childIndex(Node node, char c) {
+        int low = 0, high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char first = node.children[mid].label[0];
+            if (first < c) low = mid + 1;
+            else if (first > c) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
+    private static Node[] insertChild(Node[] children, int at, Node child) {
+        Node[] next = new Node[children.length + 1];
+        System.arraycopy(children, 0, next, 0, at);
+        next[at] = child;
+        System.arraycopy(children, at, next, at + 1, children.length - at);
+        return next;
+    }
+
+    private static TypeaheadEntry[] append(TypeaheadEntry[] entries, TypeaheadEntry entry) {
+        TypeaheadEntry[] next = Arrays.copyOf(entries, entries.length + 1);
+        next[entries.length] = entry;
+        return next;
+    }
+
+    private static <T> T[] removeAt(T[] array, int index) {
+        T[] next = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, index + 1, next, index, array.length - index - 1);
+        return next;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ubaid.Auth_service.security;
+
+/**
+ * Authenticated principal with its roles and permissions compiled to bitmasks
+ * (bit = {@code RoleType.ordinal()} / {@code PermissionType.ordinal()}), so authorization checks
+ * are a single AND instead of a scan over the authority strings.
+ */
+public interface AuthPrincipal {
+
+    Long userId();
+
+    String username();
+
+    int roleMask();
+
+    long permissionMask();
+
+    default boolean hasAnyRole(int requiredRoleMask) {
+        return (roleMask() & requiredRoleMask) != 0;
+    }
+}
@@ -4,8 +4,13 @@ import com.ubaid.Auth_service.dto.*;
 import com.ubaid.Auth_service.entity.*;
 import com.ubaid.Auth_service.entity.type.AuthProviderType;
 import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.outbox.OutboxPublisher;
 import com.ubaid.Auth_service.repository.*;
 import com.ubaid.Auth_service.security.AuthUtil;
+import com.ubaid.Auth_service.service.AdminIdGenerator;
+import com.ubaid.Auth_service.service.BusinessIdAllocator;
+import com.ubaid.Auth_service.service.DoctorIdGenerator;
+import com.ubaid.Auth_service.service.PatientIdGenerator;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +22,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -33,18 +42,21 @@ public class AuthService {
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
     private final AdminRepository adminRepository;
-
-    @Transactional
+    private final SecurityEpochRegistry securityEpochRegistry;
+    private final TokenDenylist tokenDenylist;
+    private final PatientIdGenerator patientIdGenerator;
+    private final DoctorIdGenerator doctorIdGenerator;
+    private final AdminIdGenerator adminIdGenerator;
+    private final BusinessIdAllocator businessIdAllocator;
+    private final OutboxPublisher outboxPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    // Not transactional: no connection is held while the password is hashed
     public LoginResponseDto login(LoginRequestDto loginRequestDto) {
         try {
             log.info("Attempting authentication for user: {}", loginRequestDto.getUsername());
 
-            // Check if user exists first
-            User user = userRepository.findByUsername(loginRequestDto.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found: " + loginRequestDto.getUsername()));
-
-            log.info("User found: {} with roles: {}", user.getUsername(), user.getRoles());
-
+            // The only user lookup of a login: CustomUserDetailsService fetch-joins the roles
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             loginRequestDto.getUsername(),
@@ -69,24 +81,34 @@ public class AuthService {
                     .roles(roles)
                     .build();
 
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Login failed for user {}: {}", loginRequestDto.getUsername(), e.getMessage(), e);
             throw new RuntimeException("Authentication failed: " + e.getMessage());
         }
     }
 
-    @Transactional
+    // Hashes before the transaction starts, so no connection is held for the hash time; like login
     public UserResponseDto signup(SignUpRequestDto signupRequestDto) {
         log.info("Signup attempt for user: {}", signupRequestDto.getUsername());
 
-        User user = signUpInternal(signupRequestDto, AuthProviderType.EMAIL, null);
+        if (signupRequestDto.getPassword() == null || signupRequestDto.getPassword().isBlank()) {
+            throw new IllegalArgumentException("Password is required for EMAIL sign up");
+        }
+        String passwordHash = passwordEncoder.encode(signupRequestDto.getPassword());
+
+        User user = new TransactionTemplate(transactionManager).execute(status ->
+                signUpInternal(signupRequestDto, AuthProviderType.EMAIL, null, passwordHash));
 
         log.info("Signup successful for user: {}", user.getUsername());
         return mapUserToResponseDto(user);
     }
 
+    // passwordHash is already encoded; null for OAuth2 sign ups
     @Transactional
-    public User signUpInternal(SignUpRequestDto signupRequestDto, AuthProviderType authProviderType, String providerId) {
+    public User signUpInternal(SignUpRequestDto signupRequestDto, AuthProviderType authProviderType, String providerId,
+                               String passwordHash) {
         // Check if username already exists
         userRepository.findByUsername(signupRequestDto.getUsername())
                 .ifPresent(u -> {
@@ -118,13 +140,14 @@ public class AuthService {
                 .build();
 
         if (authProviderType == AuthProviderType.EMAIL) {
-            if (signupRequestDto.getPassword() == null || signupRequestDto.getPassword().isBlank()) {
+            if (passwordHash == null) {
                 throw new IllegalArgumentException("Password is required for EMAIL sign up");
             }
-            user.setPassword(passwordEncoder.encode(signupRequestDto.getPassword()));
+            user.setPassword(passwordHash);
         }
 
         user = userRepository.save(user);
+        outboxPublisher.userSaved("UserCreated", user);
 
         // Create role-specific entities
         if (roles.contains(RoleType.PATIENT)) {
@@ -153,7 +176,8 @@ public class AuthService {
                 .active(true)
                 .build();
 
-        patientRepository.save(patient);
+        patient = patientRepository.save(patient);
+        outboxPublisher.patientSaved("PatientCreated", patient);
         log.info("Created patient entity with ID: {}", patientId);
     }
 
@@ -169,7 +193,8 @@ public class AuthService {
                 .isAvailable(true)
                 .build();
 
-        doctorRepository.save(doctor);
+        doctor = doctorRepository.save(doctor);
+        outboxPublisher.doctorSaved("DoctorCreated", doctor);
         log.info("Created doctor entity with ID: {}", doctorId);
     }
 
@@ -184,26 +209,23 @@ public class AuthService {
                 .isActive(true)
                 .build();
 
-        adminRepository.save(admin);
+        admin = adminRepository.save(admin);
+        outboxPublisher.adminSaved("AdminCreated", admin);
         log.info("Created admin entity with ID: {}", adminId);
     }
 
     // ID generation methods
+    // Signup knows no date of birth, license or department yet, so the bases use the username only
     private String generatePatientId(String username) {
-        return "PAT-" + sanitizeUsername(username).toUpperCase() + "-" + System.currentTimeMillis();
+        return businessIdAllocator.allocate(BusinessIdAllocator.Kind.PATIENT, patientIdGenerator.baseId(null, username));
     }
 
     private String generateDoctorId(String username) {
-        return "DOC-" + sanitizeUsername(username).toUpperCase() + "-" + System.currentTimeMillis();
+        return businessIdAllocator.allocate(BusinessIdAllocator.Kind.DOCTOR, doctorIdGenerator.baseId(null, username));
     }
 
     private String generateAdminId(String username) {
-        return "ADM-" + sanitizeUsername(username).toUpperCase() + "-" + System.currentTimeMillis();
-    }
-
-    private String sanitizeUsername(String username) {
-        if (username == null || username.isBlank()) return "USER";
-        return username.replaceAll("[^A-Za-z0-9]", "").substring(0, Math.min(username.length(), 10));
+        return businessIdAllocator.allocate(BusinessIdAllocator.Kind.ADMIN, adminIdGenerator.baseId(null, username));
     }
 
     // Mapping methods
@@ -256,7 +278,7 @@ public class AuthService {
                     .roles(Set.of(RoleType.PATIENT))
                     .build();
 
-            user = signUpInternal(signUp, providerType, providerId);
+            user = signUpInternal(signUp, providerType, providerId, null);
 
         } else if (user != null) {
             updateUserFromOAuth2(user, email, firstName, lastName);
@@ -301,7 +323,18 @@ public class AuthService {
 
         if (updated) {
             userRepository.save(user);
+            outboxPublisher.userSaved("UserUpdated", user);
+        }
+    }
+
+    // Revokes the presented token only; other sessions of the user stay valid
+    public void logout(String token) {
+        JwtClaims claims = authUtil.parseToken(token);
+        if (claims.tokenId() == null) {
+            throw new IllegalArgumentException("Token has no jti and cannot be revoked individually");
         }
+        tokenDenylist.revoke(claims.tokenId(), claims.expiresAt());
+        log.info("User {} logged out, token {} revoked", claims.username(), claims.tokenId());
     }
 
     public UserResponseDto findById(Long id) {
@@ -319,8 +352,24 @@ public class AuthService {
 
         user.setRoles(request.getRoles());
         User updatedUser = userRepository.save(user);
+        outboxPublisher.userSaved("UserRolesUpdated", updatedUser);
+        bumpSecurityEpochAfterCommit(id);
 
         log.info("Successfully updated user roles for ID: {}", id);
         return mapUserToResponseDto(updatedUser);
     }
+
+    // Tokens issued so far carry the old roles; revoke them (and their cached authentications) once the new roles are visible
+    private void bumpSecurityEpochAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            securityEpochRegistry.bump(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                securityEpochRegistry.bump(userId);
+            }
+        });
+    }
 }
@@ -2,30 +2,22 @@ package com.ubaid.Auth_service.security;
 
 import com.ubaid.Auth_service.entity.User;
 import com.ubaid.Auth_service.entity.type.AuthProviderType;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
-import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class AuthUtil {
 
-    @Value("${jwt.secretKey}")
-    private String jwtSecretKey;
-
-    SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(jwtSecretKey.getBytes(StandardCharsets.UTF_8));
-    }
+    private final JwtCodec jwtCodec;
+    private final SecurityEpochRegistry securityEpochRegistry;
 
     public String generateAccessToken(User user) {
         // Store roles without ROLE_ prefix in token
@@ -33,42 +25,31 @@ public class AuthUtil {
                 .map(Enum::name)  // Just the role name: ADMIN, PATIENT, DOCTOR
                 .toList();
 
-        return Jwts.builder()
-                .setSubject(user.getId().toString())
-                .claim("userId", user.getId())           // Add userId claim
-                .claim("username", user.getUsername())   // Add username claim
-                .claim("roles", roles)                   // roles without prefix
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24)) // 24 hours
-                .signWith(getSecretKey(), SignatureAlgorithm.HS256)
-                .compact();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("userId", user.getId().toString()); // string: Snowflake ids do not fit a JavaScript number
+        claims.put("username", user.getUsername());   // Add username claim
+        claims.put("roles", roles);                   // roles without prefix
+        claims.put("ver", securityEpochRegistry.epochForNewToken(user.getId())); // revoked when the epoch is bumped
+
+        return jwtCodec.sign(user.getId().toString(), claims);
+    }
+
+    // Verify once and read every claim from the result
+    public JwtClaims parseToken(String token) {
+        return jwtCodec.verify(token);
     }
 
     public String getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSecretKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        Long userId = parseToken(token).userId();
+        return userId != null ? userId.toString() : null;
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSecretKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("username", String.class);
+        return parseToken(token).username();
     }
 
     public List<String> getRolesFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSecretKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("roles", List.class);
+        return parseToken(token).roles();
     }
 
     public AuthProviderType getProviderTypeFromRegistrationId(String registrationId) {
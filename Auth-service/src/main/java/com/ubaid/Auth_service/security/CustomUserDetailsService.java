@@ -1,19 +1,34 @@
 package com.ubaid.Auth_service.security;
 
+import com.ubaid.Auth_service.entity.User;
 import com.ubaid.Auth_service.repository.UserRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+@Slf4j
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username).orElseThrow(() ->
+        return userRepository.findWithRolesByUsername(username).orElseThrow(() ->
                 new UsernameNotFoundException("User not found: " + username));
     }
+
+    // Called by DaoAuthenticationProvider after a successful login whose stored hash is outdated
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = (User) user;
+        userRepository.updatePassword(entity.getId(), newPassword);
+        entity.setPassword(newPassword);
+        log.info("Upgraded password hash of user {}", entity.getUsername());
+        return entity;
+    }
 }
@@ -1,11 +1,11 @@
 package com.ubaid.Auth_service.security;
 
+import com.ubaid.Auth_service.config.JwtConfig;
 import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.entity.type.RoleType;
 import com.ubaid.Auth_service.repository.UserRepository;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import lombok.RequiredArgsConstructor;
@@ -18,11 +18,12 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -30,6 +31,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final UserRepository userRepository;
     private final AuthUtil authUtil;
+    private final TokenAuthenticationCache tokenAuthenticationCache;
+    private final SecurityEpochRegistry securityEpochRegistry;
+    private final TokenDenylist tokenDenylist;
+    private final JwtConfig.PrincipalMode principalMode;
     private final HandlerExceptionResolver handlerExceptionResolver;
 
     @Override
@@ -47,51 +52,32 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7);
 
             try {
-                Claims claims = Jwts.parser()
-                        .verifyWith(authUtil.getSecretKey())
-                        .build()
-                        .parseSignedClaims(token)
-                        .getPayload();
-
-                String userIdStr = claims.getSubject();
-                if (userIdStr == null) {
-                    log.warn("No subject found in JWT token");
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-
-                Long userId = Long.parseLong(userIdStr);
-                List<String> roles = claims.get("roles", List.class);
-                String username = claims.get("username", String.class);
-
                 if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                    User user = userRepository.findById(userId).orElseThrow(() ->
-                            new UsernameNotFoundException("User not found with id: " + userId));
-
-                    // Convert roles to GrantedAuthorities with ROLE_ prefix
-                    List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-                    if (roles != null && !roles.isEmpty()) {
-                        authorities = roles.stream()
-                                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                                .collect(Collectors.toList());
+                    TokenAuthenticationCache.CachedAuthentication cached = tokenAuthenticationCache.get(token, this::authenticate);
+                    if (cached == null) {
+                        log.warn("No subject found in JWT token");
+                        filterChain.doFilter(request, response);
+                        return;
                     }
 
-                    // Also add permission-based authorities
-                    Set<SimpleGrantedAuthority> permissionAuthorities = user.getRoles().stream()
-                            .flatMap(role -> RolePermissionMapping.getAuthoritiesForRole(role).stream())
-                            .collect(Collectors.toSet());
-                    authorities.addAll(permissionAuthorities);
+                    // Checked on every request, cache hit or not: a bumped epoch revokes the token immediately
+                    if (cached.securityEpoch() < securityEpochRegistry.currentEpoch(cached.userId())) {
+                        log.warn("Rejected token of user {} issued before its security epoch changed", cached.userId());
+                        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                        response.getWriter().write("{\"error\":\"Token revoked\"}");
+                        return;
+                    }
 
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(user, null, authorities);
-                    authToken.setDetails(Map.of(
-                            "userId", userId,
-                            "username", username,
-                            "roles", roles
-                    ));
+                    if (tokenDenylist.isRevoked(cached.tokenId(), cached.expiresAt())) {
+                        log.warn("Rejected revoked token {} of user {}", cached.tokenId(), cached.userId());
+                        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                        response.getWriter().write("{\"error\":\"Token revoked\"}");
+                        return;
+                    }
 
+                    UsernamePasswordAuthenticationToken authToken = cached.authentication();
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    log.info("User authenticated: {} with roles: {}", username, roles);
+                    log.info("User authenticated: {} with authorities: {}", authToken.getName(), authToken.getAuthorities());
                 }
 
                 filterChain.doFilter(request, response);
@@ -112,4 +98,62 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             handlerExceptionResolver.resolveException(request, response, null, ex);
         }
     }
+
+    // Runs only on a cache miss: verify the token and build the authentication for it
+    private TokenAuthenticationCache.CachedAuthentication authenticate(String token) {
+        JwtClaims claims = authUtil.parseToken(token);
+
+        Long userId = claims.userId();
+        if (userId == null) {
+            return null;
+        }
+
+        List<String> roles = claims.roles();
+        String username = claims.username();
+
+        UsernamePasswordAuthenticationToken authToken = principalMode == JwtConfig.PrincipalMode.STATELESS
+                ? statelessAuthentication(userId, username, roles)
+                : entityAuthentication(userId, roles);
+        authToken.setDetails(Map.of(
+                "userId", userId.toString(),
+                "username", username,
+                "roles", roles
+        ));
+
+        Instant expiresAt = claims.expiresAt() != null ? claims.expiresAt() : Instant.now();
+        return new TokenAuthenticationCache.CachedAuthentication(authToken, claims.tokenId(), userId, claims.securityEpoch(), expiresAt);
+    }
+
+    private UsernamePasswordAuthenticationToken entityAuthentication(Long userId, List<String> roles) {
+        User user = userRepository.findById(userId).orElseThrow(() ->
+                new UsernameNotFoundException("User not found with id: " + userId));
+
+        // ROLE_ authorities from the token, permission authorities from the stored roles
+        Set<SimpleGrantedAuthority> authorities = new LinkedHashSet<>(
+                RolePermissionMapping.snapshot().roleAuthorities(PermissionMatrix.roleMask(toRoleTypes(userId, roles))));
+        authorities.addAll(RolePermissionMapping.getPermissionAuthorities(user.getRoles()));
+
+        return new UsernamePasswordAuthenticationToken(user, null, authorities);
+    }
+
+    // No database access: roles come from the token, revocation is covered by the security epoch check
+    private UsernamePasswordAuthenticationToken statelessAuthentication(Long userId, String username, List<String> roles) {
+        Set<RoleType> roleTypes = toRoleTypes(userId, roles);
+        PermissionMatrix matrix = RolePermissionMapping.snapshot();
+        int roleMask = PermissionMatrix.roleMask(roleTypes);
+        JwtPrincipal principal = new JwtPrincipal(userId, username, Set.copyOf(roleTypes), roleMask, matrix.permissionMask(roleMask));
+        return new UsernamePasswordAuthenticationToken(principal, null, matrix.authorities(roleMask));
+    }
+
+    private Set<RoleType> toRoleTypes(Long userId, List<String> roles) {
+        Set<RoleType> roleTypes = EnumSet.noneOf(RoleType.class);
+        for (String role : roles) {
+            try {
+                roleTypes.add(RoleType.valueOf(role));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring unknown role '{}' in token of user {}", role, userId);
+            }
+        }
+        return roleTypes;
+    }
 }
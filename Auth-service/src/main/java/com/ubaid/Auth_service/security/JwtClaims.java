@@ -0,0 +1,42 @@
+package com.ubaid.Auth_service.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a token whose signature and expiry have already been verified.
+ */
+public record JwtClaims(String tokenId,
+                        Long userId,
+                        String username,
+                        List<String> roles,
+                        long securityEpoch,
+                        Instant issuedAt,
+                        Instant expiresAt,
+                        String keyId) {
+
+    static JwtClaims from(Jws<Claims> jws) {
+        Claims claims = jws.getPayload();
+        String subject = claims.getSubject();
+
+        List<?> rawRoles = claims.get("roles", List.class);
+        List<String> roles = rawRoles == null ? List.of() : rawRoles.stream()
+                .map(String::valueOf)
+                .toList();
+        Number ver = claims.get("ver", Number.class);
+
+        return new JwtClaims(
+                claims.getId(),
+                subject != null ? Long.valueOf(subject) : null,
+                claims.get("username", String.class),
+                roles,
+                ver != null ? ver.longValue() : 0L,
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                jws.getHeader().getKeyId()
+        );
+    }
+}
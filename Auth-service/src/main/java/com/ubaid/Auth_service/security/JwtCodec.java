@@ -0,0 +1,194 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.config.JwtConfig;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Thread-safe JWT signer/verifier. Keys are derived once at startup and the parser is built once;
+ * the key used for verification is picked from the token's {@code kid} header.
+ * HMAC keys verify HS256 tokens, P-256 public keys verify ES256 tokens and are published as a JWKS.
+ */
+@Component
+@Slf4j
+public class JwtCodec {
+
+    private static final String ES256 = "ES256";
+
+    private final Map<String, Key> keyring;
+    private final String activeKeyId;
+    private final SecretKey hmacSigningKey;
+    private final PrivateKey ecSigningKey;
+    private final Duration accessTokenTtl;
+    private final JwtParser parser;
+    private final Map<String, Object> jwks;
+    private final String jwksETag;
+
+    public JwtCodec(JwtConfig jwtConfig) {
+        Map<String, Key> keys = new LinkedHashMap<>();
+        if (jwtConfig.getSecretKey() != null && !jwtConfig.getSecretKey().isBlank()) {
+            keys.put(JwtConfig.DEFAULT_KEY_ID, hmacKey(jwtConfig.getSecretKey()));
+        }
+        jwtConfig.getKeys().forEach((kid, secret) -> keys.put(kid, hmacKey(secret)));
+
+        Map<String, PrivateKey> ecPrivateKeys = new LinkedHashMap<>();
+        List<Map<String, Object>> publishedKeys = new ArrayList<>();
+        jwtConfig.getEcKeys().forEach((kid, ecKey) -> {
+            if (keys.containsKey(kid)) {
+                throw new IllegalStateException("JWT key id is used by both an HMAC and an EC key: " + kid);
+            }
+            ECPublicKey publicKey = ecPublicKey(kid, ecKey.getPublicKey());
+            keys.put(kid, publicKey);
+            publishedKeys.add(toJwk(kid, publicKey));
+            if (ecKey.getPrivateKey() != null && !ecKey.getPrivateKey().isBlank()) {
+                ecPrivateKeys.put(kid, ecPrivateKey(kid, ecKey.getPrivateKey()));
+            }
+        });
+
+        this.keyring = Map.copyOf(keys);
+        this.activeKeyId = jwtConfig.getActiveKeyId();
+        if (ES256.equalsIgnoreCase(jwtConfig.getAlgorithm())) {
+            this.ecSigningKey = ecPrivateKeys.get(activeKeyId);
+            this.hmacSigningKey = null;
+            if (ecSigningKey == null) {
+                throw new IllegalStateException("No EC private key configured for active key id: " + activeKeyId);
+            }
+        } else {
+            this.ecSigningKey = null;
+            this.hmacSigningKey = keyring.get(activeKeyId) instanceof SecretKey secretKey ? secretKey : null;
+            if (hmacSigningKey == null) {
+                throw new IllegalStateException("No HMAC key configured for active key id: " + activeKeyId);
+            }
+        }
+
+        this.accessTokenTtl = jwtConfig.getAccessTokenTtl();
+        this.parser = Jwts.parser()
+                .keyLocator(this::locateKey)
+                .build();
+        this.jwks = Map.of("keys", List.copyOf(publishedKeys));
+        this.jwksETag = "\"" + Integer.toHexString(jwks.hashCode()) + "\"";
+
+        log.info("JWT keyring loaded with key ids {}, signing {} with '{}'",
+                keyring.keySet(), ecSigningKey != null ? ES256 : "HS256", activeKeyId);
+    }
+
+    public String sign(String subject, Map<String, ?> claims) {
+        Instant now = Instant.now();
+        JwtBuilder builder = Jwts.builder()
+                .header().keyId(activeKeyId).and()
+                .id(UUID.randomUUID().toString())
+                .subject(subject)
+                .claims(claims)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(accessTokenTtl)));
+
+        if (ecSigningKey != null) {
+            builder.signWith(ecSigningKey, Jwts.SIG.ES256);
+        } else {
+            builder.signWith(hmacSigningKey, Jwts.SIG.HS256);
+        }
+        return builder.compact();
+    }
+
+    // Verifies signature and expiry once; throws JwtException (incl. ExpiredJwtException) otherwise
+    public JwtClaims verify(String token) {
+        return JwtClaims.from(parser.parseSignedClaims(token));
+    }
+
+    // Public half of every EC key as a JWK set; HMAC secrets are never published
+    public Map<String, Object> jwks() {
+        return jwks;
+    }
+
+    public String jwksETag() {
+        return jwksETag;
+    }
+
+    private Key locateKey(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        // Tokens issued before kid headers were introduced were signed with the legacy secret
+        Key key = keyring.get(kid != null ? kid : JwtConfig.DEFAULT_KEY_ID);
+        if (key == null) {
+            throw new JwtException("Unknown JWT key id: " + kid);
+        }
+        return key;
+    }
+
+    private static SecretKey hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ECPublicKey ecPublicKey(String kid, String pem) {
+        try {
+            ECPublicKey key = (ECPublicKey) KeyFactory.getInstance("EC")
+                    .generatePublic(new X509EncodedKeySpec(pemBody(pem)));
+            if (key.getParams().getCurve().getField().getFieldSize() != 256) {
+                throw new IllegalStateException("EC key '" + kid + "' is not a P-256 key");
+            }
+            return key;
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid EC public key for key id: " + kid, e);
+        }
+    }
+
+    private static PrivateKey ecPrivateKey(String kid, String pem) {
+        try {
+            return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(pemBody(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid EC private key for key id: " + kid, e);
+        }
+    }
+
+    private static byte[] pemBody(String pem) {
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static Map<String, Object> toJwk(String kid, ECPublicKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", ES256);
+        jwk.put("x", coordinate(key.getW().getAffineX()));
+        jwk.put("y", coordinate(key.getW().getAffineY()));
+        return jwk;
+    }
+
+    // JWK coordinates are the unsigned big-endian value left-padded to the 32-byte field size
+    private static String coordinate(BigInteger value) {
+        byte[] raw = value.toByteArray();
+        byte[] fixed = new byte[32];
+        int length = Math.min(raw.length, 32);
+        System.arraycopy(raw, raw.length - length, fixed, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.entity.type.RoleType;
+
+import java.security.Principal;
+import java.util.Set;
+
+/**
+ * Principal built purely from verified token claims (stateless principal mode), without loading the User entity.
+ * The masks are compiled once when the token is first authenticated.
+ */
+public record JwtPrincipal(Long userId,
+                           String username,
+                           Set<RoleType> roles,
+                           int roleMask,
+                           long permissionMask) implements Principal, AuthPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ubaid.Auth_service.security;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Bloom filter whose bit array lives in a memory-mapped file, so its content survives restarts
+ * and costs no heap. Lookups are lock-free; additions are serialized (they are rare: one per revocation).
+ *
+ * File layout: int magic, long number of bits, int number of hash functions, then the bit array.
+ */
+final class MappedBloomFilter implements AutoCloseable {
+
+    private static final int MAGIC = 0x4A544246; // "JTBF"
+    private static final int HEADER_BYTES = 16;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long numBits;
+    private final int numHashes;
+
+    private MappedBloomFilter(Path file, FileChannel channel, MappedByteBuffer buffer, long numBits, int numHashes) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Opens the filter stored in {@code file}, or creates it sized for the given insertions and false-positive rate.
+     * An existing file created with different sizing is replaced.
+     */
+    static MappedBloomFilter openOrCreate(Path file, long expectedInsertions, double falsePositiveRate) throws IOException {
+        long numBits = Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        long size = HEADER_BYTES + (numBits + 7) / 8;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter too large for a single mapping: " + size + " bytes");
+        }
+
+        if (Files.exists(file) && Files.size(file) != size) {
+            Files.delete(file);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        if (buffer.getInt(0) != MAGIC || buffer.getLong(4) != numBits || buffer.getInt(12) != numHashes) {
+            for (int i = 0; i < size; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(4, numBits);
+            buffer.putInt(12, numHashes);
+            buffer.force();
+        }
+        return new MappedBloomFilter(file, channel, buffer, numBits, numHashes);
+    }
+
+    boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Long.remainderUnsigned(hash1 + i * hash2, numBits);
+            if ((buffer.get(HEADER_BYTES + (int) (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    synchronized void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Long.remainderUnsigned(hash1 + i * hash2, numBits);
+            int index = HEADER_BYTES + (int) (bit >>> 3);
+            buffer.put(index, (byte) (buffer.get(index) | (1 << (bit & 7))));
+        }
+    }
+
+    void flush() {
+        buffer.force();
+    }
+
+    Path file() {
+        return file;
+    }
+
+    long numBits() {
+        return numBits;
+    }
+
+    int numHashes() {
+        return numHashes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    // 64-bit FNV-1a over UTF-8 bytes, finalized with the MurmurHash3 mixer for good bit dispersion
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
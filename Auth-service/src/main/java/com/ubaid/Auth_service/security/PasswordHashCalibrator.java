@@ -0,0 +1,48 @@
+package com.ubaid.Auth_service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt cost for this hardware: the highest strength whose single hash still fits the
+ * target time. Every measured strength is logged with its single-core throughput, which is the
+ * number to compare between machines and settings.
+ */
+@Slf4j
+public final class PasswordHashCalibrator {
+
+    // Never go below the cost the service used before calibration existed
+    public static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 20;
+    private static final int SAMPLES = 3;
+
+    private PasswordHashCalibrator() {}
+
+    public static int calibrateBcrypt(Duration targetHashTime) {
+        String sample = "calibration-password-0123456789";
+        int chosen = MIN_BCRYPT_STRENGTH;
+
+        for (int strength = MIN_BCRYPT_STRENGTH; strength <= MAX_BCRYPT_STRENGTH; strength++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+            encoder.encode(sample); // warm-up
+
+            long start = System.nanoTime();
+            for (int i = 0; i < SAMPLES; i++) {
+                encoder.encode(sample);
+            }
+            long nanosPerHash = (System.nanoTime() - start) / SAMPLES;
+            log.info("bcrypt strength {}: {} ms per hash, {} hashes/s per core",
+                    strength, nanosPerHash / 1_000_000, String.format("%.1f", 1_000_000_000.0 / nanosPerHash));
+
+            if (nanosPerHash > targetHashTime.toNanos()) {
+                break;
+            }
+            chosen = strength;
+        }
+
+        log.info("Calibrated bcrypt strength {} for a target of {} ms per hash", chosen, targetHashTime.toMillis());
+        return chosen;
+    }
+}
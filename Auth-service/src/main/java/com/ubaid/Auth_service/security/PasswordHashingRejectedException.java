@@ -0,0 +1,17 @@
+package com.ubaid.Auth_service.security;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+// The password hashing executor is saturated; mapped to 429 Too Many Requests
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingRejectedException(Duration retryAfter) {
+        super("Too many concurrent password operations, retry later");
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,158 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.entity.type.PermissionType;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, compiled role to permission matrix. Permissions are stored as one bitmask per role
+ * (bit = {@link PermissionType#ordinal()}), and the authority sets for every combination of roles
+ * are built once, so lookups only index into arrays and never allocate.
+ * Authority objects are interned: all snapshots share the same instances.
+ */
+public final class PermissionMatrix {
+
+    private static final RoleType[] ROLES = RoleType.values();
+    private static final PermissionType[] PERMISSIONS = PermissionType.values();
+
+    private static final SimpleGrantedAuthority[] ROLE_AUTHORITIES = new SimpleGrantedAuthority[ROLES.length];
+    private static final SimpleGrantedAuthority[] PERMISSION_AUTHORITIES = new SimpleGrantedAuthority[PERMISSIONS.length];
+
+    static {
+        if (ROLES.length > 16 || PERMISSIONS.length > 64) {
+            throw new IllegalStateException("Too many roles or permissions for a bitmask matrix");
+        }
+        for (RoleType role : ROLES) {
+            ROLE_AUTHORITIES[role.ordinal()] = new SimpleGrantedAuthority("ROLE_" + role.name());
+        }
+        for (PermissionType permission : PERMISSIONS) {
+            PERMISSION_AUTHORITIES[permission.ordinal()] = new SimpleGrantedAuthority(permission.getPermission());
+        }
+    }
+
+    private final long[] permissionMasks;
+
+    // Indexed by role mask (bit = RoleType.ordinal())
+    private final List<Set<SimpleGrantedAuthority>> roleAuthorities;
+    private final List<Set<SimpleGrantedAuthority>> permissionAuthorities;
+    private final List<Set<SimpleGrantedAuthority>> authorities;
+
+    private PermissionMatrix(long[] permissionMasks) {
+        this.permissionMasks = permissionMasks;
+        int combinations = 1 << ROLES.length;
+        List<Set<SimpleGrantedAuthority>> roleSets = new ArrayList<>(combinations);
+        List<Set<SimpleGrantedAuthority>> permissionSets = new ArrayList<>(combinations);
+        List<Set<SimpleGrantedAuthority>> combinedSets = new ArrayList<>(combinations);
+
+        for (int roleMask = 0; roleMask < combinations; roleMask++) {
+            Set<SimpleGrantedAuthority> roles = new LinkedHashSet<>();
+            for (RoleType role : ROLES) {
+                if ((roleMask & (1 << role.ordinal())) != 0) {
+                    roles.add(ROLE_AUTHORITIES[role.ordinal()]);
+                }
+            }
+            Set<SimpleGrantedAuthority> permissions = new LinkedHashSet<>();
+            long mask = permissionMask(roleMask);
+            for (PermissionType permission : PERMISSIONS) {
+                if ((mask & (1L << permission.ordinal())) != 0) {
+                    permissions.add(PERMISSION_AUTHORITIES[permission.ordinal()]);
+                }
+            }
+            Set<SimpleGrantedAuthority> combined = new LinkedHashSet<>(roles);
+            combined.addAll(permissions);
+
+            roleSets.add(Collections.unmodifiableSet(roles));
+            permissionSets.add(Collections.unmodifiableSet(permissions));
+            combinedSets.add(Collections.unmodifiableSet(combined));
+        }
+        this.roleAuthorities = List.copyOf(roleSets);
+        this.permissionAuthorities = List.copyOf(permissionSets);
+        this.authorities = List.copyOf(combinedSets);
+    }
+
+    public static PermissionMatrix of(Map<RoleType, ? extends Collection<PermissionType>> grants) {
+        long[] masks = new long[ROLES.length];
+        grants.forEach((role, permissions) -> {
+            for (PermissionType permission : permissions) {
+                masks[role.ordinal()] |= 1L << permission.ordinal();
+            }
+        });
+        return new PermissionMatrix(masks);
+    }
+
+    public static int roleMask(Collection<RoleType> roles) {
+        int mask = 0;
+        for (RoleType role : roles) {
+            mask |= 1 << role.ordinal();
+        }
+        return mask;
+    }
+
+    public long permissionMask(RoleType role) {
+        return permissionMasks[role.ordinal()];
+    }
+
+    // Union of the permissions of every role in the mask
+    public long permissionMask(int roleMask) {
+        long mask = 0L;
+        for (int i = 0; i < permissionMasks.length; i++) {
+            if ((roleMask & (1 << i)) != 0) {
+                mask |= permissionMasks[i];
+            }
+        }
+        return mask;
+    }
+
+    public Set<SimpleGrantedAuthority> roleAuthorities(int roleMask) {
+        return roleAuthorities.get(roleMask);
+    }
+
+    public Set<SimpleGrantedAuthority> permissionAuthorities(int roleMask) {
+        return permissionAuthorities.get(roleMask);
+    }
+
+    // ROLE_ authorities plus permission authorities
+    public Set<SimpleGrantedAuthority> authorities(int roleMask) {
+        return authorities.get(roleMask);
+    }
+
+    public Map<RoleType, Set<PermissionType>> asMap() {
+        Map<RoleType, Set<PermissionType>> map = new EnumMap<>(RoleType.class);
+        for (RoleType role : ROLES) {
+            Set<PermissionType> permissions = EnumSet.noneOf(PermissionType.class);
+            for (PermissionType permission : PERMISSIONS) {
+                if ((permissionMasks[role.ordinal()] & (1L << permission.ordinal())) != 0) {
+                    permissions.add(permission);
+                }
+            }
+            map.put(role, permissions);
+        }
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PermissionMatrix other && Arrays.equals(permissionMasks, other.permissionMasks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(permissionMasks);
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+}
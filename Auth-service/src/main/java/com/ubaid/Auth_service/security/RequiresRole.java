@@ -0,0 +1,22 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.entity.type.RoleType;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Grants access when the caller has at least one of the given roles.
+ * Equivalent to {@code @PreAuthorize("hasAnyRole(...)")} but checked with a bitmask AND
+ * against the {@link AuthPrincipal} instead of evaluating SpEL.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresRole {
+
+    RoleType[] value();
+}
@@ -0,0 +1,76 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.entity.type.RoleType;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Authorizes {@link RequiresRole} methods. The required role mask is resolved once per method;
+ * per call the check is one AND against the principal's role mask. Principals that are not an
+ * {@link AuthPrincipal} (e.g. during OAuth2 login) fall back to the ROLE_ authorities.
+ */
+public class RoleMaskAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Map<Method, Integer> requiredMasks = new ConcurrentHashMap<>();
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return decide(authentication, invocation);
+    }
+
+    // Still abstract in AuthorizationManager; callers on Spring Security 6.4+ go through authorize
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return decide(authentication, invocation);
+    }
+
+    private AuthorizationDecision decide(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        int required = requiredMasks.computeIfAbsent(invocation.getMethod(), method -> requiredMask(method, invocation.getThis()));
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated()) {
+            return DENIED;
+        }
+
+        if (auth.getPrincipal() instanceof AuthPrincipal principal) {
+            return principal.hasAnyRole(required) ? GRANTED : DENIED;
+        }
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name != null && name.startsWith("ROLE_")) {
+                try {
+                    if ((required & (1 << RoleType.valueOf(name.substring(5)).ordinal())) != 0) {
+                        return GRANTED;
+                    }
+                } catch (IllegalArgumentException ignored) {
+                    // not one of our roles
+                }
+            }
+        }
+        return DENIED;
+    }
+
+    private static int requiredMask(Method method, Object target) {
+        Method specific = target != null ? AopUtils.getMostSpecificMethod(method, AopUtils.getTargetClass(target)) : method;
+        RequiresRole annotation = AnnotatedElementUtils.findMergedAnnotation(specific, RequiresRole.class);
+        if (annotation == null) {
+            throw new IllegalStateException("No @RequiresRole on " + method);
+        }
+        return PermissionMatrix.roleMask(List.of(annotation.value()));
+    }
+}
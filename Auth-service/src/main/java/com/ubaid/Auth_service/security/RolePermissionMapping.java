@@ -5,24 +5,49 @@ import com.ubaid.Auth_service.entity.type.RoleType;
 
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.ubaid.Auth_service.entity.type.PermissionType.*;
 import static com.ubaid.Auth_service.entity.type.RoleType.*;
 
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+/**
+ * Static access to the current role to permission matrix. The matrix is loaded from the
+ * {@code role_permissions} table by {@link RolePermissionRegistry} and swapped atomically on change;
+ * until then (and to seed an empty table) the defaults below apply.
+ * Returned sets are shared and unmodifiable.
+ */
 public class RolePermissionMapping {
 
-    private static final Map<RoleType, Set<PermissionType>> map = Map.of(
+    static final Map<RoleType, Set<PermissionType>> DEFAULTS = Map.of(
             PATIENT, Set.of(PATIENT_READ, APPOINTMENT_READ, APPOINTMENT_WRITE),
             DOCTOR, Set.of(APPOINTMENT_DELETE, APPOINTMENT_WRITE, APPOINTMENT_READ, PATIENT_READ),
             ADMIN, Set.of(PATIENT_READ, PATIENT_WRITE, APPOINTMENT_READ, APPOINTMENT_WRITE, APPOINTMENT_DELETE, USER_MANAGE, REPORT_VIEW)
     );
 
+    private static final AtomicReference<PermissionMatrix> current = new AtomicReference<>(PermissionMatrix.of(DEFAULTS));
+
     public static Set<SimpleGrantedAuthority> getAuthoritiesForRole(RoleType role) {
-        return map.get(role).stream()
-                .map(permission -> new SimpleGrantedAuthority(permission.getPermission()))
-                .collect(Collectors.toSet());
+        return current.get().permissionAuthorities(1 << role.ordinal());
+    }
+
+    // Permission authorities of all given roles, without the ROLE_ authorities
+    public static Set<SimpleGrantedAuthority> getPermissionAuthorities(Set<RoleType> roles) {
+        return current.get().permissionAuthorities(PermissionMatrix.roleMask(roles));
+    }
+
+    // ROLE_ authorities plus permission authorities of all given roles
+    public static Set<SimpleGrantedAuthority> getAuthorities(Set<RoleType> roles) {
+        return current.get().authorities(PermissionMatrix.roleMask(roles));
+    }
+
+    public static PermissionMatrix snapshot() {
+        return current.get();
+    }
+
+    // Returns the previous snapshot
+    static PermissionMatrix install(PermissionMatrix matrix) {
+        return current.getAndSet(matrix);
     }
 }
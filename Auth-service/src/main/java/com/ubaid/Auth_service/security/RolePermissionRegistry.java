@@ -0,0 +1,101 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.entity.RolePermission;
+import com.ubaid.Auth_service.entity.type.PermissionType;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.repository.RolePermissionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps {@link RolePermissionMapping} in sync with the {@code role_permissions} table.
+ * The node that changes the matrix publishes on a Redis channel and every node reloads the table
+ * and swaps in a freshly compiled snapshot. Cached token authentications carry the old
+ * permission authorities, so they are dropped whenever the matrix actually changes. A periodic
+ * reload catches changes whose message was missed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RolePermissionRegistry implements MessageListener {
+
+    static final String ROLE_PERMISSIONS_CHANNEL = "auth:role-permissions";
+
+    private final RolePermissionRepository rolePermissionRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TokenAuthenticationCache tokenAuthenticationCache;
+
+    @PostConstruct
+    void start() {
+        if (rolePermissionRepository.count() == 0) {
+            List<RolePermission> defaults = RolePermissionMapping.DEFAULTS.entrySet().stream()
+                    .flatMap(entry -> entry.getValue().stream()
+                            .map(permission -> RolePermission.builder().role(entry.getKey()).permission(permission).build()))
+                    .toList();
+            rolePermissionRepository.saveAll(defaults);
+            log.info("Seeded role_permissions with {} default grants", defaults.size());
+        }
+        reload();
+        listenerContainer.addMessageListener(this, new ChannelTopic(ROLE_PERMISSIONS_CHANNEL));
+    }
+
+    public void reload() {
+        Map<RoleType, Set<PermissionType>> grants = new EnumMap<>(RoleType.class);
+        for (RolePermission rolePermission : rolePermissionRepository.findAll()) {
+            grants.computeIfAbsent(rolePermission.getRole(), role -> EnumSet.noneOf(PermissionType.class))
+                    .add(rolePermission.getPermission());
+        }
+
+        PermissionMatrix next = PermissionMatrix.of(grants);
+        PermissionMatrix previous = RolePermissionMapping.install(next);
+        if (!next.equals(previous)) {
+            tokenAuthenticationCache.invalidateAll();
+            log.info("Role permission matrix updated: {}", next);
+        }
+    }
+
+    // Safety net for missed pub/sub messages (reconnects, restarts); a reload that finds no change is a no-op
+    @Scheduled(initialDelayString = "${role-permissions.resync-interval-ms:60000}",
+            fixedDelayString = "${role-permissions.resync-interval-ms:60000}")
+    public void resync() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Role permission matrix resync failed: {}", e.getMessage());
+        }
+    }
+
+    // Called after the table was changed and committed
+    public void publishChange() {
+        reload();
+        try {
+            redisTemplate.convertAndSend(ROLE_PERMISSIONS_CHANNEL, "reload");
+        } catch (RuntimeException e) {
+            log.error("Failed to publish role permission change, other nodes keep their matrix: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Failed to reload role permission matrix: {}", e.getMessage(), e);
+        }
+    }
+}
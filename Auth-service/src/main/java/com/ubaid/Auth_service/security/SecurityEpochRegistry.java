@@ -0,0 +1,124 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user security epoch. Every token carries the epoch of its user at issue time in the {@code ver} claim;
+ * bumping the epoch (role change, credential change) makes all older tokens of that user invalid.
+ *
+ * The authoritative values live in a Redis hash. Each node keeps an in-memory copy that is updated
+ * through pub/sub and periodically re-synced, so the per-request check never leaves the JVM.
+ * Users that never had their epoch bumped are not stored and read as epoch 0.
+ *
+ * A bump also evicts the user's roles from this node's second-level cache: role changes bump the
+ * epoch, and the {@code user-roles} region is per node, so other nodes would otherwise keep granting
+ * the old roles' permissions until the entry expires.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SecurityEpochRegistry implements MessageListener {
+
+    static final String EPOCH_HASH_KEY = "auth:security-epoch";
+    static final String EPOCH_CHANNEL = "auth:security-epoch";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TokenAuthenticationCache tokenAuthenticationCache;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Map<Long, Long> epochs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(EPOCH_CHANNEL));
+        resync();
+    }
+
+    // Local lookup used on every authenticated request
+    public long currentEpoch(Long userId) {
+        return epochs.getOrDefault(userId, 0L);
+    }
+
+    // Epoch to stamp into a newly issued token; read from Redis so a fresh bump on another node is honoured
+    public long epochForNewToken(Long userId) {
+        try {
+            Object stored = redisTemplate.opsForHash().get(EPOCH_HASH_KEY, userId.toString());
+            if (stored != null) {
+                apply(userId, Long.parseLong(stored.toString()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not read security epoch for user {} from Redis, using local value: {}", userId, e.getMessage());
+        }
+        return currentEpoch(userId);
+    }
+
+    // Invalidates every token issued to the user so far, on all nodes
+    public void bump(Long userId) {
+        try {
+            Long epoch = redisTemplate.opsForHash().increment(EPOCH_HASH_KEY, userId.toString(), 1);
+            apply(userId, epoch);
+            redisTemplate.convertAndSend(EPOCH_CHANNEL, userId + ":" + epoch);
+            log.info("Security epoch of user {} bumped to {}", userId, epoch);
+        } catch (RuntimeException e) {
+            // At least this node rejects the old tokens; other nodes only learn about it through Redis
+            apply(userId, currentEpoch(userId) + 1);
+            log.error("Failed to publish security epoch bump for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator < 0) return;
+        try {
+            apply(Long.parseLong(body.substring(0, separator)), Long.parseLong(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed security epoch message: {}", body);
+        }
+    }
+
+    // Safety net for missed pub/sub messages (reconnects, restarts)
+    @Scheduled(fixedDelayString = "${jwt.security-epoch.resync-interval-ms:30000}")
+    public void resync() {
+        try {
+            redisTemplate.opsForHash().entries(EPOCH_HASH_KEY).forEach((userId, epoch) ->
+                    apply(Long.parseLong(userId.toString()), Long.parseLong(epoch.toString())));
+        } catch (RuntimeException e) {
+            log.warn("Security epoch resync failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(Long userId, long epoch) {
+        Long previous = epochs.get(userId);
+        if (previous != null && previous >= epoch) return;
+        epochs.merge(userId, epoch, Math::max);
+        tokenAuthenticationCache.invalidateUser(userId);
+        evictRoles(userId);
+    }
+
+    private void evictRoles(Long userId) {
+        try {
+            entityManagerFactory.getCache().unwrap(Cache.class).evictCollectionData(User.class.getName() + ".roles", userId);
+        } catch (RuntimeException e) {
+            log.warn("Could not evict cached roles of user {}: {}", userId, e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ubaid.Auth_service.security;
 
 import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.entity.type.RoleType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -24,6 +25,9 @@ public final class SecurityUserUtil {
         if (principal instanceof User user) {
             return user.getId();
         }
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal.userId();
+        }
 
         // Fallback to details if available
         if (auth.getDetails() instanceof Map details) {
@@ -31,6 +35,9 @@ public final class SecurityUserUtil {
             if (userId instanceof Long) {
                 return (Long) userId;
             }
+            if (userId instanceof String) {
+                return Long.valueOf((String) userId);
+            }
         }
 
         throw new IllegalStateException("Unable to determine user ID");
@@ -46,6 +53,9 @@ public final class SecurityUserUtil {
         if (principal instanceof User user) {
             return user.getUsername();
         }
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal.username();
+        }
 
         // Fallback to details if available
         if (auth.getDetails() instanceof Map details) {
@@ -72,10 +82,23 @@ public final class SecurityUserUtil {
     }
 
     public static boolean hasRole(String role) {
-        return currentUserRoles().contains(role);
+        return hasAnyRole(role);
     }
 
     public static boolean hasAnyRole(String... roles) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthPrincipal principal) {
+            int required = 0;
+            for (String role : roles) {
+                try {
+                    required |= 1 << RoleType.valueOf(role).ordinal();
+                } catch (IllegalArgumentException ignored) {
+                    // unknown role names never match
+                }
+            }
+            return principal.hasAnyRole(required);
+        }
+
         Set<String> userRoles = currentUserRoles();
         return Arrays.stream(roles).anyMatch(userRoles::contains);
     }
@@ -0,0 +1,110 @@
+package com.ubaid.Auth_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Caches the authentication built for a verified bearer token until the token's own expiry,
+ * so repeated requests with the same token skip signature verification and the user lookup.
+ * Entries are keyed by a SHA-256 digest of the token; the raw token is never retained.
+ */
+@Component
+@Slf4j
+public class TokenAuthenticationCache {
+
+    private final Cache<String, CachedAuthentication> cache;
+    private final Counter userInvalidations;
+
+    public TokenAuthenticationCache(@Value("${jwt.auth-cache.maximum-size:10000}") long maximumSize,
+                                    MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        this.userInvalidations = Counter.builder("jwt.authentication.invalidations")
+                .description("Cached token authentications dropped because the user changed")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.authentication");
+    }
+
+    /**
+     * Returns the cached authentication for the token, or runs the loader once for it.
+     * Concurrent misses for the same token wait for that single load instead of repeating it.
+     * A loader returning null (token without subject) is not cached.
+     */
+    public CachedAuthentication get(String token, Function<String, CachedAuthentication> loader) {
+        return cache.get(digest(token), key -> loader.apply(token));
+    }
+
+    // Drop every cached authentication of a user, e.g. after their roles changed
+    public void invalidateUser(Long userId) {
+        if (userId == null) return;
+        boolean removed = cache.asMap().values().removeIf(cached -> userId.equals(cached.userId()));
+        if (removed) {
+            userInvalidations.increment();
+            log.info("Invalidated cached token authentications for user ID: {}", userId);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record CachedAuthentication(UsernamePasswordAuthenticationToken authentication,
+                                       String tokenId,
+                                       Long userId,
+                                       long securityEpoch,
+                                       Instant expiresAt) {
+
+        long nanosUntilExpiry() {
+            if (expiresAt == null) return 0L;
+            Duration remaining = Duration.between(Instant.now(), expiresAt);
+            return remaining.isNegative() ? 0L : remaining.toNanos();
+        }
+    }
+
+    // Each entry lives exactly until the exp claim of the token it was built from
+    private static final class TokenExpiry implements Expiry<String, CachedAuthentication> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+            return value.nanosUntilExpiry();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return value.nanosUntilExpiry();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.config.JwtConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denylist of individually revoked tokens, keyed by their {@code jti} claim.
+ *
+ * Redis holds the exact set, one key per generation (a fixed window of token expiry times) that
+ * expires together with the last token it can contain. Every node mirrors those sets into a local
+ * memory-mapped Bloom filter per generation, so the per-request check is a few byte reads and only
+ * a filter positive costs a Redis round trip. Expired generations are dropped as a whole, and their
+ * files are closed one maintenance pass later so concurrent lookups never read a closed filter.
+ */
+@Component
+@Slf4j
+public class TokenDenylist implements MessageListener {
+
+    static final String REVOKED_KEY_PREFIX = "auth:revoked:";
+    static final String REVOKED_CHANNEL = "auth:revoked";
+
+    private static final String FILE_PREFIX = "revoked-";
+    private static final String FILE_SUFFIX = ".bloom";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final JwtConfig.Revocation settings;
+    private final Duration accessTokenTtl;
+    private final long generationSeconds;
+    private final Path directory;
+
+    private final Map<Long, MappedBloomFilter> generations = new ConcurrentHashMap<>();
+
+    // Expired filters already out of generations; closed one maintenance pass later, once no reader can hold them
+    private final Map<Long, MappedBloomFilter> retired = new ConcurrentHashMap<>();
+
+    private final Counter filterPositives;
+    private final Counter confirmedRevocations;
+
+    public TokenDenylist(StringRedisTemplate redisTemplate,
+                         RedisMessageListenerContainer listenerContainer,
+                         JwtConfig jwtConfig,
+                         MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.settings = jwtConfig.getRevocation();
+        this.accessTokenTtl = jwtConfig.getAccessTokenTtl();
+        this.generationSeconds = Math.max(1, settings.getGeneration().toSeconds());
+        this.directory = Path.of(settings.getDirectory());
+        this.filterPositives = Counter.builder("jwt.revocation.filter.positives")
+                .description("Denylist Bloom filter hits that needed an exact Redis check")
+                .register(meterRegistry);
+        this.confirmedRevocations = Counter.builder("jwt.revocation.rejections")
+                .description("Requests rejected because their token was revoked")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        long now = Instant.now().getEpochSecond();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long generation;
+                try {
+                    generation = Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (generationEnd(generation) <= now) {
+                    Files.deleteIfExists(file);
+                } else {
+                    filter(generation);
+                }
+            }
+        }
+        log.info("Token denylist opened {} generation filter(s) from {}", generations.size(), directory.toAbsolutePath());
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(REVOKED_CHANNEL));
+        maintain();
+    }
+
+    /**
+     * Revokes a single token until its expiry. The Redis write comes first so a failure surfaces to the caller
+     * instead of leaving the token revoked on this node only.
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) return;
+
+        long generation = generationOf(expiresAt);
+        String key = REVOKED_KEY_PREFIX + generation;
+        redisTemplate.opsForSet().add(key, tokenId);
+        redisTemplate.expireAt(key, Date.from(Instant.ofEpochSecond(generationEnd(generation))));
+
+        MappedBloomFilter filter = filter(generation);
+        filter.put(tokenId);
+        filter.flush();
+        redisTemplate.convertAndSend(REVOKED_CHANNEL, generation + ":" + tokenId);
+        log.info("Revoked token {} (generation {})", tokenId, generation);
+    }
+
+    // Called on every authenticated request; tokens without a jti predate revocation support and pass
+    public boolean isRevoked(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null) return false;
+
+        long generation = generationOf(expiresAt);
+        MappedBloomFilter filter = generations.get(generation);
+        if (filter == null || !filter.mightContain(tokenId)) return false;
+
+        filterPositives.increment();
+        boolean revoked;
+        try {
+            revoked = Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(REVOKED_KEY_PREFIX + generation, tokenId));
+        } catch (RuntimeException e) {
+            // Fail closed: the filter says this token was probably revoked and Redis cannot say otherwise
+            log.warn("Could not confirm revocation of token {} in Redis: {}", tokenId, e.getMessage());
+            revoked = true;
+        }
+        if (revoked) {
+            confirmedRevocations.increment();
+        }
+        return revoked;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator < 0) return;
+        try {
+            long generation = Long.parseLong(body.substring(0, separator));
+            if (generationEnd(generation) > Instant.now().getEpochSecond()) {
+                filter(generation).put(body.substring(separator + 1));
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed revocation message: {}", body);
+        }
+    }
+
+    // Drops generations whose tokens have all expired and re-reads the live ones from Redis (missed messages, restarts)
+    @Scheduled(fixedDelayString = "${jwt.revocation.resync-interval-ms:300000}")
+    public void maintain() {
+        long now = Instant.now().getEpochSecond();
+        retired.forEach((generation, filter) -> {
+            retired.remove(generation, filter);
+            try {
+                filter.close();
+                Files.deleteIfExists(filter.file());
+                log.info("Dropped expired revocation generation {}", generation);
+            } catch (IOException e) {
+                log.warn("Could not delete revocation filter {}: {}", filter.file(), e.getMessage());
+            }
+        });
+        // isRevoked may still be reading these; new lookups no longer find them
+        generations.forEach((generation, filter) -> {
+            if (generationEnd(generation) <= now && generations.remove(generation, filter)) {
+                retired.put(generation, filter);
+            }
+        });
+
+        long first = generationOf(Instant.ofEpochSecond(now));
+        long last = generationOf(Instant.ofEpochSecond(now).plus(accessTokenTtl));
+        try {
+            for (long generation = first; generation <= last; generation++) {
+                Set<String> revoked = redisTemplate.opsForSet().members(REVOKED_KEY_PREFIX + generation);
+                if (revoked == null || revoked.isEmpty()) continue;
+                MappedBloomFilter filter = filter(generation);
+                revoked.forEach(filter::put);
+                filter.flush();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Token denylist resync failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        for (Map<Long, MappedBloomFilter> filters : List.of(generations, retired)) {
+            filters.values().forEach(filter -> {
+                try {
+                    filter.close();
+                } catch (IOException e) {
+                    log.warn("Could not close revocation filter {}: {}", filter.file(), e.getMessage());
+                }
+            });
+            filters.clear();
+        }
+    }
+
+    private MappedBloomFilter filter(long generation) {
+        return generations.computeIfAbsent(generation, g -> {
+            try {
+                return MappedBloomFilter.openOrCreate(directory.resolve(FILE_PREFIX + g + FILE_SUFFIX),
+                        settings.getExpectedInsertions(), settings.getFalsePositiveRate());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open revocation filter for generation " + g, e);
+            }
+        });
+    }
+
+    private long generationOf(Instant expiresAt) {
+        return Math.floorDiv(expiresAt.getEpochSecond(), generationSeconds);
+    }
+
+    // Epoch second after which no token of the generation is valid any more
+    private long generationEnd(long generation) {
+        return (generation + 1) * generationSeconds;
+    }
+}
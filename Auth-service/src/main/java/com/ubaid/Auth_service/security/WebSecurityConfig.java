@@ -43,6 +43,9 @@ public class WebSecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/patients/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/patients/**").hasRole("ADMIN")
 
+                        // Second-level cache statistics
+                        .requestMatchers("/actuator/hibernatecache").hasRole("ADMIN")
+
                         // Doctor endpoints
                         .requestMatchers("/api/doctors/**").hasAnyRole("DOCTOR", "ADMIN")
 
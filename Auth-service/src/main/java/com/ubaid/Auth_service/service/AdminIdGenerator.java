@@ -4,12 +4,14 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.regex.Pattern;
 
 @Component
 public class AdminIdGenerator {
 
     private static final String PREFIX = "ADM";
     private static final DateTimeFormatter YEAR_FORMATTER = DateTimeFormatter.ofPattern("yy");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^A-Za-z0-9]");
 
     /**
      * Generate base admin ID from department and username
@@ -25,7 +27,7 @@ public class AdminIdGenerator {
 
         // Add department prefix if available
         if (department != null && !department.trim().isEmpty()) {
-            String cleanDept = department.trim().replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            String cleanDept = NON_ALPHANUMERIC.matcher(department.trim()).replaceAll("").toUpperCase();
             String deptPrefix = cleanDept.length() >= 3 ?
                     cleanDept.substring(0, 3) : cleanDept;
             baseId.append("-").append(deptPrefix);
@@ -33,7 +35,7 @@ public class AdminIdGenerator {
 
         // Add username prefix
         if (username != null && !username.trim().isEmpty()) {
-            String cleanUsername = username.trim().replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            String cleanUsername = NON_ALPHANUMERIC.matcher(username.trim()).replaceAll("").toUpperCase();
             String usernamePrefix = cleanUsername.length() >= 3 ?
                     cleanUsername.substring(0, 3) : cleanUsername;
             baseId.append("-").append(usernamePrefix);
@@ -55,7 +57,7 @@ public class AdminIdGenerator {
 
         // Add admin level prefix if available
         if (adminLevel != null && !adminLevel.trim().isEmpty()) {
-            String cleanLevel = adminLevel.trim().replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            String cleanLevel = NON_ALPHANUMERIC.matcher(adminLevel.trim()).replaceAll("").toUpperCase();
             String levelPrefix = cleanLevel.length() >= 3 ?
                     cleanLevel.substring(0, 3) : cleanLevel;
             baseId.append("-").append(levelPrefix);
@@ -63,7 +65,7 @@ public class AdminIdGenerator {
 
         // Add username prefix
         if (username != null && !username.trim().isEmpty()) {
-            String cleanUsername = username.trim().replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            String cleanUsername = NON_ALPHANUMERIC.matcher(username.trim()).replaceAll("").toUpperCase();
             String usernamePrefix = cleanUsername.length() >= 3 ?
                     cleanUsername.substring(0, 3) : cleanUsername;
             baseId.append("-").append(usernamePrefix);
@@ -85,7 +87,7 @@ public class AdminIdGenerator {
 
         // Add department prefix
         if (department != null && !department.trim().isEmpty()) {
-            String cleanDept = department.trim().replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            String cleanDept = NON_ALPHANUMERIC.matcher(department.trim()).replaceAll("").toUpperCase();
             String deptPrefix = cleanDept.length() >= 2 ?
                     cleanDept.substring(0, 2) : cleanDept;
             baseId.append("-").append(deptPrefix);
@@ -93,7 +95,7 @@ public class AdminIdGenerator {
 
         // Add level prefix
         if (adminLevel != null && !adminLevel.trim().isEmpty()) {
-            String cleanLevel = adminLevel.trim().replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            String cleanLevel = NON_ALPHANUMERIC.matcher(adminLevel.trim()).replaceAll("").toUpperCase();
             String levelPrefix = cleanLevel.length() >= 2 ?
                     cleanLevel.substring(0, 2) : cleanLevel;
             baseId.append("-").append(levelPrefix);
@@ -101,7 +103,7 @@ public class AdminIdGenerator {
 
         // Add username prefix
         if (username != null && !username.trim().isEmpty()) {
-            String cleanUsername = username.trim().replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            String cleanUsername = NON_ALPHANUMERIC.matcher(username.trim()).replaceAll("").toUpperCase();
             String usernamePrefix = cleanUsername.length() >= 2 ?
                     cleanUsername.substring(0, 2) : cleanUsername;
             baseId.append("-").append(usernamePrefix);
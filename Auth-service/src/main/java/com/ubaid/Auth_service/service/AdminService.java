@@ -2,16 +2,22 @@ package com.ubaid.Auth_service.service;
 
 import com.ubaid.Auth_service.dto.AdminRequestDTO;
 import com.ubaid.Auth_service.dto.AdminResponseDTO;
+import com.ubaid.Auth_service.dto.CursorPage;
+import com.ubaid.Auth_service.dto.PageCursor;
 import com.ubaid.Auth_service.entity.Admin;
 import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.outbox.AggregateType;
+import com.ubaid.Auth_service.outbox.OutboxPublisher;
 import com.ubaid.Auth_service.repository.AdminRepository;
 import com.ubaid.Auth_service.repository.UserRepository;
+import com.ubaid.Auth_service.security.RequiresRole;
 import com.ubaid.Auth_service.security.SecurityUserUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -29,8 +35,11 @@ public class AdminService {
     private final AdminRepository adminRepository;
     private final UserRepository userRepository;
     private final AdminIdGenerator adminIdGenerator;
+    private final BusinessIdAllocator businessIdAllocator;
+    private final TableStatistics tableStatistics;
+    private final OutboxPublisher outboxPublisher;
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public AdminResponseDTO createOrUpdateAdmin(AdminRequestDTO requestDTO) {
         Long currentUserId = SecurityUserUtil.currentUserId();
         String currentUsername = SecurityUserUtil.currentUsername();
@@ -61,6 +70,8 @@ public class AdminService {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "Duplicate constraint violation while creating admin", ex);
             }
 
+            outboxPublisher.adminSaved("AdminCreated", admin);
+
             return mapToAdminResponseDTO(admin);
 
         } else {
@@ -79,11 +90,13 @@ public class AdminService {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "Duplicate constraint violation while updating admin", ex);
             }
 
+            outboxPublisher.adminSaved("AdminUpdated", admin);
+
             return mapToAdminResponseDTO(admin);
         }
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public AdminResponseDTO updateAdmin(Long id, AdminRequestDTO requestDTO) {
         Long currentUserId = SecurityUserUtil.currentUserId();
 
@@ -110,18 +123,20 @@ public class AdminService {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Duplicate constraint violation while updating admin", ex);
         }
 
+        outboxPublisher.adminSaved("AdminUpdated", admin);
+
         return mapToAdminResponseDTO(admin);
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public AdminResponseDTO getAdmin(Long id) {
         Admin admin = adminRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Admin not found with ID: " + id));
         return mapToAdminResponseDTO(admin);
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public void deleteAdmin(Long id) {
         Long currentUserId = SecurityUserUtil.currentUserId();
 
@@ -134,18 +149,29 @@ public class AdminService {
         }
 
         adminRepository.deleteById(id);
+        outboxPublisher.deleted(AggregateType.ADMIN, id);
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public List<AdminResponseDTO> getAllAdmins() {
         return adminRepository.findAll().stream()
                 .map(this::mapToAdminResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    // Keyset page ordered by id
+    @Transactional(Transactional.TxType.SUPPORTS)
+    @RequiresRole(RoleType.ADMIN)
+    public CursorPage<AdminResponseDTO> getAdminsPage(String cursor, Integer size, boolean includeTotal) {
+        int pageSize = PageCursor.pageSize(size);
+        List<Admin> rows = adminRepository.findByIdGreaterThanOrderByIdAsc(PageCursor.decode(cursor), Limit.of(pageSize + 1));
+        Long total = includeTotal ? tableStatistics.approximateRowCount("admins") : null;
+        return CursorPage.of(rows, pageSize, Admin::getId, this::mapToAdminResponseDTO, total);
+    }
+
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public List<AdminResponseDTO> getAdminsByDepartment(String department) {
         if (department == null || department.trim().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Department cannot be null or empty");
@@ -156,7 +182,7 @@ public class AdminService {
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public List<AdminResponseDTO> getAdminsByLevel(String adminLevel) {
         if (adminLevel == null || adminLevel.trim().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Admin level cannot be null or empty");
@@ -167,7 +193,7 @@ public class AdminService {
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public List<AdminResponseDTO> searchAdmins(String name, String department, String adminLevel) {
         return adminRepository.searchAdmins(name, department, adminLevel).stream()
                 .map(this::mapToAdminResponseDTO)
@@ -175,7 +201,7 @@ public class AdminService {
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public AdminResponseDTO getAdminProfile() {
         Long currentUserId = SecurityUserUtil.currentUserId();
         Admin admin = adminRepository.findById(currentUserId)
@@ -184,18 +210,9 @@ public class AdminService {
     }
 
     // Generate unique adminId
+    // Unique by construction: the suffix comes from a reserved block, no existence probing
     private String generateUniqueAdminId(String department, String username) {
-        String base = adminIdGenerator.baseId(department, username);
-        String candidate = base;
-        int i = 1;
-        while (adminRepository.existsByAdminId(candidate)) {
-            candidate = base + "-" + (++i);
-            if (i > 50) {
-                candidate = base + "-" + System.currentTimeMillis();
-                break;
-            }
-        }
-        return candidate;
+        return businessIdAllocator.allocate(BusinessIdAllocator.Kind.ADMIN, adminIdGenerator.baseId(department, username));
     }
 
     // Partial mapping from DTO to entity
@@ -245,6 +262,7 @@ public class AdminService {
 
         if (changed) {
             userRepository.save(user);
+            outboxPublisher.userSaved("UserUpdated", user);
         }
     }
 }
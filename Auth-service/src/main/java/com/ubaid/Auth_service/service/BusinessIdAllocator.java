@@ -0,0 +1,65 @@
+package com.ubaid.Auth_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Hands out the numeric suffix of patient, doctor and admin IDs ({@code <base>-<n>}).
+ * Suffixes come from blocks reserved per node through {@link IdBlockSource}, so an ID is unique
+ * without any existence check and a database round trip happens only once per block.
+ */
+@Component
+public class BusinessIdAllocator {
+
+    public enum Kind {
+        PATIENT("patient"),
+        DOCTOR("doctor"),
+        ADMIN("admin");
+
+        private final String sequence;
+
+        Kind(String sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private final IdBlockSource blockSource;
+    private final int blockSize;
+    private final Map<Kind, Block> blocks = new EnumMap<>(Kind.class);
+
+    public BusinessIdAllocator(IdBlockSource blockSource, @Value("${business-id.block-size:50}") int blockSize) {
+        this.blockSource = blockSource;
+        this.blockSize = blockSize;
+        for (Kind kind : Kind.values()) {
+            blocks.put(kind, new Block());
+        }
+    }
+
+    public String allocate(Kind kind, String base) {
+        return base + "-" + nextSuffix(kind);
+    }
+
+    public long nextSuffix(Kind kind) {
+        return blocks.get(kind).next(kind);
+    }
+
+    private final class Block {
+
+        private long[] values = new long[0];
+        private int position;
+
+        synchronized long next(Kind kind) {
+            if (position == values.length) {
+                values = blockSource.reserve(kind.sequence, blockSize);
+                position = 0;
+                if (values.length == 0) {
+                    throw new IllegalStateException("No " + kind.sequence + " ids reserved");
+                }
+            }
+            return values[position++];
+        }
+    }
+}
@@ -4,12 +4,14 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.regex.Pattern;
 
 @Component
 public class DoctorIdGenerator {
 
     private static final String PREFIX = "DOC";
     private static final DateTimeFormatter YEAR_FORMATTER = DateTimeFormatter.ofPattern("yy");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^A-Za-z0-9]");
 
     /**
      * Generate base doctor ID from license number and username
@@ -25,7 +27,7 @@ public class DoctorIdGenerator {
 
         // Add license number prefix if available
         if (licenseNumber != null && !licenseNumber.trim().isEmpty()) {
-            String cleanLicense = licenseNumber.trim().replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            String cleanLicense = NON_ALPHANUMERIC.matcher(licenseNumber.trim()).replaceAll("").toUpperCase();
             String licensePrefix = cleanLicense.length() >= 4 ?
                     cleanLicense.substring(0, 4) : cleanLicense;
             baseId.append("-").append(licensePrefix);
@@ -33,7 +35,7 @@ public class DoctorIdGenerator {
 
         // Add username prefix
         if (username != null && !username.trim().isEmpty()) {
-            String cleanUsername = username.trim().replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            String cleanUsername = NON_ALPHANUMERIC.matcher(username.trim()).replaceAll("").toUpperCase();
             String usernamePrefix = cleanUsername.length() >= 3 ?
                     cleanUsername.substring(0, 3) : cleanUsername;
             baseId.append("-").append(usernamePrefix);
@@ -55,7 +57,7 @@ public class DoctorIdGenerator {
 
         // Add specialization prefix if available
         if (specialization != null && !specialization.trim().isEmpty()) {
-            String cleanSpec = specialization.trim().replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            String cleanSpec = NON_ALPHANUMERIC.matcher(specialization.trim()).replaceAll("").toUpperCase();
             String specPrefix = cleanSpec.length() >= 4 ?
                     cleanSpec.substring(0, 4) : cleanSpec;
             baseId.append("-").append(specPrefix);
@@ -63,7 +65,7 @@ public class DoctorIdGenerator {
 
         // Add username prefix
         if (username != null && !username.trim().isEmpty()) {
-            String cleanUsername = username.trim().replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            String cleanUsername = NON_ALPHANUMERIC.matcher(username.trim()).replaceAll("").toUpperCase();
             String usernamePrefix = cleanUsername.length() >= 3 ?
                     cleanUsername.substring(0, 3) : cleanUsername;
             baseId.append("-").append(usernamePrefix);
@@ -1,23 +1,38 @@
 package com.ubaid.Auth_service.service;
 
+import com.ubaid.Auth_service.dto.CursorPage;
 import com.ubaid.Auth_service.dto.DoctorRequestDTO;
 import com.ubaid.Auth_service.dto.DoctorResponseDto;
+import com.ubaid.Auth_service.dto.DoctorSearchResponse;
+import com.ubaid.Auth_service.dto.PageCursor;
+import com.ubaid.Auth_service.entity.Department;
 import com.ubaid.Auth_service.entity.Doctor;
 import com.ubaid.Auth_service.entity.User;
-import com.ubaid.Auth_service.entity.Department;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.outbox.AggregateType;
+import com.ubaid.Auth_service.outbox.OutboxPublisher;
 import com.ubaid.Auth_service.repository.DepartmentRepository;
 import com.ubaid.Auth_service.repository.DoctorRepository;
 import com.ubaid.Auth_service.repository.UserRepository;
+import com.ubaid.Auth_service.search.DoctorSearchEngine;
+import com.ubaid.Auth_service.search.DoctorSearchQuery;
+import com.ubaid.Auth_service.search.DoctorSearchResult;
+import com.ubaid.Auth_service.search.DoctorSearchRow;
+import com.ubaid.Auth_service.security.RequiresRole;
 import com.ubaid.Auth_service.security.SecurityUserUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -27,12 +42,19 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DoctorService {
 
+    // Deep pages cost a larger heap; nobody pages this far through a search
+    private static final int MAX_SEARCH_PAGE = 500;
+
     private final DoctorRepository doctorRepository;
     private final UserRepository userRepository;
     private final DepartmentRepository departmentRepository;
     private final DoctorIdGenerator doctorIdGenerator;
+    private final BusinessIdAllocator businessIdAllocator;
+    private final TableStatistics tableStatistics;
+    private final OutboxPublisher outboxPublisher;
+    private final DoctorSearchEngine doctorSearchEngine;
 
-    @PreAuthorize("hasRole('DOCTOR')")
+    @RequiresRole(RoleType.DOCTOR)
     public DoctorResponseDto createOrUpdateDoctor(DoctorRequestDTO requestDTO) {
         Long currentUserId = SecurityUserUtil.currentUserId();
         String currentUsername = SecurityUserUtil.currentUsername();
@@ -69,6 +91,8 @@ public class DoctorService {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "Duplicate constraint violation while creating doctor", ex);
             }
 
+            outboxPublisher.doctorSaved("DoctorCreated", doctor);
+
             return mapToDoctorResponseDto(doctor);
 
         } else {
@@ -94,11 +118,13 @@ public class DoctorService {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "Duplicate constraint violation while updating doctor", ex);
             }
 
+            outboxPublisher.doctorSaved("DoctorUpdated", doctor);
+
             return mapToDoctorResponseDto(doctor);
         }
     }
 
-    @PreAuthorize("hasRole('DOCTOR')")
+    @RequiresRole(RoleType.DOCTOR)
     public DoctorResponseDto updateDoctor(Long id, DoctorRequestDTO requestDTO) {
         Long currentUserId = SecurityUserUtil.currentUserId();
 
@@ -130,35 +156,48 @@ public class DoctorService {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Duplicate constraint violation while updating doctor", ex);
         }
 
+        outboxPublisher.doctorSaved("DoctorUpdated", doctor);
+
         return mapToDoctorResponseDto(doctor);
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public DoctorResponseDto getDoctor(Long id) {
         Doctor doctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Doctor not found with ID: " + id));
         return mapToDoctorResponseDto(doctor);
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public void deleteDoctor(Long id) {
         if (!doctorRepository.existsById(id)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Doctor not found with ID: " + id);
         }
         doctorRepository.deleteById(id);
+        outboxPublisher.deleted(AggregateType.DOCTOR, id);
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public List<DoctorResponseDto> getAllDoctors() {
         return doctorRepository.findAll().stream()
                 .map(this::mapToDoctorResponseDto)
                 .collect(Collectors.toList());
     }
 
+    // Keyset page ordered by id
+    @Transactional(Transactional.TxType.SUPPORTS)
+    @RequiresRole(RoleType.ADMIN)
+    public CursorPage<DoctorResponseDto> getDoctorsPage(String cursor, Integer size, boolean includeTotal) {
+        int pageSize = PageCursor.pageSize(size);
+        List<Doctor> rows = doctorRepository.findByIdGreaterThanOrderByIdAsc(PageCursor.decode(cursor), Limit.of(pageSize + 1));
+        Long total = includeTotal ? tableStatistics.approximateRowCount("doctors") : null;
+        return CursorPage.of(rows, pageSize, Doctor::getId, this::mapToDoctorResponseDto, total);
+    }
+
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public DoctorResponseDto getDoctorByLicenseNumber(String licenseNumber) {
         if (licenseNumber == null || licenseNumber.trim().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "License number cannot be null or empty");
@@ -169,7 +208,7 @@ public class DoctorService {
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public List<DoctorResponseDto> getDoctorsBySpecialization(String specialization) {
         if (specialization == null || specialization.trim().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Specialization cannot be null or empty");
@@ -180,15 +219,35 @@ public class DoctorService {
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
-    public List<DoctorResponseDto> searchDoctors(String name, String specialization, Boolean isAvailable) {
-        return doctorRepository.searchDoctors(name, specialization, isAvailable).stream()
-                .map(this::mapToDoctorResponseDto)
-                .collect(Collectors.toList());
+    @RequiresRole(RoleType.ADMIN)
+    public DoctorSearchResponse searchDoctors(String name, String specialization, Boolean isAvailable,
+                                              BigDecimal minFee, BigDecimal maxFee,
+                                              Integer minExperience, Integer maxExperience,
+                                              String sort, int page, Integer size) {
+        if (page < 0 || page > MAX_SEARCH_PAGE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page must be between 0 and " + MAX_SEARCH_PAGE);
+        }
+        DoctorSearchQuery.Sort order;
+        try {
+            order = DoctorSearchQuery.Sort.valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + sort);
+        }
+        int pageSize = PageCursor.pageSize(size);
+
+        // Served from the in-memory snapshot, no database round trip
+        DoctorSearchResult result = doctorSearchEngine.search(new DoctorSearchQuery(name, specialization, isAvailable,
+                minFee, maxFee, minExperience, maxExperience, order, page, pageSize));
+        Map<String, Integer> availability = new LinkedHashMap<>();
+        availability.put("available", result.available());
+        availability.put("unavailable", result.unavailable());
+        return new DoctorSearchResponse(
+                result.rows().stream().map(this::mapToDoctorResponseDto).toList(),
+                page, pageSize, result.total(), result.specializations(), availability);
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('DOCTOR')")
+    @RequiresRole(RoleType.DOCTOR)
     public DoctorResponseDto getDoctorProfile() {
         Long currentUserId = SecurityUserUtil.currentUserId();
         Doctor doctor = doctorRepository.findByUserId(currentUserId)
@@ -197,18 +256,9 @@ public class DoctorService {
     }
 
     // Generate unique doctorId
+    // Unique by construction: the suffix comes from a reserved block, no existence probing
     private String generateUniqueDoctorId(String licenseNumber, String username) {
-        String base = doctorIdGenerator.baseId(licenseNumber, username);
-        String candidate = base;
-        int i = 1;
-        while (doctorRepository.existsByDoctorId(candidate)) {
-            candidate = base + "-" + (++i);
-            if (i > 50) {
-                candidate = base + "-" + System.currentTimeMillis();
-                break;
-            }
-        }
-        return candidate;
+        return businessIdAllocator.allocate(BusinessIdAllocator.Kind.DOCTOR, doctorIdGenerator.baseId(licenseNumber, username));
     }
 
     // Partial mapping from DTO to entity
@@ -250,6 +300,13 @@ public class DoctorService {
         return responseDto;
     }
 
+    private DoctorResponseDto mapToDoctorResponseDto(DoctorSearchRow row) {
+        return new DoctorResponseDto(row.id(), row.doctorId(), row.userId(), row.username(), row.email(),
+                row.firstName(), row.lastName(), row.phoneNumber(), row.licenseNumber(), row.specialization(),
+                row.qualification(), row.experienceYears(), row.consultationFee(), row.available(), row.active(),
+                row.userRoles(), row.createdAt(), row.updatedAt());
+    }
+
     // Synchronize edits from Doctor DTO to User
     private void syncUserFromDoctorEdits(User user, DoctorRequestDTO requestDTO) {
         boolean changed = false;
@@ -268,6 +325,7 @@ public class DoctorService {
 
         if (changed) {
             userRepository.save(user);
+            outboxPublisher.userSaved("UserUpdated", user);
         }
     }
 }
@@ -0,0 +1,10 @@
+package com.ubaid.Auth_service.service;
+
+/**
+ * Source of unique numbers for human-readable business IDs. Each call reserves {@code count} values
+ * that no other caller, on any node, will ever receive.
+ */
+public interface IdBlockSource {
+
+    long[] reserve(String sequence, int count);
+}
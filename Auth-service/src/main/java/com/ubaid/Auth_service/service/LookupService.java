@@ -0,0 +1,47 @@
+package com.ubaid.Auth_service.service;
+
+import com.ubaid.Auth_service.dto.TypeaheadSuggestion;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.search.TypeaheadEntry;
+import com.ubaid.Auth_service.search.TypeaheadIndex;
+import com.ubaid.Auth_service.security.RequiresRole;
+import com.ubaid.Auth_service.security.SecurityUserUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class LookupService {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 25;
+
+    private final TypeaheadIndex typeaheadIndex;
+
+    // Admins see everyone, doctors see patients and colleagues, patients only find doctors
+    @RequiresRole({RoleType.ADMIN, RoleType.DOCTOR, RoleType.PATIENT})
+    public List<TypeaheadSuggestion> typeahead(String query, Integer limit) {
+        int kindMask = 0;
+        if (SecurityUserUtil.hasRole(RoleType.ADMIN.name())) {
+            kindMask = kind(TypeaheadEntry.Kind.PATIENT) | kind(TypeaheadEntry.Kind.DOCTOR) | kind(TypeaheadEntry.Kind.ADMIN);
+        } else {
+            if (SecurityUserUtil.hasRole(RoleType.DOCTOR.name())) {
+                kindMask |= kind(TypeaheadEntry.Kind.PATIENT) | kind(TypeaheadEntry.Kind.DOCTOR);
+            }
+            if (SecurityUserUtil.hasRole(RoleType.PATIENT.name())) {
+                kindMask |= kind(TypeaheadEntry.Kind.DOCTOR);
+            }
+        }
+        int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        return typeaheadIndex.search(query, kindMask, size).stream()
+                .map(entry -> new TypeaheadSuggestion(entry.kind().name(), entry.id(), entry.businessId(), entry.label()))
+                .toList();
+    }
+
+    private static int kind(TypeaheadEntry.Kind kind) {
+        return 1 << kind.ordinal();
+    }
+}
@@ -2,25 +2,30 @@ package com.ubaid.Auth_service.service;
 
 
 
-import com.twilio.rest.api.v2010.account.Message;
-import com.twilio.type.PhoneNumber;
-
-import com.ubaid.Auth_service.config.TwilioConfig;
+import com.ubaid.Auth_service.config.OtpConfig;
 import com.ubaid.Auth_service.dto.LoginResponseDto;
 import com.ubaid.Auth_service.entity.User;
 import com.ubaid.Auth_service.entity.type.AuthProviderType;
 import com.ubaid.Auth_service.entity.type.RoleType;
 import com.ubaid.Auth_service.error.InvalidOtpException;
+import com.ubaid.Auth_service.otp.OtpDigest;
+import com.ubaid.Auth_service.otp.OtpStore;
+import com.ubaid.Auth_service.ratelimit.RateLimitKey;
+import com.ubaid.Auth_service.ratelimit.RateLimited;
 import com.ubaid.Auth_service.repository.UserRepository;
 import com.ubaid.Auth_service.security.AuthUtil;
+import com.ubaid.Auth_service.sms.PhoneNumbers;
+import com.ubaid.Auth_service.sms.SmsDispatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
 import java.util.Date;
+import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -33,66 +38,80 @@ public class OtpService {
 
 
     private final UserRepository userRepository;
-    private final TwilioConfig twilioConfig;
-     private final StringRedisTemplate redisTemplate;
+    private final SmsDispatcher smsDispatcher;
+     private final OtpStore otpStore;
      private final AuthUtil authUtil;
+    private final OtpConfig otpConfig;
+    private final MeterRegistry meterRegistry;
+    private final OtpDigest otpDigest;
 
     private static final SecureRandom secureRandom = new SecureRandom();
-    public String generateAndSendOtp(String phoneNumber) {
-        try {
-            String otp = generateOtp();
 
-            sendOtpSms(phoneNumber, otp);
-            redisTemplate.opsForValue().set(phoneNumber,otp,5, TimeUnit.MINUTES);
-            return "OTP sent successfully to " + phoneNumber;
+    // Stores the OTP and queues the SMS; delivery happens in the background (see SmsDispatcher)
+    @RateLimited("otp-send")
+    public String generateAndSendOtp(@RateLimitKey("phone") String rawPhoneNumber) {
+        String phoneNumber = PhoneNumbers.normalize(rawPhoneNumber);
+        String otp = generateOtp();
+        String key = otpDigest.key(phoneNumber);
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to send OTP: " + e.getMessage());
+        otpStore.store(key, otpDigest.code(phoneNumber, otp), otpConfig.getTtl());
+        try {
+            smsDispatcher.enqueue(phoneNumber, otpMessage(otp), otpConfig.getTtl());
+        } catch (RuntimeException e) {
+            // Nothing will reach the phone, so do not leave a code behind that can be guessed at
+            otpStore.remove(key);
+            throw e;
         }
+        return "OTP sent successfully to " + phoneNumber;
     }
-    public LoginResponseDto verifyOtpAndGenerateToken(String phoneNumber, String otp) {
-
-        String storedOtp = redisTemplate.opsForValue().get(phoneNumber);
-        boolean isValid = storedOtp != null && storedOtp.equals(otp);
-
-        if (isValid) {
-            User user = userRepository.findByPhone(phoneNumber);
-            if (user == null) {
-                user = User.builder()
-                        .providerType(AuthProviderType.PHONE)
-                        .phone(phoneNumber)
-                        .build();
-                user = userRepository.save(user);
+    public LoginResponseDto verifyOtpAndGenerateToken(String rawPhoneNumber, String otp) {
+        String phoneNumber = PhoneNumbers.normalize(rawPhoneNumber);
+
+        long start = System.nanoTime();
+        OtpStore.Result result = otpStore.verify(otpDigest.key(phoneNumber),
+                otpDigest.code(phoneNumber, otp == null ? "" : otp), otpConfig.getMaxAttempts());
+        Timer.builder("otp.verify.duration")
+                .description("Time to check an OTP against the OTP store")
+                .tag("outcome", result.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (result != OtpStore.Result.VALID) {
+            if (result == OtpStore.Result.LOCKED) {
+                log.warn("OTP for phone ending {} locked after {} wrong attempts",
+                        phoneNumber.substring(Math.max(0, phoneNumber.length() - 4)), otpConfig.getMaxAttempts());
             }
-            String jwt = authUtil.generateAccessToken(user);
-
-            // Convert roles to Set<String> - FIXED
-            Set<String> roles = user.getRoles().stream()
-                    .map(RoleType::name)
-                    .collect(Collectors.toSet());
-
-            return new LoginResponseDto(jwt, user.getId(), user.getUsername(), roles);
-        }
-        else {
             throw new InvalidOtpException("OTP is not valid");
         }
 
+        // Only a verified phone number gets as far as the database
+        User user = userRepository.findByPhone(phoneNumber);
+        if (user == null) {
+            user = User.builder()
+                    .providerType(AuthProviderType.PHONE)
+                    .phone(phoneNumber)
+                    .build();
+            user = userRepository.save(user);
+        }
+        String jwt = authUtil.generateAccessToken(user);
+
+        // Convert roles to Set<String> - FIXED
+        Set<String> roles = user.getRoles().stream()
+                .map(RoleType::name)
+                .collect(Collectors.toSet());
+
+        return new LoginResponseDto(jwt, user.getId(), user.getUsername(), roles);
     }
 
     private String generateOtp() {
         int otp = secureRandom.nextInt(900000) + 100000;
         return String.valueOf(otp);
     }
-    private void sendOtpSms(String phoneNumber, String otp) {
-        String messageBody = String.format(
+    private String otpMessage(String otp) {
+        return String.format(
                 "Hi , your verification code is: %s. This code will expire in %d minutes. " +
                         "Please do not share this code with anyone.",
-                otp, 5
+                otp, otpConfig.getTtl().toMinutes()
         );
-        Message message = Message.creator(
-                new PhoneNumber(phoneNumber),
-                new PhoneNumber(twilioConfig.getTwilioPhoneNumber()),
-                messageBody
-        ).create();
     }
 }
\ No newline at end of file
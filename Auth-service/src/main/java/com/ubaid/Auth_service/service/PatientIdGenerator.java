@@ -4,9 +4,14 @@ import org.springframework.stereotype.Component;
 
 import java.text.Normalizer;
 import java.time.LocalDate;
+import java.util.regex.Pattern;
 
 @Component
 public class PatientIdGenerator {
+
+    private static final Pattern NON_ASCII = Pattern.compile("[^\\p{ASCII}]");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^A-Za-z0-9]");
+
     public String baseId(LocalDate dob, String username) {
         String date = dob != null ? String.format("%04d%02d%02d", dob.getYear(), dob.getMonthValue(), dob.getDayOfMonth()) : "00000000";
         String cleanUser = sanitize(username);
@@ -15,9 +20,8 @@ public class PatientIdGenerator {
 
     private String sanitize(String input) {
         if (input == null) return "USER";
-        String normalized = java.text.Normalizer.normalize(input, java.text.Normalizer.Form.NFKD)
-                .replaceAll("[^\\p{ASCII}]", "");
-        String alnum = normalized.replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+        String normalized = NON_ASCII.matcher(Normalizer.normalize(input, Normalizer.Form.NFKD)).replaceAll("");
+        String alnum = NON_ALPHANUMERIC.matcher(normalized).replaceAll("").toUpperCase();
         if (alnum.isBlank()) return "USER";
         return alnum.length() > 16 ? alnum.substring(0, 16) : alnum;
     }
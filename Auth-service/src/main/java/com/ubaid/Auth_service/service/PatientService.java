@@ -1,24 +1,35 @@
 package com.ubaid.Auth_service.service;
 
+import com.ubaid.Auth_service.dto.CursorPage;
+import com.ubaid.Auth_service.dto.PageCursor;
 import com.ubaid.Auth_service.dto.PatientRequestDTO;
 import com.ubaid.Auth_service.dto.PatientResponseDTO;
 import com.ubaid.Auth_service.entity.Patient;
 import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.outbox.AggregateType;
+import com.ubaid.Auth_service.outbox.OutboxPublisher;
 import com.ubaid.Auth_service.repository.PatientRepository;
 import com.ubaid.Auth_service.repository.UserRepository;
+import com.ubaid.Auth_service.search.PatientSearchIndex;
+import com.ubaid.Auth_service.security.RequiresRole;
 import com.ubaid.Auth_service.security.SecurityUserUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.springframework.http.HttpStatus.*;
@@ -31,9 +42,13 @@ public class PatientService {
     private final PatientRepository patientRepository;
     private final UserRepository userRepository;
     private final PatientIdGenerator patientIdGenerator;
+    private final BusinessIdAllocator businessIdAllocator;
+    private final TableStatistics tableStatistics;
+    private final OutboxPublisher outboxPublisher;
+    private final PatientSearchIndex patientSearchIndex;
 
     // Upsert: create if missing, otherwise update existing (patientId remains immutable)
-    @PreAuthorize("hasRole('PATIENT')")
+    @RequiresRole(RoleType.PATIENT)
     public PatientResponseDTO createOrUpdatePatient(PatientRequestDTO requestDTO) {
         Long currentUserId = SecurityUserUtil.currentUserId();
         String currentUsername = SecurityUserUtil.currentUsername();
@@ -68,6 +83,8 @@ public class PatientService {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "Duplicate constraint violation while creating patient", ex);
             }
 
+            outboxPublisher.patientSaved("PatientCreated", patient);
+
             return mapToPatientResponseDTO(patient);
 
         } else {
@@ -91,12 +108,14 @@ public class PatientService {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "Duplicate constraint violation while updating patient", ex);
             }
 
+            outboxPublisher.patientSaved("PatientUpdated", patient);
+
             return mapToPatientResponseDTO(patient);
         }
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public PatientResponseDTO getPatient(Long id) {
         Patient patient = patientRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found with ID: " + id));
@@ -104,7 +123,7 @@ public class PatientService {
     }
 
     // PATIENT updates own profile by DB id; patientId remains immutable
-    @PreAuthorize("hasRole('PATIENT')")
+    @RequiresRole(RoleType.PATIENT)
     public PatientResponseDTO updatePatient(Long id, PatientRequestDTO requestDTO) {
         Long currentUserId = SecurityUserUtil.currentUserId();
 
@@ -134,27 +153,44 @@ public class PatientService {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Duplicate constraint violation while updating patient", ex);
         }
 
+        outboxPublisher.patientSaved("PatientUpdated", patient);
+
         return mapToPatientResponseDTO(patient);
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public void deletePatient(Long id) {
         if (!patientRepository.existsById(id)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found with ID: " + id);
         }
         patientRepository.deleteById(id);
+        outboxPublisher.deleted(AggregateType.PATIENT, id);
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public List<PatientResponseDTO> getAllPatients() {
         return patientRepository.findAll().stream()
                 .map(this::mapToPatientResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    // Keyset page ordered by id; the optional name filter is applied within the page query
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
+    public CursorPage<PatientResponseDTO> getPatientsPage(String cursor, Integer size, String name, boolean includeTotal) {
+        int pageSize = PageCursor.pageSize(size);
+        long afterId = PageCursor.decode(cursor);
+        boolean filtered = name != null && !name.isBlank();
+        List<Patient> rows = filtered
+                ? patientRepository.findByNameContainingAfter(name.trim(), afterId, Limit.of(pageSize + 1))
+                : patientRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        Long total = includeTotal && !filtered ? tableStatistics.approximateRowCount("patients") : null;
+        return CursorPage.of(rows, pageSize, Patient::getId, this::mapToPatientResponseDTO, total);
+    }
+
+    @Transactional(Transactional.TxType.SUPPORTS)
+    @RequiresRole(RoleType.ADMIN)
     public PatientResponseDTO getPatientByName(String name) {
         if (name == null || name.trim().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Patient name cannot be null or empty");
@@ -165,29 +201,36 @@ public class PatientService {
     }
 
     @Transactional(Transactional.TxType.SUPPORTS)
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(RoleType.ADMIN)
     public List<PatientResponseDTO> searchPatientsByName(String name) {
         if (name == null || name.trim().isEmpty()) {
-            return getAllPatients();
+            // Search is always bounded; listing everyone goes through the keyset pages
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Search name cannot be null or empty; use /api/patients/page to list patients");
+        }
+        Optional<List<Long>> ranked = patientSearchIndex.search(name.trim());
+        if (ranked.isPresent()) {
+            // One IN query, then back into the index's ranking
+            Map<Long, Patient> byId = patientRepository.findByIdIn(ranked.get()).stream()
+                    .collect(Collectors.toMap(Patient::getId, Function.identity()));
+            return ranked.get().stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .map(this::mapToPatientResponseDTO)
+                    .collect(Collectors.toList());
         }
-        return patientRepository.findByNameContaining(name.trim()).stream()
+        // Index still building or query too short for trigrams: the same matches, order and cap from the database
+        String needle = name.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return patientRepository.findSearchMatches(needle, Limit.of(patientSearchIndex.maxResults())).stream()
                 .map(this::mapToPatientResponseDTO)
                 .collect(Collectors.toList());
     }
 
     // Generate unique patientId once (DOB + username if DOB provided; your generator handles null DOB)
+    // Unique by construction: the suffix comes from a reserved block, no existence probing
     private String generateUniquePatientId(LocalDate dob, String username) {
-        String base = patientIdGenerator.baseId(dob, username);
-        String candidate = base;
-        int i = 1;
-        while (patientRepository.existsByPatientId(candidate)) {
-            candidate = base + "-" + (++i);
-            if (i > 50) {
-                candidate = base + "-" + System.currentTimeMillis();
-                break;
-            }
-        }
-        return candidate;
+        return businessIdAllocator.allocate(BusinessIdAllocator.Kind.PATIENT, patientIdGenerator.baseId(dob, username));
     }
 
     // Partial mapping: apply only non-null values from DTO
@@ -269,6 +312,7 @@ public class PatientService {
 
         if (changed) {
             userRepository.save(user);
+            outboxPublisher.userSaved("UserUpdated", user);
         }
     }
 }
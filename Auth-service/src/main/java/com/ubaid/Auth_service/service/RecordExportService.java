@@ -0,0 +1,293 @@
+package com.ubaid.Auth_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubaid.Auth_service.datasource.SupportsReadInterceptor;
+import com.ubaid.Auth_service.dto.DoctorExportRow;
+import com.ubaid.Auth_service.entity.Patient;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.repository.DoctorRepository;
+import com.ubaid.Auth_service.repository.PatientRepository;
+import com.ubaid.Auth_service.security.RequiresRole;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk export of patient and doctor records. Rows are read from a forward-only cursor inside a
+ * read-only transaction and written one at a time, so memory stays flat regardless of table size:
+ * every patient entity is detached right after it has been written, doctors are read as flat projections.
+ */
+@Service
+@Slf4j
+public class RecordExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] PATIENT_COLUMNS = {
+            "id", "patientId", "userId", "firstName", "lastName", "email", "phoneNumber", "dateOfBirth", "gender",
+            "bloodGroup", "emergencyContact", "emergencyContactRelation", "streetAddress", "city", "state",
+            "postalCode", "country", "active", "createdAt", "updatedAt"
+    };
+
+    private static final String[] DOCTOR_COLUMNS = {
+            "id", "doctorId", "userId", "firstName", "lastName", "phoneNumber", "licenseNumber", "specialization",
+            "qualification", "experienceYears", "consultationFee", "available", "active", "createdAt"
+    };
+
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonFactory jsonFactory;
+
+    public RecordExportService(PatientRepository patientRepository,
+                               DoctorRepository doctorRepository,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper) {
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    // Authorization happens here, on the request thread; the returned body runs later on an async thread
+    @RequiresRole(RoleType.ADMIN)
+    public StreamingResponseBody patientsExport(Format format, boolean gzip) {
+        return body -> export("patients", format, gzip, body, PATIENT_COLUMNS, writer -> {
+            long rows = 0;
+            try (Stream<Patient> patients = patientRepository.streamAllOrderById()) {
+                Iterator<Patient> iterator = patients.iterator();
+                while (iterator.hasNext()) {
+                    Patient patient = iterator.next();
+                    writer.write(patientValues(patient));
+                    entityManager.detach(patient);
+                    rows++;
+                }
+            }
+            return rows;
+        });
+    }
+
+    @RequiresRole(RoleType.ADMIN)
+    public StreamingResponseBody doctorsExport(Format format, boolean gzip) {
+        return body -> export("doctors", format, gzip, body, DOCTOR_COLUMNS, writer -> {
+            long rows = 0;
+            try (Stream<DoctorExportRow> doctors = doctorRepository.streamExportRows()) {
+                Iterator<DoctorExportRow> iterator = doctors.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(doctorValues(iterator.next()));
+                    rows++;
+                }
+            }
+            return rows;
+        });
+    }
+
+    public static HttpHeaders exportHeaders(String name, Format format, boolean gzip) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(format.contentType + ";charset=UTF-8"));
+        headers.setContentDisposition(ContentDisposition.attachment().filename(name + "." + format.extension).build());
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return headers;
+    }
+
+    private void export(String name, Format format, boolean gzip, OutputStream body, String[] columns,
+                        RowSource source) throws IOException {
+        long start = System.nanoTime();
+        OutputStream out = gzip ? new GZIPOutputStream(body, BUFFER_SIZE) : new BufferedOutputStream(body, BUFFER_SIZE);
+
+        Long rows;
+        try (RowWriter writer = format == Format.NDJSON ? new NdjsonRowWriter(out, columns) : new CsvRowWriter(out, columns)) {
+            // Exports may read from a replica
+            rows = SupportsReadInterceptor.readScope(() -> readOnlyTransaction.execute(status -> {
+                try {
+                    return source.writeRows(writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (out instanceof GZIPOutputStream gzipOut) {
+            gzipOut.finish();
+        }
+        out.flush();
+
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Exported {} {} rows as {} in {} ms ({} rows/s)", rows, name, format, millis, rows * 1000 / millis);
+    }
+
+    private static Object[] patientValues(Patient p) {
+        return new Object[]{
+                p.getId(), p.getPatientId(), p.getUser() != null ? p.getUser().getId() : null, // id only, proxy stays uninitialized
+                p.getFirstName(), p.getLastName(), p.getEmail(), p.getPhoneNumber(), p.getDateOfBirth(), p.getGender(),
+                p.getBloodGroup(), p.getEmergencyContact(), p.getEmergencyContactRelation(), p.getStreetAddress(),
+                p.getCity(), p.getState(), p.getPostalCode(), p.getCountry(), p.isActive(), p.getCreatedAt(), p.getUpdatedAt()
+        };
+    }
+
+    private static Object[] doctorValues(DoctorExportRow d) {
+        return new Object[]{
+                d.id(), d.doctorId(), d.userId(), d.firstName(), d.lastName(), d.phoneNumber(), d.licenseNumber(),
+                d.specialization(), d.qualification(), d.experienceYears(), d.consultationFee(), d.available(),
+                d.active(), d.createdAt()
+        };
+    }
+
+    private static String text(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant().toString();
+        }
+        if (value instanceof Enum<?> e) {
+            return e.name();
+        }
+        return value.toString();
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        long writeRows(RowWriter writer) throws IOException;
+    }
+
+    private interface RowWriter extends Closeable {
+        void write(Object[] values) throws IOException;
+    }
+
+    // One JSON object per line, written field by field without building intermediate objects
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private final String[] columns;
+
+        NdjsonRowWriter(OutputStream out, String[] columns) throws IOException {
+            this.generator = jsonFactory.createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = values[i];
+                generator.writeFieldName(columns[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long id) {
+                    // Long columns are Snowflake ids, written as strings like the API responses
+                    generator.writeString(id.toString());
+                } else if (value instanceof Integer n) {
+                    generator.writeNumber(n);
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Boolean b) {
+                    generator.writeBoolean(b);
+                } else {
+                    generator.writeString(text(value));
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out, String[] columns) throws IOException {
+            this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            write(columns);
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) writer.write(',');
+                if (values[i] != null) writer.write(escape(text(values[i]), values[i] instanceof String));
+            }
+            writer.write("\r\n");
+        }
+
+        // Flushes only: the caller owns the underlying stream
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        // Free text that a spreadsheet would run as a formula (=, +, -, @, tab, CR first) is prefixed with '
+        // and quoted, so it opens as text; numbers keep their sign
+        private static String escape(String value, boolean text) {
+            boolean quote = false;
+            if (text && !value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+                value = '\'' + value;
+                quote = true;
+            }
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ubaid.Auth_service.service;
+
+import com.ubaid.Auth_service.dto.RolePermissionsDto;
+import com.ubaid.Auth_service.entity.RolePermission;
+import com.ubaid.Auth_service.entity.type.PermissionType;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.repository.RolePermissionRepository;
+import com.ubaid.Auth_service.security.RequiresRole;
+import com.ubaid.Auth_service.security.RolePermissionMapping;
+import com.ubaid.Auth_service.security.RolePermissionRegistry;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RolePermissionService {
+
+    private final RolePermissionRepository rolePermissionRepository;
+    private final RolePermissionRegistry rolePermissionRegistry;
+
+    // Served from the compiled snapshot this node is enforcing
+    @RequiresRole(RoleType.ADMIN)
+    public List<RolePermissionsDto> getMatrix() {
+        return RolePermissionMapping.snapshot().asMap().entrySet().stream()
+                .map(entry -> new RolePermissionsDto(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    @RequiresRole(RoleType.ADMIN)
+    @Transactional
+    public RolePermissionsDto replacePermissions(RoleType role, RolePermissionsDto request) {
+        // The role in the path decides; a body naming another role is a mistake, not a second target
+        if (request.getRole() != null && request.getRole() != role) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Role in body (" + request.getRole() + ") does not match role in path (" + role + ")");
+        }
+        Set<PermissionType> permissions = request.getPermissions();
+        Set<PermissionType> granted = permissions.isEmpty() ? EnumSet.noneOf(PermissionType.class) : EnumSet.copyOf(permissions);
+
+        rolePermissionRepository.deleteByRole(role);
+        rolePermissionRepository.saveAll(granted.stream()
+                .map(permission -> RolePermission.builder().role(role).permission(permission).build())
+                .toList());
+        log.info("Permissions of role {} set to {}", role, granted);
+
+        // Other nodes reload from the table, so only announce the change once it is committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rolePermissionRegistry.publishChange();
+                }
+            });
+        } else {
+            rolePermissionRegistry.publishChange();
+        }
+        return new RolePermissionsDto(role, granted);
+    }
+}
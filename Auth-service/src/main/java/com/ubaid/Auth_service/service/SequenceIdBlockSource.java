@@ -0,0 +1,39 @@
+package com.ubaid.Auth_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reserves blocks from PostgreSQL sequences: one round trip returns a whole block of values.
+ * Values start at 1000 so they never collide with the "-2".."-51" suffixes of the old probing scheme.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SequenceIdBlockSource implements IdBlockSource {
+
+    private static final long FIRST_VALUE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Set<String> createdSequences = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public long[] reserve(String sequence, int count) {
+        String sequenceName = "business_id_" + sequence + "_seq";
+        if (createdSequences.add(sequenceName)) {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequenceName + " START WITH " + FIRST_VALUE);
+        }
+
+        List<Long> values = jdbcTemplate.queryForList(
+                "SELECT nextval('" + sequenceName + "') FROM generate_series(1, ?)", Long.class, count);
+        log.debug("Reserved {} {} id(s) starting at {}", values.size(), sequence, values.isEmpty() ? null : values.get(0));
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+}
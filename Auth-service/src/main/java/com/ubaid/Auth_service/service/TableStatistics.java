@@ -0,0 +1,35 @@
+package com.ubaid.Auth_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Approximate row counts from PostgreSQL planner statistics (pg_class.reltuples). Constant time,
+ * unlike COUNT(*), and accurate to the last ANALYZE/autovacuum.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TableStatistics {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Null when the table has never been analyzed or the statistics are unavailable
+    public Long approximateRowCount(String table) {
+        try {
+            List<Long> counts = jdbcTemplate.queryForList(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, table);
+            if (counts.isEmpty() || counts.get(0) == null || counts.get(0) < 0) {
+                return null;
+            }
+            return counts.get(0);
+        } catch (RuntimeException e) {
+            log.warn("Could not read row estimate for {}: {}", table, e.getMessage());
+            return null;
+        }
+    }
+}
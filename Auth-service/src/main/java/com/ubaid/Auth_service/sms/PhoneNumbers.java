@@ -0,0 +1,37 @@
+package com.ubaid.Auth_service.sms;
+
+/**
+ * One spelling per phone number, so "+1 (555) 000-1111", "+15550001111" and "0015550001111" share an
+ * OTP, a user and a rate limit bucket. Formatting is dropped and an international "00" prefix becomes
+ * "+"; numbers without either prefix keep their digits as given, since their country is unknown.
+ */
+public final class PhoneNumbers {
+
+    private PhoneNumbers() {
+    }
+
+    public static String normalize(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        String trimmed = phoneNumber.strip();
+        StringBuilder digits = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.isEmpty()) {
+            // Not a phone number; left for the SMS provider to reject
+            return trimmed;
+        }
+        if (trimmed.startsWith("+")) {
+            return "+" + digits;
+        }
+        if (digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+            return "+" + digits.substring(2);
+        }
+        return digits.toString();
+    }
+}
@@ -0,0 +1,15 @@
+package com.ubaid.Auth_service.sms;
+
+import lombok.Getter;
+
+// The provider refused or failed a message; retryable failures are sent again with backoff
+@Getter
+public class SmsDeliveryException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public SmsDeliveryException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+}
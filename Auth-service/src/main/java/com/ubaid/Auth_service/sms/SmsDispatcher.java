@@ -0,0 +1,201 @@
+package com.ubaid.Auth_service.sms;
+
+import com.ubaid.Auth_service.config.SmsConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends SMS off the request thread: messages go into a bounded queue drained by a fixed number of
+ * sender threads, which caps the concurrent requests to the provider. Retryable failures are sent again
+ * with exponential backoff until {@code maxAttempts} or the message's validity runs out. A full queue
+ * fails the caller fast with {@link SmsQueueFullException}.
+ */
+@Component
+@Slf4j
+public class SmsDispatcher implements AutoCloseable {
+
+    private record Delivery(String to, String body, long expiresAt, int attempt, long queuedAt) {
+
+        Delivery retry() {
+            return new Delivery(to, body, expiresAt, attempt + 1, System.nanoTime());
+        }
+    }
+
+    private final SmsGateway gateway;
+    private final SmsConfig config;
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService retryScheduler;
+
+    private final Timer sendTimer;
+    private final Timer queueWaitTimer;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter expired;
+    private final Counter dropped;
+    private final Counter rejected;
+    private final Counter retries;
+
+    public SmsDispatcher(SmsGateway gateway, SmsConfig config, MeterRegistry meterRegistry) {
+        this.gateway = gateway;
+        this.config = config;
+
+        // Sends mostly wait on the provider; the thread count is the per-provider concurrency cap
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(config.getConcurrency(), config.getConcurrency(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sms-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sms-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        String provider = gateway.name();
+        this.sendTimer = Timer.builder("sms.send.duration")
+                .description("Time the SMS provider took to accept or refuse a message")
+                .tag("provider", provider)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("sms.queue.wait")
+                .description("Time a message waited for a sender thread")
+                .tag("provider", provider)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.delivered = outcome("delivered", provider, meterRegistry);
+        this.failed = outcome("failed", provider, meterRegistry);
+        this.expired = outcome("expired", provider, meterRegistry);
+        this.dropped = outcome("dropped", provider, meterRegistry);
+        this.rejected = outcome("rejected", provider, meterRegistry);
+        this.retries = Counter.builder("sms.retries")
+                .description("Sends scheduled again after a retryable failure")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("sms.queue.depth", senders, pool -> pool.getQueue().size())
+                .description("Messages waiting for a sender thread")
+                .tag("provider", provider)
+                .register(meterRegistry);
+
+        log.info("SMS via {} limited to {} concurrent send(s) with a queue of {}",
+                provider, config.getConcurrency(), config.getQueueCapacity());
+    }
+
+    /**
+     * Queues {@code body} for {@code to} and returns immediately. Attempts are given up once
+     * {@code validFor} has passed, since the message is useless by then.
+     */
+    public void enqueue(String to, String body, Duration validFor) {
+        long now = System.nanoTime();
+        try {
+            submit(new Delivery(to, body, now + validFor.toNanos(), 1, now));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new SmsQueueFullException(config.getRetryAfter());
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        senders.shutdown();
+        if (!senders.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("{} SMS still queued at shutdown", senders.getQueue().size());
+            senders.shutdownNow();
+        }
+    }
+
+    private void submit(Delivery delivery) {
+        senders.execute(() -> attempt(delivery));
+    }
+
+    private void attempt(Delivery delivery) {
+        long start = System.nanoTime();
+        queueWaitTimer.record(start - delivery.queuedAt(), TimeUnit.NANOSECONDS);
+        if (start - delivery.expiresAt() >= 0) {
+            expired.increment();
+            log.warn("SMS to {} expired before attempt {}", mask(delivery.to()), delivery.attempt());
+            return;
+        }
+
+        try {
+            gateway.send(delivery.to(), delivery.body());
+            delivered.increment();
+        } catch (SmsDeliveryException e) {
+            handleFailure(delivery, e.isRetryable(), e);
+        } catch (RuntimeException e) {
+            // Anything the gateway did not classify (connection errors, timeouts) is worth another try
+            handleFailure(delivery, true, e);
+        } finally {
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void handleFailure(Delivery delivery, boolean retryable, RuntimeException error) {
+        if (!retryable || delivery.attempt() >= config.getMaxAttempts()) {
+            failed.increment();
+            log.warn("SMS to {} failed after {} attempt(s): {}", mask(delivery.to()), delivery.attempt(), error.getMessage());
+            return;
+        }
+        long delay = backoff(delivery.attempt());
+        if (System.nanoTime() + delay - delivery.expiresAt() >= 0) {
+            expired.increment();
+            log.warn("SMS to {} expired after {} attempt(s): {}", mask(delivery.to()), delivery.attempt(), error.getMessage());
+            return;
+        }
+
+        retries.increment();
+        log.debug("SMS to {} failed on attempt {}, retrying in {} ms: {}",
+                mask(delivery.to()), delivery.attempt(), TimeUnit.NANOSECONDS.toMillis(delay), error.getMessage());
+        try {
+            retryScheduler.schedule(() -> {
+                try {
+                    submit(delivery.retry());
+                } catch (RejectedExecutionException e) {
+                    dropped.increment();
+                    log.warn("SMS to {} dropped, queue full on retry", mask(delivery.to()));
+                }
+            }, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            dropped.increment();
+        }
+    }
+
+    // Exponential, capped, with the upper half jittered so retries after a provider hiccup spread out
+    private long backoff(int attempt) {
+        long base = config.getInitialBackoff().toNanos() << Math.min(attempt - 1, 20);
+        long capped = Math.min(base, config.getMaxBackoff().toNanos());
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private static String mask(String phoneNumber) {
+        if (phoneNumber == null || phoneNumber.length() <= 4) return "****";
+        return "*".repeat(phoneNumber.length() - 4) + phoneNumber.substring(phoneNumber.length() - 4);
+    }
+
+    private static Counter outcome(String outcome, String provider, MeterRegistry meterRegistry) {
+        return Counter.builder("sms.delivery")
+                .description("SMS by final delivery outcome")
+                .tag("provider", provider)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
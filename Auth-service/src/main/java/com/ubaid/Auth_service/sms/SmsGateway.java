@@ -0,0 +1,14 @@
+package com.ubaid.Auth_service.sms;
+
+/**
+ * Sends one text message through an SMS provider. Implementations block until the provider has
+ * accepted or refused the message and report refusals as {@link SmsDeliveryException}; they are
+ * only called from {@link SmsDispatcher}'s sender threads.
+ */
+public interface SmsGateway {
+
+    // Provider tag on the sms.* metrics
+    String name();
+
+    void send(String to, String body);
+}
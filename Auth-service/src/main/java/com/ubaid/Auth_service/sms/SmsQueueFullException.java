@@ -0,0 +1,17 @@
+package com.ubaid.Auth_service.sms;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+// The SMS queue is full; mapped to 503 Service Unavailable
+@Getter
+public class SmsQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public SmsQueueFullException(Duration retryAfter) {
+        super("Too many messages waiting to be sent, retry later");
+        this.retryAfter = retryAfter;
+    }
+}
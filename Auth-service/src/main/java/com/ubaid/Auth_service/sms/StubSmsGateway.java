@@ -0,0 +1,42 @@
+package com.ubaid.Auth_service.sms;
+
+import com.ubaid.Auth_service.config.SmsConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for a real provider ({@code sms.provider=stub}): logs the message instead of sending
+ * it, optionally after a delay and with random retryable failures, to exercise the dispatch queue.
+ */
+@Component
+@ConditionalOnProperty(prefix = "sms", name = "provider", havingValue = "stub")
+@RequiredArgsConstructor
+@Slf4j
+public class StubSmsGateway implements SmsGateway {
+
+    private final SmsConfig smsConfig;
+
+    @Override
+    public String name() {
+        return "stub";
+    }
+
+    @Override
+    public void send(String to, String body) {
+        SmsConfig.Stub stub = smsConfig.getStub();
+        try {
+            Thread.sleep(stub.getLatency().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SmsDeliveryException("Interrupted", true, e);
+        }
+        if (ThreadLocalRandom.current().nextDouble() < stub.getFailureRate()) {
+            throw new SmsDeliveryException("Injected failure", true, null);
+        }
+        log.info("Stub SMS to {}: {}", to, body);
+    }
+}
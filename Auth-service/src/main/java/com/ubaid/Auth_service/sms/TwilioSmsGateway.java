@@ -0,0 +1,38 @@
+package com.ubaid.Auth_service.sms;
+
+import com.twilio.exception.ApiException;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+import com.ubaid.Auth_service.config.TwilioConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(prefix = "sms", name = "provider", havingValue = "twilio", matchIfMissing = true)
+@RequiredArgsConstructor
+public class TwilioSmsGateway implements SmsGateway {
+
+    private final TwilioConfig twilioConfig;
+
+    @Override
+    public String name() {
+        return "twilio";
+    }
+
+    @Override
+    public void send(String to, String body) {
+        try {
+            Message.creator(
+                    new PhoneNumber(to),
+                    new PhoneNumber(twilioConfig.getTwilioPhoneNumber()),
+                    body
+            ).create();
+        } catch (ApiException e) {
+            // Throttling and server errors may pass on a later attempt; other 4xx (bad number, blocked) will not
+            Integer status = e.getStatusCode();
+            boolean retryable = status == null || status == 429 || status >= 500;
+            throw new SmsDeliveryException(e.getMessage(), retryable, e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ubaid.Auth_service.config;
+
+import com.ubaid.Auth_service.entity.id.Snowflake;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Once the lease may have expired in Redis, another node can hold the same id: no more ids from this one
+class SnowflakeNodeLeaseTests {
+
+    private static final Duration LEASE_TTL = Duration.ofMillis(200);
+
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final SnowflakeNodeLease lease = new SnowflakeNodeLease(redisTemplate, -1, LEASE_TTL);
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        lease.acquire();
+    }
+
+    // Other tests share the static generator
+    @AfterEach
+    void resetNode() {
+        Snowflake.assignNode(1);
+    }
+
+    @Test
+    void idsStopWhenRenewalsFailForTheLeaseTtl() throws InterruptedException {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        lease.renew();
+        assertTrue(Snowflake.nextId() > 0);
+
+        Thread.sleep(LEASE_TTL.toMillis() + 50);
+        assertThrows(IllegalStateException.class, Snowflake::nextId);
+    }
+
+    @Test
+    void successfulRenewalExtendsTheLease() throws InterruptedException {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(LEASE_TTL.toMillis() / 2);
+            lease.renew();
+        }
+        assertTrue(Snowflake.nextId() > 0);
+    }
+
+    @Test
+    void lostLeaseStopsIdsUntilANewNodeIsLeased() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        lease.renew();
+        assertThrows(IllegalStateException.class, Snowflake::nextId);
+
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        lease.renew();
+        assertTrue(Snowflake.nextId() > 0);
+    }
+}
@@ -0,0 +1,45 @@
+package com.ubaid.Auth_service.controller;
+
+import com.ubaid.Auth_service.security.AuthService;
+import com.ubaid.Auth_service.service.OtpService;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class AuthControllerLogoutTests {
+
+    private final AuthService authService = mock(AuthService.class);
+    private final AuthController authController = new AuthController(authService, mock(OtpService.class));
+
+    @Test
+    void validTokenIsRevoked() {
+        assertEquals(HttpStatus.NO_CONTENT, authController.logout("Bearer good").getStatusCode());
+        verify(authService).logout("good");
+    }
+
+    @Test
+    void tokensThatDoNotVerifyAreUnauthorized() {
+        doThrow(new MalformedJwtException("malformed")).when(authService).logout("malformed");
+        doThrow(new SignatureException("forged")).when(authService).logout("forged");
+        doThrow(new ExpiredJwtException(null, null, "expired")).when(authService).logout("expired");
+
+        assertEquals(HttpStatus.UNAUTHORIZED, authController.logout("Bearer malformed").getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, authController.logout("Bearer forged").getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, authController.logout("Bearer expired").getStatusCode());
+    }
+
+    @Test
+    void badRequestsAreRejected() {
+        doThrow(new IllegalArgumentException("Token has no jti")).when(authService).logout("legacy");
+
+        assertEquals(HttpStatus.BAD_REQUEST, authController.logout("Basic abc").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, authController.logout("Bearer legacy").getStatusCode());
+    }
+}
@@ -0,0 +1,175 @@
+package com.ubaid.Auth_service.datasource;
+
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.security.JwtPrincipal;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// One primary and two replicas, each an in-memory H2 database that knows its own name
+class ReplicaRoutingDataSourceTests {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(1), 100, null);
+    private HikariDataSource replicaA;
+    private ReplicaRoutingDataSource router;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        HikariDataSource primary = database("primary");
+        replicaA = database("replica-a");
+        HikariDataSource replicaB = database("replica-b");
+        router = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaRoutingDataSource.Replica("replica-a", replicaA),
+                        new ReplicaRoutingDataSource.Replica("replica-b", replicaB)),
+                tracker, Duration.ofSeconds(10), "SELECT seconds FROM replication_lag", new SimpleMeterRegistry());
+        dataSource = new LazyConnectionDataSourceProxy(router);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void onlyReadsGoToReplicasInTurn() throws Throwable {
+        assertEquals("primary", node());
+        assertEquals(List.of("replica-a", "replica-b", "replica-a"),
+                SupportsReadInterceptor.inReadScope(() -> List.of(node(), node(), node())));
+
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        assertEquals("primary", transaction.execute(status -> jdbcNode()));
+        transaction.setReadOnly(true);
+        assertEquals("replica-b", SupportsReadInterceptor.readScope(() -> transaction.execute(status -> jdbcNode())));
+
+        // A write transaction inside a read method stays on the primary
+        transaction.setReadOnly(false);
+        assertEquals("primary", SupportsReadInterceptor.inReadScope(() -> transaction.execute(status -> jdbcNode())));
+    }
+
+    // Signup is anonymous, so nothing marks the new user; login's repository lookup runs in a read-only
+    // transaction outside any read scope and must still see the row just committed
+    @Test
+    void readOnlyTransactionsOutsideAReadScopeStayOnThePrimary() {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.executeWithoutResult(status -> new JdbcTemplate(dataSource).update("UPDATE node SET touched = TRUE"));
+
+        transaction.setReadOnly(true);
+        assertEquals("primary", transaction.execute(status -> jdbcNode()));
+        assertEquals("primary", transaction.execute(status -> jdbcNode()));
+    }
+
+    @Test
+    void writeForAnotherUserKeepsTheirReadsOnThePrimary() throws Throwable {
+        authenticate(9L, "admin");
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.executeWithoutResult(status -> {
+            new JdbcTemplate(dataSource).update("UPDATE node SET touched = TRUE");
+            tracker.recordAfterCommit(5L);
+        });
+
+        authenticate(5L, "dana");
+        assertEquals("primary", SupportsReadInterceptor.inReadScope(this::node));
+        authenticate(9L, "admin");
+        assertEquals("primary", SupportsReadInterceptor.inReadScope(this::node));
+        authenticate(6L, "erin");
+        assertEquals("replica-a", SupportsReadInterceptor.inReadScope(this::node));
+    }
+
+    @Test
+    void committedWriteKeepsThatUsersReadsOnThePrimary() throws Throwable {
+        authenticate(1L, "alice");
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.executeWithoutResult(status -> new JdbcTemplate(dataSource).update("UPDATE node SET touched = TRUE"));
+
+        assertEquals("primary", SupportsReadInterceptor.inReadScope(this::node));
+
+        authenticate(2L, "bob");
+        assertEquals("replica-a", SupportsReadInterceptor.inReadScope(this::node));
+
+        // Rolled back: nothing for carol to read back
+        authenticate(3L, "carol");
+        transaction.executeWithoutResult(status -> {
+            new JdbcTemplate(dataSource).update("UPDATE node SET touched = TRUE");
+            status.setRollbackOnly();
+        });
+        assertEquals("replica-b", SupportsReadInterceptor.inReadScope(this::node));
+    }
+
+    @Test
+    void unreachableOrLaggingReplicasAreSkippedUntilHealthy() throws Throwable {
+        replicaA.close();
+        assertEquals("replica-b", SupportsReadInterceptor.inReadScope(this::node));
+        assertEquals("replica-b", SupportsReadInterceptor.inReadScope(this::node));
+        assertEquals(List.of("replica-b"), router.healthyReplicas());
+
+        execute(pools.get(2), "UPDATE replication_lag SET seconds = 60");
+        router.checkReplicas();
+        assertEquals(List.of(), router.healthyReplicas());
+        assertEquals("primary", SupportsReadInterceptor.inReadScope(this::node));
+
+        execute(pools.get(2), "UPDATE replication_lag SET seconds = 0");
+        router.checkReplicas();
+        assertEquals(List.of("replica-b"), router.healthyReplicas());
+        assertEquals("replica-b", SupportsReadInterceptor.inReadScope(this::node));
+    }
+
+    private String node() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT name FROM node")) {
+            result.next();
+            return result.getString(1);
+        }
+    }
+
+    private String jdbcNode() {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private HikariDataSource database(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        pool.setMaximumPoolSize(2);
+        pools.add(pool);
+        execute(pool, "CREATE TABLE node (name VARCHAR(32), touched BOOLEAN DEFAULT FALSE)");
+        execute(pool, "INSERT INTO node (name) VALUES ('" + name + "')");
+        execute(pool, "CREATE TABLE replication_lag (seconds DOUBLE PRECISION)");
+        execute(pool, "INSERT INTO replication_lag VALUES (0)");
+        return pool;
+    }
+
+    private static void execute(DataSource dataSource, String sql) {
+        new JdbcTemplate(dataSource).execute(sql);
+    }
+
+    private static void authenticate(Long userId, String username) {
+        JwtPrincipal principal = new JwtPrincipal(userId, username, Set.of(RoleType.PATIENT),
+                1 << RoleType.PATIENT.ordinal(), 0L);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(principal, null, "ROLE_PATIENT"));
+    }
+}
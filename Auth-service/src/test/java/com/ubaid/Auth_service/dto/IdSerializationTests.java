@@ -0,0 +1,45 @@
+package com.ubaid.Auth_service.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdSerializationTests {
+
+    // Above 2^53: a JavaScript number would round it
+    private static final long SNOWFLAKE_ID = 7_234_567_890_123_456_789L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void idsAreWrittenAsStrings() throws Exception {
+        LoginResponseDto login = LoginResponseDto.builder().jwt("token").userId(SNOWFLAKE_ID).username("u").build();
+        JsonNode json = objectMapper.valueToTree(login);
+        assertTrue(json.get("userId").isTextual());
+        assertEquals(Long.toString(SNOWFLAKE_ID), json.get("userId").asText());
+
+        DoctorResponseDto doctor = new DoctorResponseDto();
+        doctor.setId(SNOWFLAKE_ID);
+        doctor.setUserId(SNOWFLAKE_ID + 1);
+        json = objectMapper.valueToTree(doctor);
+        assertEquals(Long.toString(SNOWFLAKE_ID), json.get("id").asText());
+        assertEquals(Long.toString(SNOWFLAKE_ID + 1), json.get("userId").asText());
+
+        DepartmentResponseDTO department = DepartmentResponseDTO.builder().id(SNOWFLAKE_ID).doctorIds(Set.of(SNOWFLAKE_ID)).build();
+        json = objectMapper.valueToTree(department);
+        assertTrue(json.get("id").isTextual());
+        assertTrue(json.get("doctorIds").get(0).isTextual());
+    }
+
+    @Test
+    void stringIdsReadBackWithoutLoss() throws Exception {
+        String json = objectMapper.writeValueAsString(
+                LoginResponseDto.builder().userId(SNOWFLAKE_ID).build());
+        assertEquals(SNOWFLAKE_ID, objectMapper.readValue(json, LoginResponseDto.class).getUserId());
+    }
+}
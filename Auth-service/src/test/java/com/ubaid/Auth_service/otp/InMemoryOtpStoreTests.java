@@ -0,0 +1,69 @@
+package com.ubaid.Auth_service.otp;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryOtpStoreTests {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final InMemoryOtpStore store = new InMemoryOtpStore(Duration.ofSeconds(1), now::get);
+
+    @Test
+    void matchOrLockoutRemovesTheCode() {
+        store.store("a", "111", Duration.ofMinutes(5));
+        assertEquals(OtpStore.Result.INVALID, store.verify("a", "000", 3));
+        assertEquals(OtpStore.Result.VALID, store.verify("a", "111", 3));
+        assertEquals(OtpStore.Result.MISSING, store.verify("a", "111", 3));
+
+        store.store("b", "222", Duration.ofMinutes(5));
+        assertEquals(OtpStore.Result.INVALID, store.verify("b", "000", 2));
+        assertEquals(OtpStore.Result.LOCKED, store.verify("b", "000", 2));
+        assertEquals(OtpStore.Result.MISSING, store.verify("b", "222", 2));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void storingAgainReplacesTheCodeAndItsTimer() {
+        store.store("a", "111", Duration.ofSeconds(10));
+        now.addAndGet(5_000);
+        store.store("a", "222", Duration.ofSeconds(10));
+
+        now.addAndGet(6_000);
+        assertEquals(0, store.expire(now.get()));
+        assertEquals(OtpStore.Result.INVALID, store.verify("a", "111", 5));
+
+        now.addAndGet(5_000);
+        assertEquals(1, store.expire(now.get()));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void expiresEveryCodeOnTimeAcrossWheelLevels() {
+        Random random = new Random(42);
+        long[] ttls = new long[10_000];
+        for (int i = 0; i < ttls.length; i++) {
+            // Seconds to several hours, so timers start on every level and cascade down
+            ttls[i] = 1_000 + random.nextInt(5 * 3600) * 1_000L;
+            store.store("k" + i, "c", Duration.ofMillis(ttls[i]));
+        }
+        Arrays.sort(ttls);
+
+        long start = now.get();
+        int expired = 0;
+        int due = 0;
+        for (long elapsed = 1_000; elapsed <= ttls[ttls.length - 1]; elapsed += 1_000) {
+            now.set(start + elapsed);
+            expired += store.expire(now.get());
+            while (due < ttls.length && ttls[due] <= elapsed) due++;
+            assertEquals(due, expired, "after " + elapsed + " ms");
+        }
+        assertEquals(ttls.length, expired);
+        assertEquals(0, store.size());
+    }
+}
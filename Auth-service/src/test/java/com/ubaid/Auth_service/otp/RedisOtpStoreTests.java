@@ -0,0 +1,49 @@
+package com.ubaid.Auth_service.otp;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Script replies map onto results; the key, digest and attempt limit reach the script unchanged
+class RedisOtpStoreTests {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final RedisOtpStore store = new RedisOtpStore(redisTemplate);
+
+    @Test
+    void scriptRepliesMapOntoResults() {
+        assertEquals(OtpStore.Result.VALID, verifyReturning(1L));
+        assertEquals(OtpStore.Result.INVALID, verifyReturning(0L));
+        assertEquals(OtpStore.Result.MISSING, verifyReturning(-1L));
+        assertEquals(OtpStore.Result.LOCKED, verifyReturning(-2L));
+        assertThrows(IllegalStateException.class, () -> verifyReturning(null));
+    }
+
+    @Test
+    void storePassesDigestAndTtlInMillis() {
+        store.store("otp:key", "digest", Duration.ofMinutes(5));
+
+        verify(redisTemplate).execute(scriptContaining("PEXPIRE"), eq(List.of("otp:key")), eq("digest"), eq("300000"));
+    }
+
+    private OtpStore.Result verifyReturning(Long reply) {
+        when(redisTemplate.execute(scriptContaining("HINCRBY"), eq(List.of("otp:key")), eq("digest"), eq("5")))
+                .thenReturn(reply);
+        return store.verify("otp:key", "digest", 5);
+    }
+
+    private static RedisScript<Long> scriptContaining(String command) {
+        return argThat(script -> script != null && script.getScriptAsString().contains(command));
+    }
+}
@@ -0,0 +1,170 @@
+package com.ubaid.Auth_service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubaid.Auth_service.config.OutboxConfig;
+import com.ubaid.Auth_service.datasource.ReadYourWritesTracker;
+import com.ubaid.Auth_service.entity.OutboxEvent;
+import com.ubaid.Auth_service.entity.Patient;
+import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.entity.id.Snowflake;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Events leave the outbox in the order they were written, and only once the sink took them
+@DataJpaTest
+class OutboxRelayTests {
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private DataSource dataSource;
+    // Shared, transaction-bound proxy: usable from the second writer's thread
+    @Autowired private EntityManager sharedEntityManager;
+
+    private final InMemoryOutboxSink sink = new InMemoryOutboxSink();
+    private OutboxPublisher publisher;
+    private OutboxRelay relay;
+
+    @BeforeAll
+    static void assignSnowflakeNode() {
+        Snowflake.assignNode(1);
+    }
+
+    @BeforeEach
+    void setUp() {
+        OutboxConfig config = new OutboxConfig();
+        config.setSink("memory");
+        config.setAdvisoryLock(false);
+        config.setBatchSize(2);
+        publisher = new OutboxPublisher(outboxEventRepository, new ObjectMapper(), sharedEntityManager,
+                ReadYourWritesTracker.disabled());
+        relay = new OutboxRelay(outboxEventRepository, sink, new JdbcTemplate(dataSource),
+                transactionManager, config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void relaysEventsInOutboxOrderAndDeletesThem() {
+        User user = entityManager.persist(User.builder().username("pat").email("pat@example.com")
+                .roles(new HashSet<>(Set.of(RoleType.PATIENT))).build());
+        Patient patient = entityManager.persist(Patient.builder().user(user)
+                .patientId("PAT1").firstName("Pat").lastName("Smith").build());
+
+        publisher.userSaved("UserCreated", user);
+        publisher.patientSaved("PatientCreated", patient);
+        patient.setLastName("Jones");
+        publisher.patientSaved("PatientUpdated", patient);
+        publisher.deleted(AggregateType.PATIENT, patient.getId());
+        entityManager.flush();
+
+        // Full batches are followed by another run until the outbox is drained
+        relay.relay();
+
+        List<OutboxEvent> events = sink.events();
+        assertEquals(List.of("UserCreated", "PatientCreated", "PatientUpdated", "PatientDeleted"),
+                events.stream().map(OutboxEvent::getEventType).toList());
+        assertEquals(String.valueOf(patient.getId()), events.get(3).getAggregateId());
+        assertTrue(events.get(2).getPayload().contains("\"lastName\":\"Jones\""));
+        assertNull(events.get(3).getPayload());
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    // The first writer holds the patient's row lock from its event on, so the second writer's event
+    // gets the later id, and the last event relayed is the state that was committed last
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentWritersOfOneAggregateRelayInCommitOrder() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long patientId = transaction.execute(status -> {
+            User user = User.builder().username("race").email("race@example.com")
+                    .roles(new HashSet<>(Set.of(RoleType.PATIENT))).build();
+            sharedEntityManager.persist(user);
+            Patient patient = Patient.builder().user(user).patientId("PAT2").firstName("Pat").lastName("Smith").build();
+            sharedEntityManager.persist(patient);
+            return patient.getId();
+        });
+        outboxEventRepository.deleteAll();
+
+        CountDownLatch firstPublished = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            rename(patientId, "First", LockModeType.NONE);
+            firstPublished.countDown();
+            await(releaseFirst);
+        }));
+        try {
+            assertTrue(firstPublished.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(
+                    status -> rename(patientId, "Second", LockModeType.PESSIMISTIC_WRITE)));
+
+            // Blocked on the row the first writer flushed before its event
+            Thread.sleep(300);
+            assertFalse(second.isDone());
+
+            releaseFirst.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+
+            relay.relay();
+            List<OutboxEvent> events = sink.events();
+            assertEquals(2, events.size());
+            assertTrue(events.get(0).getPayload().contains("\"lastName\":\"First\""));
+            assertTrue(events.get(1).getPayload().contains("\"lastName\":\"Second\""));
+            assertEquals("Second", transaction.execute(status -> sharedEntityManager.find(Patient.class, patientId).getLastName()));
+        } finally {
+            releaseFirst.countDown();
+            transaction.executeWithoutResult(status -> {
+                Patient patient = sharedEntityManager.find(Patient.class, patientId);
+                sharedEntityManager.remove(patient);
+                sharedEntityManager.remove(patient.getUser());
+            });
+            outboxEventRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void emptyOutboxSendsNothing() {
+        assertEquals(0, relay.relayBatch());
+        assertTrue(sink.events().isEmpty());
+    }
+
+    private void rename(Long patientId, String lastName, LockModeType lock) {
+        Patient patient = sharedEntityManager.find(Patient.class, patientId, lock);
+        patient.setLastName(lastName);
+        publisher.patientSaved("PatientUpdated", patient);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ubaid.Auth_service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalTokenBucketTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRefillsAtTheConfiguredRate() {
+        // 3 tokens, refilled over 3 seconds: one per second
+        LocalTokenBucket bucket = new LocalTokenBucket(3, 3.0 / (3 * SECOND), 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        long wait = bucket.tryAcquire(0);
+        assertTrue(wait > 0 && wait <= SECOND, "wait " + wait);
+
+        assertEquals(0, bucket.tryAcquire(SECOND));
+        assertTrue(bucket.tryAcquire(SECOND) > 0);
+    }
+
+    @Test
+    void neverHoldsMoreThanCapacity() {
+        LocalTokenBucket bucket = new LocalTokenBucket(2, 2.0 / SECOND, 0);
+
+        assertEquals(0, bucket.tryAcquire(100 * SECOND));
+        bucket.refund();
+        bucket.refund();
+        assertEquals(0, bucket.tryAcquire(100 * SECOND));
+        assertEquals(0, bucket.tryAcquire(100 * SECOND));
+        assertTrue(bucket.tryAcquire(100 * SECOND) > 0);
+    }
+}
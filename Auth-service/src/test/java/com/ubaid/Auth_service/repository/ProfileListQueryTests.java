@@ -0,0 +1,112 @@
+package com.ubaid.Auth_service.repository;
+
+import com.ubaid.Auth_service.entity.Admin;
+import com.ubaid.Auth_service.entity.Doctor;
+import com.ubaid.Auth_service.entity.Patient;
+import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.entity.id.Snowflake;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Every list path must stay at a fixed number of statements however many rows it returns
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProfileListQueryTests {
+
+    private static final int ROWS = 5;
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private PatientRepository patientRepository;
+    @Autowired private DoctorRepository doctorRepository;
+    @Autowired private AdminRepository adminRepository;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    static void assignSnowflakeNode() {
+        Snowflake.assignNode(1);
+    }
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ROWS; i++) {
+            entityManager.persist(Patient.builder().user(user("patient" + i, RoleType.PATIENT))
+                    .patientId("PAT" + i).firstName("Pat").lastName("Smith" + i).build());
+            entityManager.persist(Doctor.builder().user(user("doctor" + i, RoleType.DOCTOR))
+                    .doctorId("DOC" + i).licenseNumber("LIC" + i).firstName("Doc").lastName("Jones" + i)
+                    .specialization("Cardiology").isAvailable(true).build());
+            entityManager.persist(Admin.builder().user(user("admin" + i, RoleType.ADMIN))
+                    .adminId("ADM" + i).firstName("Ada").lastName("Brown" + i).department("Records").adminLevel("L1").build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void patientListsFetchUserAndRolesUpFront() {
+        assertStatements(1, () -> patientRepository.findAll(), Patient::getUser);
+        assertStatements(1, () -> patientRepository.findByNameContaining("pat"), Patient::getUser);
+        // Paged queries join the user and batch-load the roles of the whole page
+        assertStatements(2, () -> patientRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ROWS)), Patient::getUser);
+        assertStatements(2, () -> patientRepository.findByNameContainingAfter("pat", 0L, Limit.of(ROWS)), Patient::getUser);
+    }
+
+    @Test
+    void doctorListsFetchUserAndRolesUpFront() {
+        assertStatements(1, () -> doctorRepository.findAll(), Doctor::getUser);
+        assertStatements(1, () -> doctorRepository.searchDoctors("Doc", null, true), Doctor::getUser);
+        assertStatements(1, () -> doctorRepository.findBySpecializationContainingIgnoreCase("cardio"), Doctor::getUser);
+        assertStatements(2, () -> doctorRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ROWS)), Doctor::getUser);
+    }
+
+    @Test
+    void adminListsFetchUserAndRolesUpFront() {
+        assertStatements(1, () -> adminRepository.findAll(), Admin::getUser);
+        assertStatements(1, () -> adminRepository.searchAdmins("Ada", null, null), Admin::getUser);
+        assertStatements(1, () -> adminRepository.findByDepartmentContainingIgnoreCase("rec"), Admin::getUser);
+        assertStatements(1, () -> adminRepository.findByAdminLevel("L1"), Admin::getUser);
+        assertStatements(2, () -> adminRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ROWS)), Admin::getUser);
+    }
+
+    // Runs the query on an empty persistence context and touches what the response mappers read
+    private <T> void assertStatements(long expected, Supplier<List<T>> query, Function<T, User> userOf) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<T> rows = query.get();
+        for (T row : rows) {
+            User user = userOf.apply(row);
+            user.getUsername();
+            user.getRoles().size();
+        }
+
+        assertEquals(ROWS, rows.size());
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+
+    private User user(String username, RoleType role) {
+        User user = User.builder().username(username).email(username + "@example.com")
+                .roles(new HashSet<>(Set.of(role))).build();
+        return entityManager.persist(user);
+    }
+}
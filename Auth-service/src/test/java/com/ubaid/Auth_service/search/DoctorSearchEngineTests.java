@@ -0,0 +1,83 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.entity.Doctor;
+import com.ubaid.Auth_service.repository.DoctorRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DoctorSearchEngineTests {
+
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+    private final DoctorSearchEngine engine = new DoctorSearchEngine(doctorRepository, new SimpleMeterRegistry());
+
+    private static Doctor doctor(long id, String lastName) {
+        return Doctor.builder().id(id).doctorId("DOC" + id).lastName(lastName)
+                .consultationFee(new BigDecimal("100.00")).isAvailable(true).isActive(true).build();
+    }
+
+    private static DoctorSearchRow row(long id, String lastName) {
+        return new DoctorSearchRow(id, "DOC" + id, id, "doc" + id, null, Set.of(), "Dr", lastName, null, null,
+                null, null, 5, new BigDecimal("100.00"), true, true, null, null);
+    }
+
+    private List<Long> searchIds() {
+        DoctorSearchQuery query = new DoctorSearchQuery(null, null, null, null, null, null, null,
+                DoctorSearchQuery.Sort.NAME, 0, 50);
+        return engine.search(query).rows().stream().map(DoctorSearchRow::id).toList();
+    }
+
+    @Test
+    void changesCommittedDuringTheFirstLoadAreKept() {
+        when(doctorRepository.findAll()).thenAnswer(invocation -> {
+            // Committed while the table is being read, after the read passed these rows
+            engine.onDoctorChanged(new DoctorChangedEvent(2L, row(2, "Brown")));
+            engine.onDoctorChanged(new DoctorChangedEvent(1L, null));
+            return List.of(doctor(1, "Adams"));
+        });
+
+        assertEquals(List.of(2L), searchIds());
+    }
+
+    @Test
+    void changesBeforeTheFirstLoadAreKept() {
+        engine.onDoctorChanged(new DoctorChangedEvent(2L, row(2, "Brown")));
+        when(doctorRepository.findAll()).thenReturn(List.of(doctor(1, "Adams")));
+
+        assertEquals(List.of(1L, 2L), searchIds());
+    }
+
+    @Test
+    void searchesReadThePublishedSnapshotUntilTheMergerRuns() {
+        when(doctorRepository.findAll()).thenReturn(List.of(doctor(1, "Adams")));
+        engine.warmUp();
+
+        engine.onDoctorChanged(new DoctorChangedEvent(2L, row(2, "Brown")));
+        assertEquals(List.of(1L), searchIds());
+
+        engine.mergePending();
+        assertEquals(List.of(1L, 2L), searchIds());
+    }
+
+    @Test
+    void resyncKeepsChangesItDidNotRead() {
+        when(doctorRepository.findAll()).thenReturn(List.of(doctor(1, "Adams")));
+        engine.warmUp();
+        when(doctorRepository.findAll()).thenAnswer(invocation -> {
+            engine.onDoctorChanged(new DoctorChangedEvent(3L, row(3, "Clark")));
+            return List.of(doctor(1, "Adams"), doctor(2, "Brown"));
+        });
+
+        engine.resync();
+        engine.mergePending();
+
+        assertEquals(List.of(1L, 2L, 3L), searchIds());
+    }
+}
@@ -0,0 +1,86 @@
+package com.ubaid.Auth_service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DoctorSnapshotTests {
+
+    private static DoctorSearchRow doctor(long id, String lastName, String specialization, int experience,
+                                          String fee, boolean available) {
+        return new DoctorSearchRow(id, "DOC" + id, id, "doc" + id, null, Set.of(), "Dr", lastName, null, null,
+                specialization, null, experience, new BigDecimal(fee), available, true, null, null);
+    }
+
+    private static DoctorSearchQuery query(String specialization, Boolean available, String minFee,
+                                           DoctorSearchQuery.Sort sort, int page, int size) {
+        return new DoctorSearchQuery(null, specialization, available, minFee == null ? null : new BigDecimal(minFee),
+                null, null, null, sort, page, size);
+    }
+
+    private final DoctorSnapshot snapshot = DoctorSnapshot.of(List.of(
+            doctor(1, "Adams", "Cardiology", 10, "150.00", true),
+            doctor(2, "Brown", "Cardiology", 3, "80.00", false),
+            doctor(3, "Clark", "Neurology", 15, "200.00", true),
+            doctor(4, "Davis", "Neurology", 7, "120.50", true),
+            doctor(5, "Evans", "Dermatology", 1, "60.00", true)));
+
+    @Test
+    void facetsIgnoreTheirOwnFilter() {
+        DoctorSearchResult result = snapshot.search(query("cardio", true, null, DoctorSearchQuery.Sort.NAME, 0, 10));
+
+        assertEquals(List.of(1L), result.rows().stream().map(DoctorSearchRow::id).toList());
+        assertEquals(1, result.total());
+        // Specialization counts keep the availability filter but not the specialization one
+        assertEquals(Map.of("Neurology", 2, "Cardiology", 1, "Dermatology", 1), result.specializations());
+        // Availability counts keep the specialization filter but not the availability one
+        assertEquals(1, result.available());
+        assertEquals(1, result.unavailable());
+    }
+
+    @Test
+    void sortsAndPagesAfterRangeFilters() {
+        DoctorSearchResult firstPage = snapshot.search(query(null, null, "100", DoctorSearchQuery.Sort.FEE_DESC, 0, 2));
+        DoctorSearchResult secondPage = snapshot.search(query(null, null, "100", DoctorSearchQuery.Sort.FEE_DESC, 1, 2));
+
+        assertEquals(3, firstPage.total());
+        assertEquals(List.of(3L, 1L), firstPage.rows().stream().map(DoctorSearchRow::id).toList());
+        assertEquals(List.of(4L), secondPage.rows().stream().map(DoctorSearchRow::id).toList());
+    }
+
+    @Test
+    void patchesProduceNewSnapshots() {
+        Map<Long, DoctorSearchRow> changes = new HashMap<>();
+        changes.put(6L, doctor(6, "Fisher", "Cardiology", 20, "90.00", true));
+        changes.put(1L, null);
+        DoctorSnapshot updated = snapshot.apply(changes);
+
+        DoctorSearchResult result = updated.search(query(null, null, null, DoctorSearchQuery.Sort.EXPERIENCE_DESC, 0, 2));
+        assertEquals(List.of(6L, 3L), result.rows().stream().map(DoctorSearchRow::id).toList());
+        assertEquals(5, snapshot.size());
+        assertEquals(5, updated.size());
+    }
+
+    @Test
+    void batchInsertsReplacesAndRemovesInOnePass() {
+        Map<Long, DoctorSearchRow> changes = new HashMap<>();
+        changes.put(0L, doctor(0, "Young", "Oncology", 2, "70.00", true));
+        changes.put(3L, doctor(3, "Clark", "Oncology", 16, "210.00", false));
+        changes.put(5L, null);
+        changes.put(9L, null); // unknown id: nothing to remove
+        changes.put(7L, doctor(7, "Green", "Neurology", 4, "95.00", true));
+        DoctorSnapshot updated = snapshot.apply(changes);
+
+        DoctorSearchResult result = updated.search(query(null, null, null, DoctorSearchQuery.Sort.NAME, 0, 10));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 7L, 0L), result.rows().stream().map(DoctorSearchRow::id).toList());
+        assertEquals(Map.of("Oncology", 2, "Cardiology", 2, "Neurology", 2), result.specializations());
+        assertEquals(6, updated.size());
+        assertEquals(snapshot, snapshot.apply(Map.of()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ubaid.Auth_service.search;
+
+import com.ubaid.Auth_service.entity.Patient;
+import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.entity.id.Snowflake;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The database fallback answers a search with the same patients, in the same order, as the index
+@DataJpaTest
+class PatientSearchFallbackTests {
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private PatientRepository patientRepository;
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    @BeforeAll
+    static void assignSnowflakeNode() {
+        Snowflake.assignNode(1);
+    }
+
+    @BeforeEach
+    void setUp() {
+        patient("Joann", "Brown", "555-0102", "PAT-1");   // inside a word
+        patient("Mary", "Annable", "555-0103", "PAT-2");  // start of a word
+        patient("Hannah", "Annis", "555-0104", "PAT-3");  // inside a word first, start of a word later
+        patient("Ann", "Smith", "555-0101", "PAT-4");     // start of the name
+        patient("Bob", "Stone", "555-0105", "ANN-5");     // start of the patient id
+        patient(null, "Annan", null, "PAT-6");             // missing first name and phone
+        patient("Zed", "Zulu", "555-0106", "PAT-7");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void sameMatchesAndOrderAsTheIndex() {
+        assertSameAsIndex("ann", 50);
+        assertSameAsIndex("ANN", 50);
+        assertSameAsIndex("ann", 3);
+        assertSameAsIndex("555-010", 4);
+        assertSameAsIndex("mary ann", 50);
+        assertSameAsIndex("zzz", 50);
+    }
+
+    @Test
+    void likeWildcardsAreMatchedLiterally() {
+        assertEquals(List.of(), ids(patientRepository.findSearchMatches("\\%an", Limit.of(50))));
+        assertEquals(List.of(), ids(patientRepository.findSearchMatches("a\\_n", Limit.of(50))));
+    }
+
+    private void assertSameAsIndex(String query, int limit) {
+        List<Long> expected = Arrays.stream(index.search(query, limit)).boxed().toList();
+        List<Long> actual = ids(patientRepository.findSearchMatches(TrigramIndex.normalize(query), Limit.of(limit)));
+        assertEquals(expected, actual, query);
+    }
+
+    private static List<Long> ids(List<Patient> patients) {
+        return patients.stream().map(Patient::getId).toList();
+    }
+
+    private void patient(String firstName, String lastName, String phone, String patientId) {
+        User user = entityManager.persist(User.builder().username(patientId).email(patientId + "@example.com")
+                .roles(new HashSet<>(Set.of(RoleType.PATIENT))).build());
+        Patient patient = entityManager.persist(Patient.builder().user(user).patientId(patientId)
+                .firstName(firstName).lastName(lastName).phoneNumber(phone).build());
+        index.put(patient.getId(), PatientChangedEvent.saved(patient).searchText());
+    }
+}
@@ -0,0 +1,50 @@
+package com.ubaid.Auth_service.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TrigramIndexTests {
+
+    private static String text(String name, String phone, String patientId) {
+        return TrigramIndex.normalize(name) + TrigramIndex.FIELD_SEPARATOR + phone + TrigramIndex.FIELD_SEPARATOR
+                + TrigramIndex.normalize(patientId);
+    }
+
+    @Test
+    void matchesLikeContainsAndRanksPrefixesFirst() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, text("Maria Johnson", "5550100", "PAT-1"));
+        index.put(2, text("John Smith", "5550101", "PAT-2"));
+        index.put(3, text("Anna Johns", "5550102", "PAT-3"));
+        index.put(4, text("Bob Stone", "5550103", "PAT-4"));
+
+        // field prefix, then word prefixes by id
+        assertArrayEquals(new long[]{2, 1, 3}, index.search("JOHN", 10));
+        assertArrayEquals(new long[]{4}, index.search("0103", 10));
+        assertArrayEquals(new long[]{1, 2}, index.search("pat-", 2));
+        assertNull(index.search("jo", 10));
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceOldTrigrams() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(7, text("Old Name", "111", "PAT-7"));
+        index.put(7, text("New Name", "111", "PAT-7"));
+
+        assertArrayEquals(new long[0], index.search("old", 10));
+        assertArrayEquals(new long[]{7}, index.search("new", 10));
+
+        index.remove(7);
+        assertArrayEquals(new long[0], index.search("new", 10));
+    }
+
+    @Test
+    void noMatchAcrossFields() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, text("Ann", "999", "X"));
+
+        assertArrayEquals(new long[0], index.search("ann999", 10));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ubaid.Auth_service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TypeaheadTrieTests {
+
+    private static final int ALL = 0b111;
+
+    private static TypeaheadEntry entry(TypeaheadEntry.Kind kind, long id, long score) {
+        return new TypeaheadEntry(kind, id, null, "", score);
+    }
+
+    private static List<Long> ids(List<TypeaheadEntry> entries) {
+        return entries.stream().map(TypeaheadEntry::id).toList();
+    }
+
+    @Test
+    void returnsBestScoredPrefixMatchesOnce() {
+        TypeaheadTrie trie = new TypeaheadTrie();
+        TypeaheadEntry anna = entry(TypeaheadEntry.Kind.PATIENT, 1, 10);
+        TypeaheadEntry annabel = entry(TypeaheadEntry.Kind.PATIENT, 2, 30);
+        TypeaheadEntry andrew = entry(TypeaheadEntry.Kind.DOCTOR, 3, 20);
+        trie.insert("anna", anna);
+        trie.insert("annabel", annabel);
+        trie.insert("andrew", andrew);
+        // Second token of the same entry under the same prefix
+        trie.insert("annie", anna);
+
+        assertEquals(List.of(2L, 3L, 1L), ids(trie.search("an", ALL, 10)));
+        assertEquals(List.of(2L, 1L), ids(trie.search("ann", ALL, 10)));
+        assertEquals(List.of(2L), ids(trie.search("an", ALL, 1)));
+        assertEquals(List.of(), ids(trie.search("anx", ALL, 10)));
+    }
+
+    @Test
+    void filtersByKind() {
+        TypeaheadTrie trie = new TypeaheadTrie();
+        trie.insert("smith", entry(TypeaheadEntry.Kind.PATIENT, 1, 50));
+        trie.insert("smythe", entry(TypeaheadEntry.Kind.DOCTOR, 2, 10));
+        trie.insert("smart", entry(TypeaheadEntry.Kind.ADMIN, 3, 40));
+
+        int doctorsOnly = 1 << TypeaheadEntry.Kind.DOCTOR.ordinal();
+        assertEquals(List.of(2L), ids(trie.search("sm", doctorsOnly, 10)));
+    }
+
+    @Test
+    void removalPrunesAndRecompressesPaths() {
+        TypeaheadTrie trie = new TypeaheadTrie();
+        TypeaheadEntry jon = entry(TypeaheadEntry.Kind.PATIENT, 1, 1);
+        TypeaheadEntry jones = entry(TypeaheadEntry.Kind.PATIENT, 2, 2);
+        trie.insert("jones", jones);
+        trie.insert("jon", jon);
+        assertEquals(3, trie.nodeCount()); // root, "jon", "es"
+
+        trie.remove("jon", jon);
+        assertEquals(2, trie.nodeCount()); // root, "jones"
+        assertEquals(List.of(2L), ids(trie.search("jo", ALL, 10)));
+
+        trie.remove("jones", jones);
+        assertEquals(1, trie.nodeCount());
+        assertEquals(List.of(), ids(trie.search("j", ALL, 10)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.dto.SignUpRequestDto;
+import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.outbox.OutboxPublisher;
+import com.ubaid.Auth_service.repository.AdminRepository;
+import com.ubaid.Auth_service.repository.DoctorRepository;
+import com.ubaid.Auth_service.repository.PatientRepository;
+import com.ubaid.Auth_service.repository.UserRepository;
+import com.ubaid.Auth_service.service.AdminIdGenerator;
+import com.ubaid.Auth_service.service.BusinessIdAllocator;
+import com.ubaid.Auth_service.service.DoctorIdGenerator;
+import com.ubaid.Auth_service.service.PatientIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// The password hash takes most of a signup; it must not run while a transaction holds a connection
+class AuthServiceSignupTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AuthService authService = new AuthService(mock(AuthenticationManager.class), mock(AuthUtil.class),
+            userRepository, passwordEncoder, patientRepository, mock(DoctorRepository.class), mock(AdminRepository.class),
+            mock(SecurityEpochRegistry.class), mock(TokenDenylist.class), mock(PatientIdGenerator.class),
+            mock(DoctorIdGenerator.class), mock(AdminIdGenerator.class), mock(BusinessIdAllocator.class),
+            mock(OutboxPublisher.class), transactionManager);
+
+    AuthServiceSignupTests() {
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(patientRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void passwordIsHashedBeforeTheTransactionStarts() {
+        when(passwordEncoder.encode("secret-pass")).thenReturn("{bcrypt}hash");
+
+        assertEquals("new-user", authService.signup(request("secret-pass")).getUsername());
+
+        InOrder order = inOrder(passwordEncoder, transactionManager, userRepository);
+        order.verify(passwordEncoder).encode("secret-pass");
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(userRepository).save(any(User.class));
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        assertEquals("{bcrypt}hash", saved.getValue().getPassword());
+    }
+
+    @Test
+    void rejectedHashNeverOpensATransaction() {
+        when(passwordEncoder.encode("secret-pass")).thenThrow(new PasswordHashingRejectedException(Duration.ofSeconds(1)));
+
+        assertThrows(PasswordHashingRejectedException.class, () -> authService.signup(request("secret-pass")));
+        verifyNoInteractions(transactionManager, userRepository);
+    }
+
+    @Test
+    void missingPasswordIsRejectedUpFront() {
+        assertThrows(IllegalArgumentException.class, () -> authService.signup(request(" ")));
+        verifyNoInteractions(passwordEncoder, transactionManager, userRepository);
+    }
+
+    private static SignUpRequestDto request(String password) {
+        return SignUpRequestDto.builder().username("new-user").password(password)
+                .firstName("New").lastName("User").email("new-user@example.com").build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.config.JwtConfig;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Follows the rotation steps documented on JwtConfig: add the key everywhere, switch signing, retire the old key
+class JwtCodecTests {
+
+    private static final String OLD_SECRET = "old-secret-old-secret-old-secret-0123";
+    private static final String NEW_SECRET = "new-secret-new-secret-new-secret-4567";
+    private static final Map<String, Object> CLAIMS = Map.of("username", "user", "roles", List.of("PATIENT"), "ver", 3);
+
+    @Test
+    void signedTokensCarryTheActiveKidAndVerify() {
+        JwtCodec codec = new JwtCodec(hmac(OLD_SECRET, Map.of(), JwtConfig.DEFAULT_KEY_ID));
+
+        JwtClaims claims = codec.verify(codec.sign("42", CLAIMS));
+
+        assertEquals(42L, claims.userId());
+        assertEquals("user", claims.username());
+        assertEquals(List.of("PATIENT"), claims.roles());
+        assertEquals(3, claims.securityEpoch());
+        assertEquals(JwtConfig.DEFAULT_KEY_ID, claims.keyId());
+    }
+
+    @Test
+    void oldKeyStillVerifiesAfterTheSwitch() {
+        JwtCodec before = new JwtCodec(hmac(OLD_SECRET, Map.of(), JwtConfig.DEFAULT_KEY_ID));
+        String oldToken = before.sign("42", CLAIMS);
+
+        // Step 1: every node learns k2 but keeps signing with the old key
+        JwtCodec added = new JwtCodec(hmac(OLD_SECRET, Map.of("k2", NEW_SECRET), JwtConfig.DEFAULT_KEY_ID));
+        // Step 2: signing moves to k2
+        JwtCodec switched = new JwtCodec(hmac(OLD_SECRET, Map.of("k2", NEW_SECRET), "k2"));
+        String newToken = switched.sign("42", CLAIMS);
+
+        assertEquals("k2", switched.verify(newToken).keyId());
+        assertEquals(JwtConfig.DEFAULT_KEY_ID, switched.verify(oldToken).keyId());
+        // A node still in step 1 accepts tokens from switched nodes; one that skipped it does not
+        assertEquals("k2", added.verify(newToken).keyId());
+        assertThrows(JwtException.class, () -> before.verify(newToken));
+    }
+
+    @Test
+    void retiredKidIsRejected() {
+        String oldToken = new JwtCodec(hmac(OLD_SECRET, Map.of(), JwtConfig.DEFAULT_KEY_ID)).sign("42", CLAIMS);
+        // Step 3: the old secret is gone
+        JwtCodec retired = new JwtCodec(hmac(null, Map.of("k2", NEW_SECRET), "k2"));
+
+        JwtException e = assertThrows(JwtException.class, () -> retired.verify(oldToken));
+        assertTrue(e.getMessage().contains(JwtConfig.DEFAULT_KEY_ID), e.getMessage());
+        assertEquals(42L, retired.verify(retired.sign("42", CLAIMS)).userId());
+    }
+
+    @Test
+    void tokensWithoutKidUseTheLegacySecret() {
+        String legacy = Jwts.builder().subject("42").claims(CLAIMS)
+                .expiration(Date.from(Instant.now().plusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(OLD_SECRET.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+                .compact();
+
+        assertEquals(42L, new JwtCodec(hmac(OLD_SECRET, Map.of("k2", NEW_SECRET), "k2")).verify(legacy).userId());
+        assertThrows(JwtException.class, () -> new JwtCodec(hmac(null, Map.of("k2", NEW_SECRET), "k2")).verify(legacy));
+    }
+
+    @Test
+    void kidReusedForAnotherSecretFailsTheSignature() {
+        String token = new JwtCodec(hmac(null, Map.of("k2", NEW_SECRET), "k2")).sign("42", CLAIMS);
+        JwtCodec other = new JwtCodec(hmac(null, Map.of("k2", OLD_SECRET), "k2"));
+
+        assertThrows(SignatureException.class, () -> other.verify(token));
+    }
+
+    @Test
+    void ecRotationKeepsThePublicHalfOfTheOldKey() throws Exception {
+        KeyPair ec1 = ecKeyPair();
+        KeyPair ec2 = ecKeyPair();
+        String oldToken = new JwtCodec(ec(Map.of("ec-1", key(ec1, true)), "ec-1")).sign("42", CLAIMS);
+
+        JwtCodec switched = new JwtCodec(ec(Map.of("ec-1", key(ec1, false), "ec-2", key(ec2, true)), "ec-2"));
+        String newToken = switched.sign("42", CLAIMS);
+
+        assertEquals("ec-1", switched.verify(oldToken).keyId());
+        assertEquals("ec-2", switched.verify(newToken).keyId());
+        List<?> published = (List<?>) switched.jwks().get("keys");
+        assertEquals(2, published.size());
+        published.forEach(jwk -> assertFalse(((Map<?, ?>) jwk).containsKey("d")));
+
+        JwtCodec retired = new JwtCodec(ec(Map.of("ec-2", key(ec2, true)), "ec-2"));
+        assertThrows(JwtException.class, () -> retired.verify(oldToken));
+        assertEquals(1, ((List<?>) retired.jwks().get("keys")).size());
+    }
+
+    @Test
+    void activeKeyMustBeConfigured() {
+        assertThrows(IllegalStateException.class, () -> new JwtCodec(hmac(OLD_SECRET, Map.of(), "k2")));
+    }
+
+    private static JwtConfig hmac(String secretKey, Map<String, String> keys, String activeKeyId) {
+        JwtConfig config = new JwtConfig();
+        config.setSecretKey(secretKey);
+        config.getKeys().putAll(keys);
+        config.setActiveKeyId(activeKeyId);
+        return config;
+    }
+
+    private static JwtConfig ec(Map<String, JwtConfig.EcKey> ecKeys, String activeKeyId) {
+        JwtConfig config = new JwtConfig();
+        config.setAlgorithm("ES256");
+        config.getEcKeys().putAll(ecKeys);
+        config.setActiveKeyId(activeKeyId);
+        return config;
+    }
+
+    private static KeyPair ecKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    // Verification-only keys have no private half
+    private static JwtConfig.EcKey key(KeyPair keyPair, boolean withPrivateKey) {
+        JwtConfig.EcKey key = new JwtConfig.EcKey();
+        key.setPublicKey(pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        if (withPrivateKey) {
+            key.setPrivateKey(pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        }
+        return key;
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder().encodeToString(der) + "\n-----END " + type + "-----\n";
+    }
+}
@@ -0,0 +1,115 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.entity.id.Snowflake;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// A login must cost one statement: the user and their roles in a single fetch join
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class LoginQueryTests {
+
+    private static final String PASSWORD = "s3cret-pass";
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private UserRepository userRepository;
+
+    // Low cost factor; the hash time is not what is measured here
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private CustomUserDetailsService userDetailsService;
+    private DaoAuthenticationProvider authenticationProvider;
+    private Statistics statistics;
+
+    @BeforeAll
+    static void assignSnowflakeNode() {
+        Snowflake.assignNode(1);
+    }
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(User.builder().username("login-user").email("login-user@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .roles(new HashSet<>(Set.of(RoleType.PATIENT, RoleType.DOCTOR))).build());
+        entityManager.flush();
+
+        userDetailsService = new CustomUserDetailsService(userRepository);
+        // Wired like the provider Spring Boot builds from the UserDetailsService and PasswordEncoder beans
+        authenticationProvider = new DaoAuthenticationProvider(userDetailsService);
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+        authenticationProvider.setUserDetailsPasswordService(userDetailsService);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void loadUserByUsernameFetchesUserAndRolesInOneStatement() {
+        beginCounting();
+
+        User user = (User) userDetailsService.loadUserByUsername("login-user");
+        user.getAuthorities();
+
+        assertEquals(Set.of(RoleType.PATIENT, RoleType.DOCTOR), user.getRoles());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void unknownUsernameCostsOneStatement() {
+        beginCounting();
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nobody"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // What AuthService.login does before signing the token, which reads no more from the database
+    @Test
+    void loginAuthenticationCostsOneStatement() {
+        beginCounting();
+
+        Authentication authentication = authenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken("login-user", PASSWORD));
+        User user = (User) authentication.getPrincipal();
+        user.getRoles().size();
+
+        assertEquals("login-user", user.getUsername());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void wrongPasswordCostsOneStatement() {
+        beginCounting();
+
+        assertThrows(BadCredentialsException.class, () -> authenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken("login-user", "wrong-pass")));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // Starts from an empty persistence context so the lookup has to go to the database
+    private void beginCounting() {
+        entityManager.clear();
+        statistics.clear();
+    }
+}
@@ -0,0 +1,89 @@
+package com.ubaid.Auth_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedBloomFilterTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void sizedForInsertionsAndFalsePositiveRate() throws IOException {
+        // m = -n ln p / (ln 2)^2, k = m / n ln 2
+        try (MappedBloomFilter filter = MappedBloomFilter.openOrCreate(directory.resolve("a.bloom"), 1000, 0.01)) {
+            assertEquals(9586, filter.numBits());
+            assertEquals(7, filter.numHashes());
+        }
+        assertEquals(16 + (9586 + 7) / 8, Files.size(directory.resolve("a.bloom")));
+    }
+
+    @Test
+    void noFalseNegativesAndFalsePositivesWithinBound() throws IOException {
+        int insertions = 10_000;
+        try (MappedBloomFilter filter = MappedBloomFilter.openOrCreate(directory.resolve("b.bloom"), insertions, 0.01)) {
+            for (int i = 0; i < insertions; i++) {
+                filter.put("revoked-" + i);
+            }
+            for (int i = 0; i < insertions; i++) {
+                assertTrue(filter.mightContain("revoked-" + i));
+            }
+
+            int probes = 100_000;
+            int falsePositives = 0;
+            for (int i = 0; i < probes; i++) {
+                if (filter.mightContain("live-" + i)) falsePositives++;
+            }
+            // Configured 1%; allow for sampling noise but not for a broken hash
+            assertTrue(falsePositives < probes * 0.015, "false positives: " + falsePositives);
+        }
+    }
+
+    @Test
+    void contentSurvivesReopening() throws IOException {
+        Path file = directory.resolve("c.bloom");
+        try (MappedBloomFilter filter = MappedBloomFilter.openOrCreate(file, 1000, 0.01)) {
+            filter.put("jti-1");
+        }
+
+        try (MappedBloomFilter reopened = MappedBloomFilter.openOrCreate(file, 1000, 0.01)) {
+            assertTrue(reopened.mightContain("jti-1"));
+        }
+    }
+
+    @Test
+    void fileWithOtherSizingIsReplaced() throws IOException {
+        Path file = directory.resolve("d.bloom");
+        try (MappedBloomFilter filter = MappedBloomFilter.openOrCreate(file, 1000, 0.01)) {
+            filter.put("jti-1");
+        }
+
+        try (MappedBloomFilter resized = MappedBloomFilter.openOrCreate(file, 5000, 0.001)) {
+            assertFalse(resized.mightContain("jti-1"));
+            assertEquals(16 + (resized.numBits() + 7) / 8, Files.size(file));
+        }
+    }
+
+    @Test
+    void fileWithBadHeaderIsCleared() throws IOException {
+        Path file = directory.resolve("e.bloom");
+        try (MappedBloomFilter filter = MappedBloomFilter.openOrCreate(file, 1000, 0.01)) {
+            filter.put("jti-1");
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[0] ^= 0x7F;
+        Files.write(file, bytes);
+
+        try (MappedBloomFilter reopened = MappedBloomFilter.openOrCreate(file, 1000, 0.01)) {
+            assertFalse(reopened.mightContain("jti-1"));
+        }
+    }
+}
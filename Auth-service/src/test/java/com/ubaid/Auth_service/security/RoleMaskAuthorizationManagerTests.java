@@ -0,0 +1,101 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.entity.type.RoleType;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoleMaskAuthorizationManagerTests {
+
+    private final RoleMaskAuthorizationManager manager = new RoleMaskAuthorizationManager();
+    private final Endpoints endpoints = new Endpoints();
+
+    @Test
+    void grantsWhenTheRoleMaskMatches() {
+        assertTrue(granted(principal(RoleType.ADMIN), "adminOnly"));
+        assertTrue(granted(principal(RoleType.PATIENT), "patientOnly"));
+    }
+
+    @Test
+    void deniesWhenNoRoleMatches() {
+        assertFalse(granted(principal(RoleType.PATIENT), "adminOnly"));
+        assertFalse(granted(principal(RoleType.DOCTOR), "patientOnly"));
+    }
+
+    @Test
+    void anyOfSeveralRequiredRolesIsEnough() {
+        assertTrue(granted(principal(RoleType.DOCTOR), "doctorOrAdmin"));
+        assertTrue(granted(principal(RoleType.ADMIN), "doctorOrAdmin"));
+        assertFalse(granted(principal(RoleType.PATIENT), "doctorOrAdmin"));
+        // A caller with several roles passes if any one of them is required
+        assertTrue(granted(principal(RoleType.PATIENT, RoleType.ADMIN), "adminOnly"));
+        assertFalse(granted(principal(RoleType.PATIENT, RoleType.DOCTOR), "adminOnly"));
+    }
+
+    @Test
+    void deniesUnauthenticatedCallers() {
+        assertFalse(granted(null, "patientOnly"));
+        assertFalse(granted(new AnonymousAuthenticationToken("key", "anonymous",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")), "patientOnly"));
+    }
+
+    // Principals that are not an AuthPrincipal (OAuth2 login) are checked by their ROLE_ authorities
+    @Test
+    void fallsBackToRoleAuthorities() {
+        Authentication doctor = UsernamePasswordAuthenticationToken.authenticated("oauth-user", null,
+                AuthorityUtils.createAuthorityList("ROLE_DOCTOR", "ROLE_UNKNOWN", "patient:read"));
+        assertTrue(granted(doctor, "doctorOrAdmin"));
+        assertFalse(granted(doctor, "patientOnly"));
+    }
+
+    @Test
+    void methodsWithoutTheAnnotationAreRejected() {
+        assertThrows(IllegalStateException.class, () -> granted(principal(RoleType.ADMIN), "unannotated"));
+    }
+
+    private boolean granted(Authentication authentication, String methodName) {
+        MethodInvocation invocation;
+        try {
+            invocation = new SimpleMethodInvocation(endpoints, Endpoints.class.getMethod(methodName));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return manager.authorize(() -> authentication, invocation).isGranted();
+    }
+
+    private static Authentication principal(RoleType... roles) {
+        Set<RoleType> roleSet = Set.of(roles);
+        int roleMask = PermissionMatrix.roleMask(List.of(roles));
+        JwtPrincipal principal = new JwtPrincipal(1L, "user", roleSet, roleMask, 0L);
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, List.of());
+    }
+
+    static class Endpoints {
+
+        @RequiresRole(RoleType.ADMIN)
+        public void adminOnly() {
+        }
+
+        @RequiresRole(RoleType.PATIENT)
+        public void patientOnly() {
+        }
+
+        @RequiresRole({RoleType.DOCTOR, RoleType.ADMIN})
+        public void doctorOrAdmin() {
+        }
+
+        public void unannotated() {
+        }
+    }
+}
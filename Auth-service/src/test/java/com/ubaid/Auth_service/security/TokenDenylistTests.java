@@ -0,0 +1,189 @@
+package com.ubaid.Auth_service.security;
+
+import com.ubaid.Auth_service.config.JwtConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Redis holds the exact set; only tokens the local filter matches are checked against it
+class TokenDenylistTests {
+
+    @TempDir
+    Path directory;
+
+    @SuppressWarnings("unchecked")
+    private final SetOperations<String, String> setOperations = mock(SetOperations.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final Instant expiresAt = Instant.now().plus(Duration.ofMinutes(30));
+
+    private Duration generationLength = Duration.ofHours(1);
+    private TokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        denylist = start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        denylist.close();
+    }
+
+    @Test
+    void revokeWritesRedisBeforeTellingOtherNodes() {
+        denylist.revoke("jti-1", expiresAt);
+
+        String key = TokenDenylist.REVOKED_KEY_PREFIX + generation();
+        verify(setOperations).add(key, "jti-1");
+        verify(redisTemplate).expireAt(eq(key), any(Date.class));
+        verify(redisTemplate).convertAndSend(TokenDenylist.REVOKED_CHANNEL, generation() + ":jti-1");
+    }
+
+    @Test
+    void revokedTokenIsConfirmedInRedis() {
+        denylist.revoke("jti-1", expiresAt);
+        when(setOperations.isMember(TokenDenylist.REVOKED_KEY_PREFIX + generation(), "jti-1")).thenReturn(true);
+
+        assertTrue(denylist.isRevoked("jti-1", expiresAt));
+    }
+
+    @Test
+    void tokensTheFilterDoesNotMatchSkipRedis() {
+        denylist.revoke("jti-1", expiresAt);
+
+        assertFalse(denylist.isRevoked("jti-2", expiresAt));
+        // No filter at all for a generation without revocations
+        assertFalse(denylist.isRevoked("jti-1", expiresAt.plus(Duration.ofHours(3))));
+        assertFalse(denylist.isRevoked(null, expiresAt));
+        verify(setOperations, never()).isMember(anyString(), anyString());
+    }
+
+    @Test
+    void filterPositiveThatRedisDoesNotConfirmPasses() {
+        denylist.revoke("jti-1", expiresAt);
+        when(setOperations.isMember(anyString(), anyString())).thenReturn(false);
+
+        assertFalse(denylist.isRevoked("jti-1", expiresAt));
+    }
+
+    @Test
+    void filterPositiveFailsClosedWithoutRedis() {
+        denylist.revoke("jti-1", expiresAt);
+        when(setOperations.isMember(anyString(), anyString())).thenThrow(new IllegalStateException("connection refused"));
+
+        assertTrue(denylist.isRevoked("jti-1", expiresAt));
+    }
+
+    @Test
+    void revocationsFromOtherNodesReachTheFilter() {
+        denylist.onMessage(new DefaultMessage(TokenDenylist.REVOKED_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                (generation() + ":jti-remote").getBytes(StandardCharsets.UTF_8)), null);
+        when(setOperations.isMember(anyString(), anyString())).thenReturn(true);
+
+        assertTrue(denylist.isRevoked("jti-remote", expiresAt));
+    }
+
+    // The filter file is reopened on restart, before Redis has been read again
+    @Test
+    void filtersSurviveARestart() throws IOException {
+        denylist.revoke("jti-1", expiresAt);
+        denylist.close();
+
+        denylist = start();
+        when(setOperations.isMember(anyString(), anyString())).thenReturn(true);
+
+        assertTrue(denylist.isRevoked("jti-1", expiresAt));
+    }
+
+    // Lookups keep running while the generation expires and is dropped; its file goes one pass later
+    @Test
+    void expiredGenerationIsClosedAfterConcurrentLookups() throws Exception {
+        denylist.close();
+        generationLength = Duration.ofSeconds(1);
+        denylist = start();
+        Instant soon = Instant.now().plusSeconds(1);
+        denylist.revoke("jti-1", soon);
+        when(setOperations.isMember(anyString(), anyString())).thenReturn(true);
+        long generation = soon.getEpochSecond(); // one-second generations
+        Path file = directory.resolve("revoked-" + generation + ".bloom");
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (!stop.get()) {
+                        denylist.isRevoked("jti-1", soon);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        Thread.sleep(Math.max(0, (generation + 1) * 1000 - System.currentTimeMillis()) + 50);
+        denylist.maintain();
+        assertTrue(Files.exists(file));
+        assertFalse(denylist.isRevoked("jti-1", soon));
+
+        Thread.sleep(50);
+        denylist.maintain();
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertFalse(Files.exists(file));
+    }
+
+    private TokenDenylist start() throws IOException {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setAccessTokenTtl(Duration.ofHours(1));
+        jwtConfig.getRevocation().setGeneration(generationLength);
+        jwtConfig.getRevocation().setDirectory(directory.toString());
+        jwtConfig.getRevocation().setExpectedInsertions(1000);
+        jwtConfig.getRevocation().setFalsePositiveRate(0.001);
+        TokenDenylist started = new TokenDenylist(redisTemplate, mock(RedisMessageListenerContainer.class),
+                jwtConfig, new SimpleMeterRegistry());
+        started.start();
+        return started;
+    }
+
+    private long generation() {
+        return Math.floorDiv(expiresAt.getEpochSecond(), Duration.ofHours(1).toSeconds());
+    }
+}
@@ -0,0 +1,77 @@
+package com.ubaid.Auth_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BusinessIdAllocatorTests {
+
+    // Stands in for the database sequence shared by all nodes
+    private static final class InMemoryBlockSource implements IdBlockSource {
+        private final AtomicLong sequence = new AtomicLong(1000);
+        private final AtomicInteger reservations = new AtomicInteger();
+
+        @Override
+        public long[] reserve(String name, int count) {
+            reservations.incrementAndGet();
+            long[] values = new long[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = sequence.getAndIncrement();
+            }
+            return values;
+        }
+    }
+
+    @Test
+    void parallelSignupsOnTwoNodesNeverShareAnId() throws Exception {
+        InMemoryBlockSource blockSource = new InMemoryBlockSource();
+        BusinessIdAllocator nodeA = new BusinessIdAllocator(blockSource, 50);
+        BusinessIdAllocator nodeB = new BusinessIdAllocator(blockSource, 50);
+        PatientIdGenerator generator = new PatientIdGenerator();
+
+        int signups = 5000;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < signups; i++) {
+                BusinessIdAllocator node = i % 2 == 0 ? nodeA : nodeB;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    // Same username and no date of birth: every base is identical, only the suffix differs
+                    ids.add(node.allocate(BusinessIdAllocator.Kind.PATIENT, generator.baseId(null, "john.doe")));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(signups, ids.size());
+        assertEquals(signups / 50, blockSource.reservations.get());
+    }
+
+    @Test
+    void kindsUseSeparateSequences() {
+        BusinessIdAllocator allocator = new BusinessIdAllocator((name, count) -> new long[]{name.length()}, 1);
+
+        assertEquals("PAT-X-7", allocator.allocate(BusinessIdAllocator.Kind.PATIENT, "PAT-X"));
+        assertEquals("DOC-X-6", allocator.allocate(BusinessIdAllocator.Kind.DOCTOR, "DOC-X"));
+    }
+}
@@ -0,0 +1,125 @@
+package com.ubaid.Auth_service.service;
+
+import com.ubaid.Auth_service.config.OtpConfig;
+import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.error.InvalidOtpException;
+import com.ubaid.Auth_service.otp.InMemoryOtpStore;
+import com.ubaid.Auth_service.otp.OtpDigest;
+import com.ubaid.Auth_service.repository.UserRepository;
+import com.ubaid.Auth_service.security.AuthUtil;
+import com.ubaid.Auth_service.sms.SmsDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Codes are single use and wrong guesses are counted against the code, whatever the store
+class OtpServiceTests {
+
+    private static final String PHONE = "+15550001111";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SmsDispatcher smsDispatcher = mock(SmsDispatcher.class);
+    private final AuthUtil authUtil = mock(AuthUtil.class);
+    private final InMemoryOtpStore otpStore = new InMemoryOtpStore(Duration.ofSeconds(1), System::currentTimeMillis);
+    private final OtpService otpService;
+
+    OtpServiceTests() {
+        OtpConfig config = new OtpConfig();
+        config.setMaxAttempts(3);
+        otpService = new OtpService(userRepository, smsDispatcher, otpStore, authUtil, config,
+                new SimpleMeterRegistry(), new OtpDigest("test-secret"));
+        when(userRepository.findByPhone(PHONE)).thenReturn(User.builder().id(7L).phone(PHONE)
+                .roles(new HashSet<>(Set.of(RoleType.PATIENT))).build());
+        when(authUtil.generateAccessToken(any())).thenReturn("jwt");
+    }
+
+    @AfterEach
+    void tearDown() {
+        otpStore.close();
+    }
+
+    @Test
+    void codeIsAcceptedOnce() {
+        String otp = send();
+
+        assertEquals("jwt", otpService.verifyOtpAndGenerateToken(PHONE, otp).getJwt());
+        assertThrows(InvalidOtpException.class, () -> otpService.verifyOtpAndGenerateToken(PHONE, otp));
+    }
+
+    @Test
+    void lastAllowedWrongGuessDeletesTheCode() {
+        String otp = send();
+        String wrong = otp.equals("100000") ? "100001" : "100000";
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            assertThrows(InvalidOtpException.class, () -> otpService.verifyOtpAndGenerateToken(PHONE, wrong));
+        }
+        assertEquals(0, otpStore.size());
+        assertThrows(InvalidOtpException.class, () -> otpService.verifyOtpAndGenerateToken(PHONE, otp));
+        verify(userRepository, never()).findByPhone(anyString());
+    }
+
+    @Test
+    void newCodeReplacesTheOldOneAndItsAttempts() {
+        String first = send();
+        assertThrows(InvalidOtpException.class, () -> otpService.verifyOtpAndGenerateToken(PHONE, "000000"));
+        assertThrows(InvalidOtpException.class, () -> otpService.verifyOtpAndGenerateToken(PHONE, "000000"));
+        String second = send();
+
+        if (!first.equals(second)) {
+            assertThrows(InvalidOtpException.class, () -> otpService.verifyOtpAndGenerateToken(PHONE, first));
+        }
+        assertEquals("jwt", otpService.verifyOtpAndGenerateToken(PHONE, second).getJwt());
+    }
+
+    @Test
+    void formattingOfThePhoneNumberDoesNotMatter() {
+        String otp = send();
+
+        assertEquals("jwt", otpService.verifyOtpAndGenerateToken("+1 (555) 000-1111", otp).getJwt());
+        verify(userRepository).findByPhone(PHONE);
+    }
+
+    @Test
+    void digestsDependOnTheSecretAndHideThePhone() {
+        OtpDigest digest = new OtpDigest("test-secret");
+
+        assertFalse(digest.key(PHONE).contains("5550001111"));
+        assertEquals(digest.key(PHONE), new OtpDigest("test-secret").key(PHONE));
+        assertNotEquals(digest.key(PHONE), new OtpDigest("other-secret").key(PHONE));
+        assertNotEquals(digest.code(PHONE, "123456"), digest.code("+15550002222", "123456"));
+        assertThrows(IllegalStateException.class, () -> new OtpDigest(" "));
+    }
+
+    // Sends a code and reads it back from the queued SMS
+    private String send() {
+        otpService.generateAndSendOtp(PHONE);
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(smsDispatcher, atLeastOnce()).enqueue(eq(PHONE), body.capture(), any(Duration.class));
+        Matcher code = Pattern.compile("\\d{6}").matcher(body.getValue());
+        assertTrue(code.find());
+        return code.group();
+    }
+}
@@ -0,0 +1,87 @@
+package com.ubaid.Auth_service.service;
+
+import com.ubaid.Auth_service.dto.PatientRequestDTO;
+import com.ubaid.Auth_service.entity.Patient;
+import com.ubaid.Auth_service.entity.User;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.outbox.OutboxPublisher;
+import com.ubaid.Auth_service.repository.PatientRepository;
+import com.ubaid.Auth_service.repository.UserRepository;
+import com.ubaid.Auth_service.search.PatientSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PatientServiceTests {
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final OutboxPublisher outboxPublisher = mock(OutboxPublisher.class);
+    private final PatientSearchIndex patientSearchIndex = mock(PatientSearchIndex.class);
+    private final PatientService patientService = new PatientService(patientRepository, userRepository,
+            mock(PatientIdGenerator.class), mock(BusinessIdAllocator.class), mock(TableStatistics.class),
+            outboxPublisher, patientSearchIndex);
+
+    private final User user = User.builder().id(7L).username("pat").email("pat@example.com")
+            .firstName("Pat").lastName("Old").roles(Set.of(RoleType.PATIENT)).build();
+
+    @BeforeEach
+    void signIn() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(patientRepository.findByUserId(7L)).thenReturn(Optional.of(Patient.builder().id(70L).user(user).patientId("PAT-1").build()));
+        when(patientRepository.save(any(Patient.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // The users topic is compacted by user id: a missed event leaves the old name there for good
+    @Test
+    void profileEditThatChangesTheUserPublishesUserUpdated() {
+        patientService.createOrUpdatePatient(PatientRequestDTO.builder().lastName("New").build());
+
+        verify(userRepository).save(user);
+        verify(outboxPublisher).userSaved("UserUpdated", user);
+        verify(outboxPublisher).patientSaved(eq("PatientUpdated"), any(Patient.class));
+    }
+
+    @Test
+    void profileEditThatLeavesTheUserAloneDoesNotPublishIt() {
+        patientService.createOrUpdatePatient(PatientRequestDTO.builder().lastName("Old").city("Lahore").build());
+
+        verify(outboxPublisher, never()).userSaved(any(), any());
+        verify(outboxPublisher).patientSaved(eq("PatientUpdated"), any(Patient.class));
+    }
+
+    // A blank search must not turn into a full table read
+    @Test
+    void blankSearchIsRejected() {
+        for (String name : new String[]{null, "", "   "}) {
+            ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                    () -> patientService.searchPatientsByName(name));
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        }
+        verifyNoInteractions(patientRepository, patientSearchIndex);
+    }
+}
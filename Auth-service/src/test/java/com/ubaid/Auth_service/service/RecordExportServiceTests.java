@@ -0,0 +1,126 @@
+package com.ubaid.Auth_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubaid.Auth_service.dto.DoctorExportRow;
+import com.ubaid.Auth_service.entity.Patient;
+import com.ubaid.Auth_service.repository.DoctorRepository;
+import com.ubaid.Auth_service.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecordExportServiceTests {
+
+    private static final Timestamp CREATED = Timestamp.from(Instant.parse("2024-01-02T03:04:05Z"));
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RecordExportService exportService = new RecordExportService(patientRepository, doctorRepository,
+            entityManager, mock(PlatformTransactionManager.class), objectMapper);
+
+    @Test
+    void ndjsonWritesOneObjectPerRow() throws IOException {
+        Patient first = patient(1L, "Ada", "Lovelace");
+        Patient second = patient(2L, "Alan", "Turing");
+        when(patientRepository.streamAllOrderById()).thenReturn(Stream.of(first, second));
+
+        List<String> lines = lines(run(exportService.patientsExport(RecordExportService.Format.NDJSON, false)));
+
+        assertEquals(2, lines.size());
+        JsonNode row = objectMapper.readTree(lines.get(0));
+        assertEquals("1", row.get("id").asText());
+        assertTrue(row.get("id").isTextual());
+        assertEquals("Ada", row.get("firstName").asText());
+        assertTrue(row.get("active").isBoolean());
+        assertEquals("2024-01-02T03:04:05Z", row.get("createdAt").asText());
+        assertTrue(row.get("email").isNull());
+        assertEquals("Turing", objectMapper.readTree(lines.get(1)).get("lastName").asText());
+        // Written entities are detached so the persistence context does not grow with the export
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void csvQuotesSeparatorsAndQuotes() throws IOException {
+        when(doctorRepository.streamExportRows()).thenReturn(Stream.of(
+                doctor("Smith, Jr.", "Says \"hi\"", new BigDecimal("-5.00"))));
+
+        List<String> lines = lines(run(exportService.doctorsExport(RecordExportService.Format.CSV, false)));
+
+        assertEquals("id,doctorId,userId,firstName,lastName,phoneNumber,licenseNumber,specialization,"
+                + "qualification,experienceYears,consultationFee,available,active,createdAt", lines.get(0));
+        assertEquals("10,DOC1,20,\"Smith, Jr.\",\"Says \"\"hi\"\"\",,LIC1,Cardiology,,3,-5.00,true,true,2024-01-02T03:04:05Z",
+                lines.get(1));
+    }
+
+    @Test
+    void csvNeutralizesFormulaLikeText() throws IOException {
+        when(doctorRepository.streamExportRows()).thenReturn(Stream.of(
+                doctor("=HYPERLINK(\"http://x\")", "@SUM(A1)", BigDecimal.ONE),
+                doctor("+1", "-2", BigDecimal.ONE),
+                doctor("\tTab", "\rReturn", BigDecimal.ONE)));
+
+        List<String> lines = lines(run(exportService.doctorsExport(RecordExportService.Format.CSV, false)));
+
+        assertTrue(lines.get(1).startsWith("10,DOC1,20,\"'=HYPERLINK(\"\"http://x\"\")\",\"'@SUM(A1)\","), lines.get(1));
+        assertTrue(lines.get(2).startsWith("10,DOC1,20,\"'+1\",\"'-2\","), lines.get(2));
+        assertTrue(lines.get(3).startsWith("10,DOC1,20,\"'\tTab\",\"'\rReturn\","), lines.get(3));
+    }
+
+    @Test
+    void gzipBodyDecompressesToThePlainExport() throws IOException {
+        when(doctorRepository.streamExportRows())
+                .thenReturn(Stream.of(doctor("Ann", "Lee", BigDecimal.TEN)))
+                .thenReturn(Stream.of(doctor("Ann", "Lee", BigDecimal.TEN)));
+
+        byte[] plain = run(exportService.doctorsExport(RecordExportService.Format.CSV, false));
+        byte[] gzipped = run(exportService.doctorsExport(RecordExportService.Format.CSV, true));
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertEquals(new String(plain, StandardCharsets.UTF_8), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static byte[] run(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+
+    // CSV rows end in CRLF; a CR inside a quoted field is not a line break
+    private static List<String> lines(byte[] body) {
+        String text = new String(body, StandardCharsets.UTF_8);
+        return List.of(text.contains("\r\n") ? text.split("\r\n") : text.split("\n"));
+    }
+
+    private static Patient patient(Long id, String firstName, String lastName) {
+        return Patient.builder().id(id).patientId("PAT" + id).firstName(firstName).lastName(lastName)
+                .active(true).createdAt(CREATED).build();
+    }
+
+    private static DoctorExportRow doctor(String firstName, String lastName, BigDecimal fee) {
+        return new DoctorExportRow(10L, "DOC1", 20L, firstName, lastName, null, "LIC1", "Cardiology", null,
+                3, fee, true, true, CREATED);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ubaid.Auth_service.service;
+
+import com.ubaid.Auth_service.dto.RolePermissionsDto;
+import com.ubaid.Auth_service.entity.type.PermissionType;
+import com.ubaid.Auth_service.entity.type.RoleType;
+import com.ubaid.Auth_service.repository.RolePermissionRepository;
+import com.ubaid.Auth_service.security.RolePermissionRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class RolePermissionServiceTests {
+
+    private final RolePermissionRepository rolePermissionRepository = mock(RolePermissionRepository.class);
+    private final RolePermissionRegistry rolePermissionRegistry = mock(RolePermissionRegistry.class);
+    private final RolePermissionService rolePermissionService =
+            new RolePermissionService(rolePermissionRepository, rolePermissionRegistry);
+
+    private final Set<PermissionType> permissions = EnumSet.of(PermissionType.values()[0]);
+
+    @Test
+    void bodyNamingAnotherRoleIsRejected() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () ->
+                rolePermissionService.replacePermissions(RoleType.PATIENT, new RolePermissionsDto(RoleType.ADMIN, permissions)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        verify(rolePermissionRepository, never()).deleteByRole(any());
+        verifyNoInteractions(rolePermissionRegistry);
+    }
+
+    @Test
+    void pathRoleIsUsedWhenTheBodyOmitsOrRepeatsIt() {
+        RolePermissionsDto omitted = rolePermissionService.replacePermissions(RoleType.DOCTOR, new RolePermissionsDto(null, permissions));
+        RolePermissionsDto repeated = rolePermissionService.replacePermissions(RoleType.DOCTOR, new RolePermissionsDto(RoleType.DOCTOR, permissions));
+
+        assertEquals(RoleType.DOCTOR, omitted.getRole());
+        assertEquals(RoleType.DOCTOR, repeated.getRole());
+        assertEquals(permissions, repeated.getPermissions());
+        verify(rolePermissionRepository, times(2)).deleteByRole(RoleType.DOCTOR);
+    }
+}
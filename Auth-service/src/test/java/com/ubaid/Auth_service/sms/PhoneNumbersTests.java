@@ -0,0 +1,34 @@
+package com.ubaid.Auth_service.sms;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PhoneNumbersTests {
+
+    @Test
+    void formattingIsDropped() {
+        assertEquals("+15550001111", PhoneNumbers.normalize("+15550001111"));
+        assertEquals("+15550001111", PhoneNumbers.normalize(" +1 (555) 000-1111 "));
+        assertEquals("+15550001111", PhoneNumbers.normalize("+1.555.000.1111"));
+    }
+
+    @Test
+    void internationalPrefixBecomesPlus() {
+        assertEquals("+15550001111", PhoneNumbers.normalize("0015550001111"));
+        assertEquals("+442071234567", PhoneNumbers.normalize("00 44 20 7123 4567"));
+    }
+
+    @Test
+    void numbersWithoutCountryKeepTheirDigits() {
+        assertEquals("05550001111", PhoneNumbers.normalize("0555 000 1111"));
+        assertEquals("5550001111", PhoneNumbers.normalize("555-000-1111"));
+    }
+
+    @Test
+    void nonNumbersAreLeftAlone() {
+        assertNull(PhoneNumbers.normalize(null));
+        assertEquals("n/a", PhoneNumbers.normalize(" n/a "));
+    }
+}
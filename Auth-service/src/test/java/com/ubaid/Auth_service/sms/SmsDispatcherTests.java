@@ -0,0 +1,117 @@
+package com.ubaid.Auth_service.sms;
+
+import com.ubaid.Auth_service.config.SmsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SmsDispatcherTests {
+
+    // Fails the first `failures` sends, then accepts; `accepted` counts down on every accepted send
+    private static final class FlakyGateway implements SmsGateway {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final int failures;
+        private final boolean retryable;
+        private final CountDownLatch accepted;
+        private final CountDownLatch release;
+
+        FlakyGateway(int failures, boolean retryable, CountDownLatch accepted, CountDownLatch release) {
+            this.failures = failures;
+            this.retryable = retryable;
+            this.accepted = accepted;
+            this.release = release;
+        }
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public void send(String to, String body) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (calls.incrementAndGet() <= failures) {
+                throw new SmsDeliveryException("provider unavailable", retryable, null);
+            }
+            accepted.countDown();
+        }
+    }
+
+    private static SmsConfig config(int concurrency, int queueCapacity) {
+        SmsConfig config = new SmsConfig();
+        config.setConcurrency(concurrency);
+        config.setQueueCapacity(queueCapacity);
+        config.setMaxAttempts(3);
+        config.setInitialBackoff(Duration.ofMillis(10));
+        config.setMaxBackoff(Duration.ofMillis(20));
+        return config;
+    }
+
+    private static double outcome(MeterRegistry registry, String outcome) {
+        return registry.get("sms.delivery").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void retriesRetryableFailuresUntilDelivered() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        CountDownLatch accepted = new CountDownLatch(1);
+        FlakyGateway gateway = new FlakyGateway(2, true, accepted, new CountDownLatch(0));
+        try (SmsDispatcher dispatcher = new SmsDispatcher(gateway, config(2, 10), registry)) {
+            dispatcher.enqueue("+15550001111", "code", Duration.ofMinutes(5));
+            assertTrue(accepted.await(5, TimeUnit.SECONDS));
+        }
+        // Closing waited for the sender to record the outcome
+        assertEquals(3, gateway.calls.get());
+        assertEquals(2, registry.get("sms.retries").counter().count());
+        assertEquals(1, outcome(registry, "delivered"));
+    }
+
+    @Test
+    void doesNotRetryPermanentFailures() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        FlakyGateway gateway = new FlakyGateway(1, false, new CountDownLatch(1), new CountDownLatch(0));
+        try (SmsDispatcher dispatcher = new SmsDispatcher(gateway, config(1, 10), registry)) {
+            dispatcher.enqueue("+15550001111", "code", Duration.ofMinutes(5));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (outcome(registry, "failed") == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, outcome(registry, "failed"));
+            assertEquals(1, gateway.calls.get());
+        }
+    }
+
+    @Test
+    void rejectsWhenSendersAndQueueAreFull() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch accepted = new CountDownLatch(3);
+        FlakyGateway gateway = new FlakyGateway(0, true, accepted, release);
+        try (SmsDispatcher dispatcher = new SmsDispatcher(gateway, config(1, 2), registry)) {
+            // One blocked in the gateway, two waiting
+            for (int i = 0; i < 3; i++) {
+                dispatcher.enqueue("+1555000111" + i, "code", Duration.ofMinutes(5));
+            }
+            assertThrows(SmsQueueFullException.class,
+                    () -> dispatcher.enqueue("+15550009999", "code", Duration.ofMinutes(5)));
+            assertEquals(1, outcome(registry, "rejected"));
+
+            release.countDown();
+            assertTrue(accepted.await(5, TimeUnit.SECONDS));
+        }
+    }
+}
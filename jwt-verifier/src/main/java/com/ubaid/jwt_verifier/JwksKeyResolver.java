@@ -0,0 +1,189 @@
+package com.ubaid.jwt_verifier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.ProtectedHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the Auth-service JWKS in memory and resolves verification keys by {@code kid}.
+ * Keys are loaded and refreshed ahead of expiry in the background, so neither construction nor
+ * verification waits on the network, except when a token names a kid that is not known yet (a freshly
+ * rotated key, or any key before the first load finished). Such fetches and the scheduled refreshes
+ * happen at most once per {@code minRefreshInterval}, whatever max-age the endpoint sends.
+ */
+public class JwksKeyResolver implements Locator<Key>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeyResolver.class);
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final double REFRESH_AHEAD_RATIO = 0.8;
+
+    private final URI jwksUri;
+    private final Duration defaultTtl;
+    private final Duration minRefreshInterval;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile Instant lastFetch = Instant.EPOCH;
+    private final CountDownLatch firstLoad = new CountDownLatch(1);
+
+    public JwksKeyResolver(URI jwksUri) {
+        this(jwksUri, Duration.ofMinutes(15), Duration.ofSeconds(30));
+    }
+
+    public JwksKeyResolver(URI jwksUri, Duration defaultTtl, Duration minRefreshInterval) {
+        this.jwksUri = jwksUri;
+        this.defaultTtl = defaultTtl;
+        this.minRefreshInterval = minRefreshInterval;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::refreshAndReschedule);
+    }
+
+    // For readiness checks: waits until the first load attempt finished, true if keys are available
+    public boolean awaitKeys(Duration timeout) throws InterruptedException {
+        return firstLoad.await(timeout.toMillis(), TimeUnit.MILLISECONDS) && !keys.isEmpty();
+    }
+
+    @Override
+    public Key locate(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        if (kid == null) {
+            throw new JwtException("Token has no kid header");
+        }
+        PublicKey key = keys.get(kid);
+        if (key == null) {
+            // Also picks up keys another thread loaded while this one waited for the lock
+            refreshOnUnknownKid();
+            key = keys.get(kid);
+        }
+        if (key == null) {
+            throw new JwtException("Unknown JWT key id: " + kid);
+        }
+        return key;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    // A rotated key may appear before the scheduled refresh; fetch at most once per minRefreshInterval
+    private synchronized void refreshOnUnknownKid() {
+        if (Instant.now().isBefore(lastFetch.plus(minRefreshInterval))) {
+            return;
+        }
+        try {
+            fetch();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            log.warn("JWKS refresh for unknown kid failed: {}", e.getMessage());
+        }
+    }
+
+    private void refreshAndReschedule() {
+        Duration next;
+        try {
+            next = nextRefresh(fetch(), minRefreshInterval);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            // Keep serving the last known keys and retry soon
+            log.warn("JWKS refresh from {} failed, keeping {} cached keys: {}", jwksUri, keys.size(), e.getMessage());
+            next = minRefreshInterval;
+        } finally {
+            firstLoad.countDown();
+        }
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::refreshAndReschedule, next.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Ahead of expiry, but never more often than minRefreshInterval (e.g. for max-age=1)
+    static Duration nextRefresh(Duration ttl, Duration minRefreshInterval) {
+        Duration ahead = Duration.ofMillis((long) (ttl.toMillis() * REFRESH_AHEAD_RATIO));
+        return ahead.compareTo(minRefreshInterval) < 0 ? minRefreshInterval : ahead;
+    }
+
+    private synchronized Duration fetch() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(jwksUri)
+                .timeout(Duration.ofSeconds(5))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        lastFetch = Instant.now();
+        if (response.statusCode() != 200) {
+            throw new IOException("JWKS endpoint returned HTTP " + response.statusCode());
+        }
+
+        Map<String, PublicKey> parsed = new HashMap<>();
+        for (JsonNode jwk : objectMapper.readTree(response.body()).path("keys")) {
+            if ("EC".equals(jwk.path("kty").asText()) && "P-256".equals(jwk.path("crv").asText())) {
+                parsed.put(jwk.path("kid").asText(), ecPublicKey(jwk));
+            }
+        }
+        keys = Map.copyOf(parsed);
+        log.debug("Loaded {} JWKS keys from {}", parsed.size(), jwksUri);
+
+        return response.headers().firstValue("Cache-Control")
+                .map(MAX_AGE::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> Duration.ofSeconds(Long.parseLong(matcher.group(1))))
+                .filter(ttl -> !ttl.isZero())
+                .orElse(defaultTtl);
+    }
+
+    private static PublicKey ecPublicKey(JsonNode jwk) {
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            ECPoint point = new ECPoint(
+                    new BigInteger(1, decoder.decode(jwk.path("x").asText())),
+                    new BigInteger(1, decoder.decode(jwk.path("y").asText())));
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            ECParameterSpec spec = parameters.getParameterSpec(ECParameterSpec.class);
+            return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, spec));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid EC JWK: " + jwk.path("kid").asText(), e);
+        }
+    }
+}
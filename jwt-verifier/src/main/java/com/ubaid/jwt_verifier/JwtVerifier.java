@@ -0,0 +1,44 @@
+package com.ubaid.jwt_verifier;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Embeddable verifier for Auth-service access tokens. Verification is local: the only network
+ * traffic is the periodic JWKS refresh, so consumers do not call back into Auth-service per request.
+ *
+ * <pre>
+ * JwtVerifier verifier = JwtVerifier.forJwks(URI.create("http://auth:8080/api/v1/auth/.well-known/jwks.json"));
+ * VerifiedToken token = verifier.verify(bearerToken);
+ * </pre>
+ */
+public class JwtVerifier implements AutoCloseable {
+
+    private final JwksKeyResolver keyResolver;
+    private final JwtParser parser;
+
+    public JwtVerifier(JwksKeyResolver keyResolver, Duration allowedClockSkew) {
+        this.keyResolver = keyResolver;
+        this.parser = Jwts.parser()
+                .keyLocator(keyResolver)
+                .clockSkewSeconds(allowedClockSkew.toSeconds())
+                .build();
+    }
+
+    public static JwtVerifier forJwks(URI jwksUri) {
+        return new JwtVerifier(new JwksKeyResolver(jwksUri), Duration.ofSeconds(30));
+    }
+
+    // Throws io.jsonwebtoken.JwtException (incl. ExpiredJwtException) for tokens that must be rejected
+    public VerifiedToken verify(String token) {
+        return VerifiedToken.from(parser.parseSignedClaims(token).getPayload());
+    }
+
+    @Override
+    public void close() {
+        keyResolver.close();
+    }
+}
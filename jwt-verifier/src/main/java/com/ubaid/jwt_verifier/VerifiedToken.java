@@ -0,0 +1,29 @@
+package com.ubaid.jwt_verifier;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of an Auth-service access token whose signature and expiry were verified locally.
+ */
+public record VerifiedToken(Long userId,
+                            String username,
+                            List<String> roles,
+                            Instant expiresAt) {
+
+    static VerifiedToken from(Claims claims) {
+        List<?> rawRoles = claims.get("roles", List.class);
+        return new VerifiedToken(
+                claims.getSubject() != null ? Long.valueOf(claims.getSubject()) : null,
+                claims.get("username", String.class),
+                rawRoles == null ? List.of() : rawRoles.stream().map(String::valueOf).toList(),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+}
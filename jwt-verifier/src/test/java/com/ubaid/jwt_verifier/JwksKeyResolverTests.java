@@ -0,0 +1,213 @@
+package com.ubaid.jwt_verifier;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against a local JWKS endpoint that counts its requests
+class JwksKeyResolverTests {
+
+    private final Map<String, KeyPair> published = new LinkedHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile String cacheControl = "max-age=900";
+    private volatile CountDownLatch responseGate = new CountDownLatch(0);
+
+    private HttpServer server;
+    private URI jwksUri;
+    private JwksKeyResolver resolver;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/jwks", exchange -> {
+            requests.incrementAndGet();
+            try {
+                responseGate.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = jwks().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        jwksUri = URI.create("http://localhost:" + server.getAddress().getPort() + "/jwks");
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (resolver != null) resolver.close();
+        responseGate.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void resolvesEachTokenByItsKid() throws Exception {
+        KeyPair k1 = publish("k1");
+        KeyPair k2 = publish("k2");
+        JwtVerifier verifier = verifier(Duration.ofSeconds(30));
+
+        assertEquals(42L, verifier.verify(token("k1", k1, Instant.now().plusSeconds(60))).userId());
+        assertEquals(42L, verifier.verify(token("k2", k2, Instant.now().plusSeconds(60))).userId());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void unknownKidFetchesTheRotatedKey() throws Exception {
+        publish("k1");
+        JwtVerifier verifier = verifier(Duration.ofMillis(50));
+        KeyPair k2 = publish("k2");
+        Thread.sleep(100);
+
+        assertEquals("user", verifier.verify(token("k2", k2, Instant.now().plusSeconds(60))).username());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void unknownKidFetchesAreRateLimited() throws Exception {
+        publish("k1");
+        JwtVerifier verifier = verifier(Duration.ofHours(1));
+        KeyPair k2 = publish("k2");
+        String token = token("k2", k2, Instant.now().plusSeconds(60));
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(JwtException.class, () -> verifier.verify(token));
+        }
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void expiredTokensAreRejected() throws Exception {
+        KeyPair k1 = publish("k1");
+        JwtVerifier verifier = verifier(Duration.ofHours(1));
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token("k1", k1, Instant.now().minusSeconds(5))));
+    }
+
+    @Test
+    void tokensWithoutKidAreRejected() throws Exception {
+        KeyPair k1 = publish("k1");
+        JwtVerifier verifier = verifier(Duration.ofHours(1));
+        String token = Jwts.builder().subject("42").expiration(Date.from(Instant.now().plusSeconds(60)))
+                .signWith(k1.getPrivate()).compact();
+
+        assertThrows(JwtException.class, () -> verifier.verify(token));
+    }
+
+    // A short max-age refreshes the keys in the background, no more often than minRefreshInterval
+    @Test
+    void keysAreRefreshedWhenTheyExpire() throws Exception {
+        publish("k1");
+        cacheControl = "max-age=1";
+        verifier(Duration.ofMillis(100));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requests.get() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(requests.get() >= 3, "refreshes: " + requests.get());
+    }
+
+    @Test
+    void refreshDelayIsClampedToTheMinimumInterval() {
+        assertEquals(Duration.ofSeconds(30), JwksKeyResolver.nextRefresh(Duration.ofSeconds(1), Duration.ofSeconds(30)));
+        assertEquals(Duration.ofSeconds(30), JwksKeyResolver.nextRefresh(Duration.ZERO, Duration.ofSeconds(30)));
+        assertEquals(Duration.ofMinutes(12), JwksKeyResolver.nextRefresh(Duration.ofMinutes(15), Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void constructionDoesNotWaitForTheEndpoint() throws Exception {
+        publish("k1");
+        responseGate = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        resolver = new JwksKeyResolver(jwksUri, Duration.ofMinutes(15), Duration.ofHours(1));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        responseGate.countDown();
+        assertTrue(resolver.awaitKeys(Duration.ofSeconds(5)));
+    }
+
+    private JwtVerifier verifier(Duration minRefreshInterval) throws InterruptedException {
+        resolver = new JwksKeyResolver(jwksUri, Duration.ofMinutes(15), minRefreshInterval);
+        assertTrue(resolver.awaitKeys(Duration.ofSeconds(5)));
+        return new JwtVerifier(resolver, Duration.ZERO);
+    }
+
+    private KeyPair publish(String kid) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+        synchronized (published) {
+            published.put(kid, keyPair);
+        }
+        return keyPair;
+    }
+
+    private String jwks() {
+        synchronized (published) {
+            return published.entrySet().stream().map(entry -> {
+                ECPublicKey key = (ECPublicKey) entry.getValue().getPublic();
+                return "{\"kty\":\"EC\",\"crv\":\"P-256\",\"use\":\"sig\",\"alg\":\"ES256\",\"kid\":\"" + entry.getKey()
+                        + "\",\"x\":\"" + coordinate(key.getW().getAffineX())
+                        + "\",\"y\":\"" + coordinate(key.getW().getAffineY()) + "\"}";
+            }).collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        }
+    }
+
+    // Unsigned, left-padded to the 32 bytes of a P-256 coordinate
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, fixed, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static String token(String kid, KeyPair keyPair, Instant expiresAt) {
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .subject("42")
+                .claim("username", "user")
+                .claim("roles", List.of("PATIENT"))
+                .issuedAt(Date.from(expiresAt.minusSeconds(120)))
+                .expiration(Date.from(expiresAt))
+                .signWith(keyPair.getPrivate())
+                .compact();
+    }
+}